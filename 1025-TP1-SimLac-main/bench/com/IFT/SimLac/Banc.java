@@ -0,0 +1,129 @@
+package com.IFT.SimLac;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A small benchmark harness, in the spirit of JMH, that only needs the JDK.
+ *
+ * Each benchmark is warmed up for a few iterations, then measured for a few more. An iteration repeats the operation
+ * until it has been timed for a given duration; the state of each invocation is prepared beforehand and that
+ * preparation isn't timed. The report gives the throughput (operations per second, mean and standard deviation over
+ * iterations), the bytes allocated per operation, and the garbage collections that happened while measuring,
+ * preparations included.
+ *
+ * Allocations are those of the calling thread only, so benchmarks should run sequentially to count everything.
+ */
+
+public final class Banc {
+
+    // An operation to measure. preparer builds the state of one invocation, executer is the part that is timed.
+    // executer returns a value so that the JIT can't remove the work as dead code.
+    public interface Operation<S> {
+        S preparer();
+        Object executer(S etat);
+    }
+
+    private static final int PREPARATION_MAXIMUM = 5;
+    private static volatile int puits;  // Receives the results of the operations. See consommer.
+
+    private final int iterationsChauffe;
+    private final int iterations;
+    private final long dureeIteration;  // In nanoseconds.
+    private final PrintStream out;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collecteurs = ManagementFactory.getGarbageCollectorMXBeans();
+
+
+    // Constructor
+    public Banc(int iterationsChauffe, int iterations, long dureeIterationMillis, PrintStream out) {
+        if (iterations <= 0)
+            throw new IllegalArgumentException("iterations must be greater than 0");
+        this.iterationsChauffe = iterationsChauffe;
+        this.iterations = iterations;
+        this.dureeIteration = dureeIterationMillis * 1_000_000;
+        this.out = out;
+    }
+
+
+    public void imprimeEntete() {
+        out.printf(Locale.ROOT, "%-26s %8s %14s %12s %14s %6s %8s%n",
+                "Banc", "Taille", "ops/s", "ecart-type", "B/op", "GC", "GC ms");
+    }
+
+    // Measures operation and prints one line of report.
+    public <S> void mesurer(String nom, int taille, Operation<S> operation) {
+        for (int i = 0; i < iterationsChauffe; i++)
+            iteration(operation);
+
+        long collectionsAvant = collections();
+        long tempsCollecteAvant = tempsCollecte();
+
+        var debits = new double[iterations];
+        long octets = 0;
+        long operations = 0;
+        for (int i = 0; i < iterations; i++) {
+            var resultat = iteration(operation);
+            debits[i] = resultat[0] / (resultat[1] * 1e-9);
+            operations += resultat[0];
+            octets += resultat[2];
+        }
+
+        double moyenne = 0;
+        for (var debit : debits)
+            moyenne += debit / iterations;
+        double variance = 0;
+        for (var debit : debits)
+            variance += (debit - moyenne) * (debit - moyenne);
+        double ecartType = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+
+        out.printf(Locale.ROOT, "%-26s %8d %14.3f %12.3f %14.1f %6d %8d%n", nom, taille, moyenne, ecartType,
+                (double) octets / operations, collections() - collectionsAvant, tempsCollecte() - tempsCollecteAvant);
+    }
+
+
+    // Runs one iteration. Returns the number of operations, the time spent in them, and the bytes they allocated.
+    // When preparing takes much longer than the operation, the iteration stops after PREPARATION_MAXIMUM times its
+    // duration, with fewer operations.
+    private <S> long[] iteration(Operation<S> operation) {
+        long nombre = 0;
+        long temps = 0;
+        long octets = 0;
+        long fin = System.nanoTime() + PREPARATION_MAXIMUM * dureeIteration;
+        while ((temps < dureeIteration && System.nanoTime() < fin) || nombre == 0) {
+            var etat = operation.preparer();
+
+            long octetsAvant = threads.getCurrentThreadAllocatedBytes();
+            long debut = System.nanoTime();
+            var resultat = operation.executer(etat);
+            temps += System.nanoTime() - debut;
+            octets += threads.getCurrentThreadAllocatedBytes() - octetsAvant;
+
+            consommer(resultat);
+            nombre++;
+        }
+        return new long[] {nombre, temps, octets};
+    }
+
+    private static void consommer(Object resultat) {
+        puits += System.identityHashCode(resultat);
+    }
+
+    private long collections() {
+        long total = 0;
+        for (var collecteur : collecteurs)
+            total += Math.max(0, collecteur.getCollectionCount());
+        return total;
+    }
+
+    private long tempsCollecte() {
+        long total = 0;
+        for (var collecteur : collecteurs)
+            total += Math.max(0, collecteur.getCollectionTime());
+        return total;
+    }
+}
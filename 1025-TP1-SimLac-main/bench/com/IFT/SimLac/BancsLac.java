@@ -0,0 +1,231 @@
+package com.IFT.SimLac;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks of the hot paths of Lac, run with Banc.
+ *
+ * For each size (number of plants of a synthetic lake, see LacsSynthetiques), measures a whole tick, each of its
+ * phases on its own, the foraging of herbivores, and the parsing of the initial conditions. Each
+ * invocation works on a fresh copy of a lake that has already been simulated for a few cycles; the phases before the
+ * measured one run in the untimed preparation.
+ *
+ * tickStable and tickRecyclage measure a tick once the copy has been through CYCLES_STABILISATION ticks of its own,
+ * so that its buffers and populations have settled, without and with the recycling of dead organisms (see
+ * Lac.setRecyclage). Their allocations are those of a tick in the steady state, with no observer: about 200 bytes per
+ * tick with recycling, whatever the size, and about 40 bytes per plant without, for the newborns.
+ *
+ * Build and run from the module directory, with the sources of the simulation:
+ *     javac -encoding UTF-8 -d out $(find src bench -name '*.java')
+ *     java -cp out com.IFT.SimLac.BancsLac [--tailles 1000,10000] [--filtre tick|nextLac] [--iterations 5]
+ *                                          [--chauffe 3] [--duree-ms 1000] [--parallelisme 1]
+ * To time the vector kernel of LacColonnes too, add incubator to the roots given to find, and
+ * --add-modules jdk.incubator.vector,jdk.incubator.foreign to both commands. See NoyauPlantes.
+ *
+ * By default everything runs on the main thread so that allocations are fully counted. With --parallelisme N, the
+ * parallel phases run on N threads and only the allocations of the main thread are counted.
+ */
+public final class BancsLac {
+
+    private static final int CYCLES_PREALABLES = 5;  // Cycles simulated before measuring, so that all ages are present.
+    private static final int CYCLES_STABILISATION = 20;  // Cycles simulated by a copy before a steady-state tick.
+    private static final long GRAINE = 42;
+
+    public static void main(String[] args) {
+        int[] tailles = {1_000, 10_000, 100_000};
+        Pattern filtre = Pattern.compile(".*");
+        int iterationsChauffe = 3;
+        int iterations = 5;
+        long dureeIteration = 1000;
+        int parallelisme = 1;
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--tailles" -> tailles = Arrays.stream(argsIterator.next().split(","))
+                        .mapToInt(Integer::parseInt).toArray();
+                case "--filtre" -> filtre = Pattern.compile(argsIterator.next());
+                case "--chauffe" -> iterationsChauffe = Integer.parseInt(argsIterator.next());
+                case "--iterations" -> iterations = Integer.parseInt(argsIterator.next());
+                case "--duree-ms" -> dureeIteration = Long.parseLong(argsIterator.next());
+                case "--parallelisme" -> parallelisme = Integer.parseInt(argsIterator.next());
+                default -> {
+                    System.out.println("erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+
+        var executeur = parallelisme > 1 ? new ForkJoinPool(parallelisme) : null;
+        var banc = new Banc(iterationsChauffe, iterations, dureeIteration, System.out);
+        banc.imprimeEntete();
+
+        for (int taille : tailles) {
+            var xml = LacsSynthetiques.xml(taille);
+            var base = LacsSynthetiques.lac(taille, CYCLES_PREALABLES, GRAINE);
+
+            for (var mesure : mesures(base, xml, executeur)) {
+                if (filtre.matcher(mesure.nom).matches())
+                    banc.mesurer(mesure.nom, taille, mesure.operation);
+            }
+        }
+    }
+
+
+    private static final class Mesure {
+        private final String nom;
+        private final Banc.Operation<?> operation;
+
+        private Mesure(String nom, Banc.Operation<?> operation) {
+            this.nom = nom;
+            this.operation = operation;
+        }
+    }
+
+    private static List<Mesure> mesures(Lac base, String xml, ForkJoinPool executeur) {
+        var mesures = new ArrayList<Mesure>();
+
+        mesures.add(new Mesure("tick", phase(base, executeur, lac -> {}, Lac::tick)));
+        mesures.add(new Mesure("tickStable", phase(base, executeur, lac -> avancer(lac, false), Lac::tick)));
+        mesures.add(new Mesure("tickRecyclage", phase(base, executeur, lac -> avancer(lac, true), Lac::tick)));
+        mesures.add(new Mesure("plantsLifeCycle", phase(base, executeur, Lac::debuterCycle, Lac::plantsLifeCycle)));
+        mesures.add(new Mesure("herbivoresLifeCycle", phase(base, executeur,
+                lac -> {
+                    lac.debuterCycle();
+                    lac.plantsLifeCycle();
+                },
+                Lac::herbivoresLifeCycle)));
+        mesures.add(new Mesure("carnivoreLifeCycle", phase(base, executeur,
+                lac -> {
+                    lac.debuterCycle();
+                    lac.plantsLifeCycle();
+                    lac.herbivoresLifeCycle();
+                },
+                Lac::carnivoreLifeCycle)));
+        mesures.add(new Mesure("enleverMorts", phase(base, executeur,
+                lac -> {
+                    lac.debuterCycle();
+                    lac.plantsLifeCycle();
+                    lac.herbivoresLifeCycle();
+                    lac.carnivoreLifeCycle();
+                },
+                Lac::enleverMorts)));
+
+        // Every herbivore picks its plants, once the plants have been through their phase. The carnivores' hunt has no
+        // measure of its own: it is most of carnivoreLifeCycle.
+        mesures.add(new Mesure("choisirRepas", phase(base, executeur,
+                lac -> {
+                    lac.debuterCycle();
+                    lac.plantsLifeCycle();
+                },
+                Lac::choisirRepas)));
+
+        // The arithmetic of the plant phase of LacColonnes, with the kernel it loads and with the scalar one. The first
+        // is only vectorized when incubator/ was compiled and the JVM runs with --add-modules jdk.incubator.vector. See
+        // NoyauPlantes.
+        mesures.add(new Mesure("noyauPlantes", noyauPlantes(base, NoyauPlantes.charger())));
+        mesures.add(new Mesure("noyauPlantesScalaire", noyauPlantes(base, new NoyauPlantesScalaire())));
+
+        mesures.add(new Mesure("nextLac", new Banc.Operation<String>() {
+            @Override
+            public String preparer() {
+                return xml;
+            }
+
+            @Override
+            public Object executer(String xml) {
+                try {
+                    var reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+                    return new ConditionsInitiales(reader, new GenerateurCompteur(GRAINE)).nextLac();
+                } catch (XMLStreamException | ConditionsInitialesInvalides e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }));
+
+        return mesures;
+    }
+
+    // Times etape on a copy of base, after preparation has been run on the copy.
+    private static Banc.Operation<Lac> phase(Lac base, ForkJoinPool executeur, Consumer<Lac> preparation,
+                                             Consumer<Lac> etape) {
+        return new Banc.Operation<>() {
+            @Override
+            public Lac preparer() {
+                var lac = copier(base, executeur);
+                preparation.accept(lac);
+                return lac;
+            }
+
+            @Override
+            public Object executer(Lac lac) {
+                etape.accept(lac);
+                return lac;
+            }
+        };
+    }
+
+    // Runs noyau block by block over the plants of base, laid out as columns, like LacColonnes does between the checks
+    // that depend on the draws. Every plant gets the parameters of the first one.
+    private static Banc.Operation<double[]> noyauPlantes(Lac base, NoyauPlantes noyau) {
+        int taille = base.getPlantes().getTaille();
+        var energies = new double[taille];
+        var cles = new long[taille];
+        int i = 0;
+        double energieTotale = 0;
+        for (var plante : base.getPlantes()) {
+            energies[i] = plante.getEnergie();
+            cles[i++] = plante.getCle();
+            energieTotale += plante.getEnergie();
+        }
+        var espece = base.getPlantes().iterator().next().getEspece();
+        var budgets = new double[taille];
+        var morts = new long[(taille + 63) >> 6];
+        var tirages = new double[ExecutionParBlocs.TAILLE_BLOC];
+        var generateur = new GenerateurCompteur(GRAINE);
+        double total = energieTotale;
+
+        return new Banc.Operation<>() {
+            @Override
+            public double[] preparer() {
+                return energies.clone();
+            }
+
+            @Override
+            public Object executer(double[] energie) {
+                for (int debut = 0; debut < taille; debut += ExecutionParBlocs.TAILLE_BLOC) {
+                    int fin = Math.min(debut + ExecutionParBlocs.TAILLE_BLOC, taille);
+                    noyau.bilanEnergetique(base.getEnergieSolaire(), total, espece.getBesoinEnergie(), energie,
+                            budgets, debut, fin);
+                    noyau.tirer(generateur, CYCLES_PREALABLES, cles, budgets, tirages, debut, fin);
+                    noyau.croitreDecroitre(espece.getEfficaciteEnergie(), espece.getTailleMaximum(), energie, budgets,
+                            morts, debut, fin);
+                }
+                return energie;
+            }
+        };
+    }
+
+    // Simulates a few cycles of lac, so that its buffers and free lists are in place.
+    private static void avancer(Lac lac, boolean recyclage) {
+        lac.setRecyclage(recyclage);
+        for (int i = 0; i < CYCLES_STABILISATION; i++)
+            lac.tick();
+    }
+
+    private static Lac copier(Lac base, ForkJoinPool executeur) {
+        var lac = base.copier(base.getGenerateur());
+        lac.setExecuteur(executeur);
+        return lac;
+    }
+}
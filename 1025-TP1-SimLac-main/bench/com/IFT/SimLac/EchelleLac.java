@@ -0,0 +1,234 @@
+package com.IFT.SimLac;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * End-to-end scaling benchmark of Lac, on synthetic lakes (see LacsSynthetiques).
+ *
+ * Each run builds a lake, simulates a few cycles to warm up, then times nombreCycles ticks. It reports ticks per
+ * second, organisms updated per second (the population at the start of each tick, summed over ticks), the peak heap
+ * and the garbage collection pauses during the timed cycles. Three curves are available:
+ *     forte:  a fixed size, over thread counts. Acceleration is relative to the first thread count.
+ *     faible: a fixed size per thread, over thread counts. Efficiency is the time per tick of the first run over the
+ *             time per tick of this run.
+ *     taille: a fixed thread count (the last one), over sizes.
+ * Sizes are numbers of plants; animals are in proportion. Results are written as CSV on the standard output.
+ *
+ * Build and run from the module directory, with the sources of the simulation:
+ *     javac -encoding UTF-8 -d out $(find src bench -name '*.java')
+ *     java -Xmx8g -cp out com.IFT.SimLac.EchelleLac [--courbes forte,faible,taille] [--fils 1,2,4,8]
+ *         [--tailles 10000,100000,1000000] [--taille-forte 1000000] [--taille-par-fil 250000] [--cycles 20]
+ *         [--chauffe 5] [--especes 3,3,3] [--densite 0.5] [--energie-par-plante 3.75]
+ */
+public final class EchelleLac {
+
+    private static final String ENTETE = "courbe,fils,plantes,organismes,cycles,ticks_s,organismes_s,acceleration,"
+            + "efficacite,tas_max_mo,gc,gc_pause_max_ms,gc_pause_totale_ms";
+
+    public static void main(String[] args) {
+        var courbes = new String[] {"forte", "faible", "taille"};
+        int[] fils = {1, 2, 4, Runtime.getRuntime().availableProcessors()};
+        int[] tailles = {10_000, 100_000, 1_000_000};
+        int tailleForte = 1_000_000;
+        int tailleParFil = 250_000;
+        int nombreCycles = 20;
+        int chauffe = 5;
+        int[] especes = {3, 3, 3};
+        double densite = 0.5;
+        double energieParPlante = 3.75;
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--courbes" -> courbes = argsIterator.next().split(",");
+                case "--fils" -> fils = entiers(argsIterator.next());
+                case "--tailles" -> tailles = entiers(argsIterator.next());
+                case "--taille-forte" -> tailleForte = Integer.parseInt(argsIterator.next());
+                case "--taille-par-fil" -> tailleParFil = Integer.parseInt(argsIterator.next());
+                case "--cycles" -> nombreCycles = Integer.parseInt(argsIterator.next());
+                case "--chauffe" -> chauffe = Integer.parseInt(argsIterator.next());
+                case "--especes" -> especes = entiers(argsIterator.next());
+                case "--densite" -> densite = Double.parseDouble(argsIterator.next());
+                case "--energie-par-plante" -> energieParPlante = Double.parseDouble(argsIterator.next());
+                default -> {
+                    System.out.println("erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+        fils = Arrays.stream(fils).distinct().sorted().toArray();
+
+        var echelle = new EchelleLac(nombreCycles, chauffe, especes, densite, energieParPlante);
+        System.out.println(ENTETE);
+        for (var courbe : courbes) {
+            switch (courbe) {
+                case "forte" -> {
+                    Resultat reference = null;
+                    for (int f : fils) {
+                        var resultat = echelle.executer(tailleForte, f);
+                        reference = reference == null ? resultat : reference;
+                        echelle.imprimer(courbe, resultat, resultat.ticksParSeconde / reference.ticksParSeconde,
+                                resultat.ticksParSeconde / reference.ticksParSeconde / (f / (double) fils[0]));
+                    }
+                }
+                case "faible" -> {
+                    Resultat reference = null;
+                    for (int f : fils) {
+                        var resultat = echelle.executer(tailleParFil * f, f);
+                        reference = reference == null ? resultat : reference;
+                        echelle.imprimer(courbe, resultat, Double.NaN,
+                                resultat.ticksParSeconde / reference.ticksParSeconde);
+                    }
+                }
+                case "taille" -> {
+                    for (int taille : tailles)
+                        echelle.imprimer(courbe, echelle.executer(taille, fils[fils.length - 1]), Double.NaN,
+                                Double.NaN);
+                }
+                default -> System.out.println("erreur: courbe inconnue \"" + courbe + "\"");
+            }
+        }
+    }
+
+
+    private static final class Resultat {
+        private int fils;
+        private int plantes;
+        private long organismes;           // Organisms of the initial lake.
+        private double ticksParSeconde;
+        private double organismesParSeconde;
+        private long tasMaximum;           // In bytes.
+        private long collections;
+        private double pauseMaximum;       // In milliseconds.
+        private double pauseTotale;
+    }
+
+    private final int nombreCycles;
+    private final int chauffe;
+    private final int[] especes;
+    private final double densite;
+    private final double energieParPlante;
+
+    // Pauses of the collectors, in milliseconds, that started during the timed cycles of the last call to executer.
+    private long debutMesure = Long.MAX_VALUE;  // Uptime of the JVM when the timed cycles started, in milliseconds.
+    private long collections = 0;
+    private double pauseMaximum = 0;
+    private double pauseTotale = 0;
+
+
+    private EchelleLac(int nombreCycles, int chauffe, int[] especes, double densite, double energieParPlante) {
+        if (especes.length != 3)
+            throw new IllegalArgumentException("expected the number of plant, herbivore and carnivore species");
+        this.nombreCycles = nombreCycles;
+        this.chauffe = chauffe;
+        this.especes = especes;
+        this.densite = densite;
+        this.energieParPlante = energieParPlante;
+
+        NotificationListener ecouteur = this::collecteTerminee;
+        for (var collecteur : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collecteur instanceof NotificationEmitter emetteur)
+                emetteur.addNotificationListener(ecouteur, null, null);
+        }
+    }
+
+
+    private Resultat executer(int plantes, int fils) {
+        var configuration = new LacsSynthetiques.Configuration(plantes);
+        configuration.setEspeces(especes[0], especes[1], especes[2]);
+        configuration.setDensiteRegime(densite);
+        configuration.setEnergieSolaireParPlante(energieParPlante);
+
+        var executeur = fils > 1 ? new ForkJoinPool(fils) : null;
+        try {
+            var lac = LacsSynthetiques.scenario(configuration).creerLac(new GenerateurCompteur(42));
+            lac.setExecuteur(executeur);
+            for (int i = 0; i < chauffe; i++)
+                lac.tick();
+
+            System.gc();
+            var poolsTas = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+            poolsTas.forEach(MemoryPoolMXBean::resetPeakUsage);
+            synchronized (this) {
+                debutMesure = ManagementFactory.getRuntimeMXBean().getUptime();
+                collections = 0;
+                pauseMaximum = 0;
+                pauseTotale = 0;
+            }
+
+            long organismesMisAJour = 0;
+            long debut = System.nanoTime();
+            for (int i = 0; i < nombreCycles; i++) {
+                organismesMisAJour += lac.getPlantes().getTaille() + lac.getHerbivores().getTaille()
+                        + lac.getCarnivores().getTaille();
+                lac.tick();
+            }
+            double secondes = (System.nanoTime() - debut) * 1e-9;
+
+            var resultat = new Resultat();
+            resultat.fils = fils;
+            resultat.plantes = plantes;
+            resultat.organismes = configuration.getNombreOrganismes();
+            resultat.ticksParSeconde = nombreCycles / secondes;
+            resultat.organismesParSeconde = organismesMisAJour / secondes;
+            resultat.tasMaximum = poolsTas.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            synchronized (this) {
+                resultat.collections = collections;
+                resultat.pauseMaximum = pauseMaximum;
+                resultat.pauseTotale = pauseTotale;
+            }
+            return resultat;
+        } finally {
+            if (executeur != null)
+                executeur.shutdown();
+        }
+    }
+
+    private void imprimer(String courbe, Resultat resultat, double acceleration, double efficacite) {
+        System.out.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.0f,%s,%s,%.1f,%d,%.1f,%.1f",
+                courbe, resultat.fils, resultat.plantes, resultat.organismes, nombreCycles, resultat.ticksParSeconde,
+                resultat.organismesParSeconde, formater(acceleration), formater(efficacite),
+                resultat.tasMaximum / (1024.0 * 1024.0), resultat.collections, resultat.pauseMaximum,
+                resultat.pauseTotale));
+    }
+
+    // Records the pauses of the collectors. Concurrent cycles don't stop the simulation, so they are ignored.
+    // Notifications arrive on their own thread, possibly after the counters were reset: collections that started
+    // before the timed cycles, like the one executer asks for, are ignored too.
+    private synchronized void collecteTerminee(Notification notification, Object contexte) {
+        if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+            return;
+        var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (info.getGcAction().contains("concurrent") || info.getGcName().contains("Concurrent"))
+            return;
+        if (info.getGcCause().equals("System.gc()") || info.getGcInfo().getStartTime() < debutMesure)
+            return;
+
+        double duree = info.getGcInfo().getDuration();
+        collections++;
+        pauseMaximum = Math.max(pauseMaximum, duree);
+        pauseTotale += duree;
+    }
+
+    private static String formater(double valeur) {
+        return Double.isNaN(valeur) ? "" : String.format(Locale.ROOT, "%.3f", valeur);
+    }
+
+    private static int[] entiers(String liste) {
+        return Arrays.stream(liste.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
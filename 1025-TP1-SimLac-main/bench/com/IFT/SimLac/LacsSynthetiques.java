@@ -0,0 +1,204 @@
+package com.IFT.SimLac;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Builds synthetic lakes of any size for the benchmarks.
+ *
+ * A Configuration gives the number of species of each category, the number of plants, the number of animals per plant,
+ * how dense the food web is and the solar energy per plant. Individuals are split evenly among the species of their
+ * category. Each consumer eats each species of the category below with probability densiteRegime, and at least one.
+ * Species parameters are those of a stable small lake, so that a synthetic lake neither dies out nor explodes in
+ * the first cycles.
+ */
+
+public final class LacsSynthetiques {
+
+    // What the synthetic lake looks like. The defaults give, for 800 plants, 140 herbivores, 15 carnivores and
+    // 3000 units of solar energy, in three species of each category.
+    public static final class Configuration {
+        private int especesPlantes = 3;
+        private int especesHerbivores = 3;
+        private int especesCarnivores = 3;
+        private int nombrePlantes;
+        private double herbivoresParPlante = 0.175;
+        private double carnivoresParPlante = 0.01875;
+        private double densiteRegime = 0.5;           // Probability that a consumer eats a given species.
+        private double energieSolaireParPlante = 3.75;
+        private long graine = 1;                      // Drives the food web.
+
+        public Configuration(int nombrePlantes) {
+            setNombrePlantes(nombrePlantes);
+        }
+
+        // Setters
+        public void setEspeces(int plantes, int herbivores, int carnivores) {
+            if (plantes <= 0 || herbivores < 0 || carnivores < 0)
+                throw new IllegalArgumentException("a lake needs plants, and can't have a negative number of species");
+            if (herbivores == 0 && carnivores > 0)
+                throw new IllegalArgumentException("carnivores need herbivores to eat");
+            this.especesPlantes = plantes;
+            this.especesHerbivores = herbivores;
+            this.especesCarnivores = carnivores;
+        }
+
+        public void setNombrePlantes(int nombrePlantes) {
+            if (nombrePlantes <= 0)
+                throw new IllegalArgumentException("nombrePlantes must be greater than 0");
+            this.nombrePlantes = nombrePlantes;
+        }
+
+        public void setAnimauxParPlante(double herbivoresParPlante, double carnivoresParPlante) {
+            if (herbivoresParPlante < 0 || carnivoresParPlante < 0)
+                throw new IllegalArgumentException("the number of animals per plant can't be negative");
+            this.herbivoresParPlante = herbivoresParPlante;
+            this.carnivoresParPlante = carnivoresParPlante;
+        }
+
+        public void setDensiteRegime(double densiteRegime) {
+            if (densiteRegime < 0 || densiteRegime > 1)
+                throw new IllegalArgumentException("densiteRegime must be a value between 0 and 1");
+            this.densiteRegime = densiteRegime;
+        }
+
+        public void setEnergieSolaireParPlante(double energieSolaireParPlante) {
+            if (energieSolaireParPlante <= 0)
+                throw new IllegalArgumentException("energieSolaireParPlante must be greater than 0");
+            this.energieSolaireParPlante = energieSolaireParPlante;
+        }
+
+        public void setGraine(long graine) {
+            this.graine = graine;
+        }
+
+        // Getters
+        public int getNombrePlantes() {
+            return nombrePlantes;
+        }
+
+        // Number of organisms of the initial lake.
+        public long getNombreOrganismes() {
+            return nombrePlantes + Math.round(nombrePlantes * herbivoresParPlante)
+                    + Math.round(nombrePlantes * carnivoresParPlante);
+        }
+    }
+
+
+    private LacsSynthetiques() {}
+
+
+    // Returns the initial conditions, as read by ConditionsInitiales, of the default lake with nombrePlantes plants.
+    public static String xml(int nombrePlantes) {
+        return xml(new Configuration(nombrePlantes));
+    }
+
+    public static String xml(Configuration configuration) {
+        var source = new SplittableRandom(configuration.graine);
+        var plantes = noms("Plante", configuration.especesPlantes);
+        var herbivores = noms("Herbivore", configuration.especesHerbivores);
+        var carnivores = noms("Carnivore", configuration.especesCarnivores);
+
+        var xml = new StringBuilder("<?xml version=\"1.0\"?>\n<lac>\n");
+        xml.append("<energieSolaire>")
+                .append(Math.max(1, Math.round(configuration.nombrePlantes * configuration.energieSolaireParPlante)))
+                .append("</energieSolaire>\n");
+
+        var quantitesPlantes = repartir(configuration.nombrePlantes, plantes.size());
+        for (int i = 0; i < plantes.size(); i++)
+            plante(xml, plantes.get(i), quantitesPlantes[i]);
+
+        var quantitesHerbivores = repartir(Math.round(configuration.nombrePlantes * configuration.herbivoresParPlante),
+                herbivores.size());
+        for (int i = 0; i < herbivores.size(); i++)
+            herbivore(xml, herbivores.get(i), quantitesHerbivores[i], regime(plantes, configuration, source));
+
+        var quantitesCarnivores = repartir(Math.round(configuration.nombrePlantes * configuration.carnivoresParPlante),
+                carnivores.size());
+        for (int i = 0; i < carnivores.size(); i++)
+            carnivore(xml, carnivores.get(i), quantitesCarnivores[i], regime(herbivores, configuration, source));
+
+        return xml.append("</lac>\n").toString();
+    }
+
+    public static Scenario scenario(Configuration configuration) {
+        try {
+            var reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml(configuration)));
+            return new ConditionsInitiales(reader).nextScenario();
+        } catch (XMLStreamException | ConditionsInitialesInvalides e) {
+            throw new IllegalStateException("the synthetic lake is invalid", e);
+        }
+    }
+
+    // Returns the default lake with nombrePlantes plants, simulated for nombreCycles cycles so that organisms of all
+    // ages are present.
+    public static Lac lac(int nombrePlantes, int nombreCycles, long graine) {
+        var lac = scenario(new Configuration(nombrePlantes)).creerLac(new GenerateurCompteur(graine));
+        for (int i = 0; i < nombreCycles; i++)
+            lac.tick();
+        return lac;
+    }
+
+
+    private static List<String> noms(String prefixe, int nombre) {
+        var noms = new ArrayList<String>(nombre);
+        for (int i = 1; i <= nombre; i++)
+            noms.add(prefixe + i);
+        return noms;
+    }
+
+    // Splits total as evenly as possible among nombre species. Every species gets at least one individual.
+    private static long[] repartir(long total, int nombre) {
+        var quantites = new long[nombre];
+        for (int i = 0; i < nombre; i++)
+            quantites[i] = Math.max(1, total / nombre + (i < total % nombre ? 1 : 0));
+        return quantites;
+    }
+
+    private static List<String> regime(List<String> proies, Configuration configuration, SplittableRandom source) {
+        var regime = new ArrayList<String>();
+        for (var proie : proies) {
+            if (source.nextDouble() < configuration.densiteRegime)
+                regime.add(proie);
+        }
+        if (regime.isEmpty())
+            regime.add(proies.get(source.nextInt(proies.size())));
+        return regime;
+    }
+
+    private static void plante(StringBuilder xml, String nom, long quantite) {
+        xml.append(String.format(Locale.ROOT, "<plante quantite=\"%d\"><nomEspece>%s</nomEspece>"
+                        + "<besoinEnergie>1.0</besoinEnergie><efficaciteEnergie>0.5</efficaciteEnergie>"
+                        + "<resilience>0.3</resilience><fertilite>0.3</fertilite><ageFertilite>2</ageFertilite>"
+                        + "<energieEnfant>2.0</energieEnfant></plante>\n",
+                quantite, nom));
+    }
+
+    private static void herbivore(StringBuilder xml, String nom, long quantite, List<String> aliments) {
+        xml.append(String.format(Locale.ROOT, "<herbivore quantite=\"%d\"><nomEspece>%s</nomEspece>"
+                        + "<besoinEnergie>0.5</besoinEnergie><efficaciteEnergie>0.6</efficaciteEnergie>"
+                        + "<resilience>0.6</resilience><fertilite>0.3</fertilite><ageFertilite>2</ageFertilite>"
+                        + "<energieEnfant>3</energieEnfant><debrouillardise>0.8</debrouillardise>"
+                        + "<voraciteMin>0.2</voraciteMin><voraciteMax>0.6</voraciteMax>",
+                quantite, nom));
+        for (var aliment : aliments)
+            xml.append("<aliments>").append(aliment).append("</aliments>");
+        xml.append("</herbivore>\n");
+    }
+
+    private static void carnivore(StringBuilder xml, String nom, long quantite, List<String> aliments) {
+        xml.append(String.format(Locale.ROOT, "<carnivore quantite=\"%d\"><nomEspece>%s</nomEspece>"
+                        + "<besoinEnergie>1.0</besoinEnergie><efficaciteEnergie>0.7</efficaciteEnergie>"
+                        + "<resilience>0.7</resilience><fertilite>0.2</fertilite><ageFertilite>3</ageFertilite>"
+                        + "<energieEnfant>8</energieEnfant><debrouillardise>0.6</debrouillardise>",
+                quantite, nom));
+        for (var aliment : aliments)
+            xml.append("<aliments>").append(aliment).append("</aliments>");
+        xml.append("<tailleMaximum>200</tailleMaximum></carnivore>\n");
+    }
+}
@@ -0,0 +1,176 @@
+package com.IFT.SimLac;
+
+import java.util.Locale;
+
+/**
+ * Checks the samplers of Lois against the distributions they stand for.
+ *
+ * naissances and queuesNaissances are compared with the exact distribution of the roll loop they replace, found by
+ * enumerating every path of the loop with its probability (see distributionBoucle). binomiale is compared with the
+ * exact binomial distribution, by drawing it for a regular grid of uniforms: each outcome takes one interval of
+ * uniforms, so the share of the grid it gets is its probability, within one grid step.
+ *
+ * Build and run from the module directory, with the sources of the simulation:
+ *     javac -encoding UTF-8 -d out $(find src bench -name '*.java')
+ *     java -cp out com.IFT.SimLac.VerificationLois
+ * Prints one line per case and exits with status 1 if any case fails.
+ */
+public final class VerificationLois {
+
+    private static final double TOLERANCE = 1e-9;  // Allowed error on a probability.
+    private static final int GRILLE = 1 << 20;     // Uniforms drawn for each case of binomiale.
+
+    // essais, cout, maximum, p. The last cases have large numbers of rolls.
+    private static final Object[][] CAS_NAISSANCES = {
+            {10, 1, 10, 0.5},
+            {12, 3, 4, 0.7},
+            {25, 2, 25, 0.2},
+            {40, 5, 3, 0.9},
+            {60, 4, 60, 0.05},
+            {1_000, 1, 1_000, 0.05},
+            {2_000, 2, 500, 0.3},
+            {5_000, 7, 100, 0.6},
+    };
+
+    // n, p
+    private static final Object[][] CAS_BINOMIALE = {
+            {1, 0.5},
+            {10, 0.5},
+            {50, 0.03},
+            {1_000, 0.999},
+            {100_000, 0.3},
+            {1_000_000, 0.01},
+            {10_000_000, 0.5},
+    };
+
+    public static void main(String[] args) {
+        int echecs = 0;
+        for (var cas : CAS_NAISSANCES) {
+            if (!verifierNaissances((int) cas[0], (int) cas[1], (int) cas[2], (double) cas[3]))
+                echecs++;
+        }
+        for (var cas : CAS_BINOMIALE) {
+            if (!verifierBinomiale((int) cas[0], (double) cas[1]))
+                echecs++;
+        }
+
+        if (echecs > 0) {
+            System.out.println("erreur: " + echecs + " cas échouent");
+            System.exit(1);
+        }
+    }
+
+
+    // queuesNaissances must give the tail of the loop's distribution, and naissances must return k or more exactly for
+    // the uniforms below that tail.
+    private static boolean verifierNaissances(int essais, int cout, int maximum, double p) {
+        var exacte = distributionBoucle(essais, cout, maximum, p);
+        var queuesExactes = new double[maximum + 2];
+        for (int k = maximum; k >= 0; k--)
+            queuesExactes[k] = queuesExactes[k + 1] + exacte[k];
+
+        var queues = new double[maximum + 1];
+        int dernier = Lois.queuesNaissances(essais, cout, maximum, p, queues);
+        double ecartQueues = 0;
+        for (int k = 0; k <= maximum; k++)
+            ecartQueues = Math.max(ecartQueues, Math.abs((k <= dernier ? queues[k] : 0) - queuesExactes[k]));
+
+        // Just below the tail of k, at least k births; just above it, fewer.
+        int erreursSeuils = 0;
+        for (int k = 1; k <= maximum; k++) {
+            double bas = queuesExactes[k] - TOLERANCE;
+            double haut = queuesExactes[k] + TOLERANCE;
+            if (bas > 0 && Lois.naissances(bas, essais, cout, maximum, p) < k)
+                erreursSeuils++;
+            if (haut < 1 && Lois.naissances(haut, essais, cout, maximum, p) >= k)
+                erreursSeuils++;
+        }
+
+        boolean reussi = ecartQueues <= TOLERANCE && erreursSeuils == 0;
+        System.out.println(String.format(Locale.ROOT,
+                "%s naissances(essais=%d, cout=%d, maximum=%d, p=%s): ecart des queues %.3g, seuils faux %d",
+                reussi ? "ok    " : "ECHEC ", essais, cout, maximum, p, ecartQueues, erreursSeuils));
+        return reussi;
+    }
+
+    // Exact distribution of the number of births of the loop of Lois.naissances:
+    //     while (essais > 0 && naissances < maximum)
+    //         if (roll succeeds) { naissances++; essais -= cout; } else essais--;
+    // masses[r][b] is the probability of reaching essais == r with b births. Every step lowers essais, so states are
+    // visited from the most rolls left to the fewest.
+    private static double[] distributionBoucle(int essais, int cout, int maximum, double p) {
+        var distribution = new double[maximum + 1];
+        var masses = new double[essais + 1][];
+        masses[essais] = new double[maximum + 1];
+        masses[essais][0] = 1;
+
+        for (int r = essais; r > 0; r--) {
+            var masse = masses[r];
+            if (masse == null)
+                continue;
+            masses[r] = null;
+            for (int b = 0; b < maximum; b++) {
+                if (masse[b] == 0)
+                    continue;
+                ajouter(masses, distribution, r - 1, b, masse[b] * (1 - p), maximum);
+                ajouter(masses, distribution, r - cout, b + 1, masse[b] * p, maximum);
+            }
+            distribution[maximum] += masse[maximum];
+        }
+        if (masses[0] != null) {
+            for (int b = 0; b <= maximum; b++)
+                distribution[b] += masses[0][b];
+        }
+        return distribution;
+    }
+
+    private static void ajouter(double[][] masses, double[] distribution, int r, int b, double masse, int maximum) {
+        if (r <= 0 && b < maximum) {
+            distribution[b] += masse;  // The loop stops: no rolls left.
+            return;
+        }
+        r = Math.max(r, 0);
+        if (masses[r] == null)
+            masses[r] = new double[maximum + 1];
+        masses[r][b] += masse;
+    }
+
+
+    // Each outcome of binomiale must get its probability of the uniforms of the grid, within one point.
+    private static boolean verifierBinomiale(int n, double p) {
+        var exacte = masseBinomiale(n, p);
+        var comptes = new int[n + 1];
+        for (int i = 0; i < GRILLE; i++)
+            comptes[Lois.binomiale((i + 0.5) / GRILLE, n, p)]++;
+
+        double ecart = 0;
+        for (int k = 0; k <= n; k++)
+            ecart = Math.max(ecart, Math.abs((double) comptes[k] / GRILLE - exacte[k]));
+
+        boolean reussi = ecart <= 1.0 / GRILLE + TOLERANCE;
+        System.out.println(String.format(Locale.ROOT, "%s binomiale(n=%d, p=%s): ecart %.3g, pas de la grille %.3g",
+                reussi ? "ok    " : "ECHEC ", n, p, ecart, 1.0 / GRILLE));
+        return reussi;
+    }
+
+    // P(Bin(n, p) = k) for every k, from the ratio of consecutive probabilities, summed as logarithms from the mode so
+    // that nothing underflows before the tails.
+    private static double[] masseBinomiale(int n, double p) {
+        int mode = (int) Math.min((n + 1) * p, n);
+        var logarithmes = new double[n + 1];
+        double rapport = Math.log(p) - Math.log1p(-p);
+        for (int k = mode; k < n; k++)
+            logarithmes[k + 1] = logarithmes[k] + Math.log((double) (n - k) / (k + 1)) + rapport;
+        for (int k = mode; k > 0; k--)
+            logarithmes[k - 1] = logarithmes[k] - Math.log((double) (n - k + 1) / k) - rapport;
+
+        // The mode has the largest probability, whose logarithm is 0 here, so the sum doesn't overflow.
+        double somme = 0;
+        for (var logarithme : logarithmes)
+            somme += Math.exp(logarithme);
+        var masses = new double[n + 1];
+        for (int k = 0; k <= n; k++)
+            masses[k] = Math.exp(logarithmes[k]) / somme;
+        return masses;
+    }
+}
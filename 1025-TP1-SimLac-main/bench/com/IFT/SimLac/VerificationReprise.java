@@ -0,0 +1,171 @@
+package com.IFT.SimLac;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that the results of a simulation depend on nothing but its scenario and its seed: not on the number of
+ * threads, not on the engine (Lac, LacColonnes and LacEnregistrements), not on recycling, and not on whether the
+ * simulation was saved and resumed midway (see Instantane).
+ *
+ * Every case simulates the same synthetic lake (see LacsSynthetiques) for CYCLES cycles and compares its state with
+ * the one of Lac run on the main thread. LacCohortes draws for whole cohorts, so it is compared with itself on the main
+ * thread. States are the totals of every species with their exact energy, where the report rounds energies.
+ *
+ * Build and run from the module directory, with the sources of the simulation:
+ *     javac -encoding UTF-8 -d out $(find src bench -name '*.java')
+ *     java -cp out com.IFT.SimLac.VerificationReprise
+ * To check LacEnregistrements too, add incubator to the roots given to find, and
+ * --add-modules jdk.incubator.vector,jdk.incubator.foreign to both commands.
+ * Prints one line per case and exits with status 1 if any case fails.
+ */
+public final class VerificationReprise {
+
+    private static final int NOMBRE_PLANTES = 4_000;  // Several blocks per species, so that threads share the phases.
+    private static final int CYCLES = 30;
+    private static final int CYCLE_SAUVEGARDE = 12;   // Cycle after which the lake is saved, then resumed.
+    private static final long GRAINE = 42;
+    private static final int[] PARALLELISMES = {1, 2, 4};
+
+    // Threads before the save, then after the resume.
+    private static final int[][] CAS_REPRISE = {
+            {1, 1},
+            {1, 4},
+            {2, 2},
+            {4, 1},
+            {4, 4},
+    };
+
+    public static void main(String[] args) throws IOException {
+        var scenario = LacsSynthetiques.scenario(new LacsSynthetiques.Configuration(NOMBRE_PLANTES));
+        var reference = simuler(scenario.creerLac(new GenerateurCompteur(GRAINE)), 1);
+
+        int echecs = 0;
+        for (var cas : CAS_REPRISE) {
+            if (!comparer("reprise(parallelisme=" + cas[0] + " puis " + cas[1] + ")", reference,
+                    reprendre(scenario, cas[0], cas[1])))
+                echecs++;
+        }
+
+        for (int parallelisme : PARALLELISMES) {
+            var lac = scenario.creerLac(new GenerateurCompteur(GRAINE));
+            if (!comparer("objets(parallelisme=" + parallelisme + ")", reference, simuler(lac, parallelisme)))
+                echecs++;
+
+            lac = scenario.creerLac(new GenerateurCompteur(GRAINE));
+            lac.setRecyclage(true);
+            if (!comparer("objets(parallelisme=" + parallelisme + ", recyclage)", reference,
+                    simuler(lac, parallelisme)))
+                echecs++;
+
+            var colonnes = scenario.creer(LacColonnes.usine(), new GenerateurCompteur(GRAINE));
+            if (!comparer("colonnes(parallelisme=" + parallelisme + ")", reference, simuler(colonnes, parallelisme)))
+                echecs++;
+        }
+
+        var usineEnregistrements = usineEnregistrements();
+        if (usineEnregistrements == null)
+            System.out.println("saute enregistrements: incubator/ n'est pas compilé ou jdk.incubator.foreign manque");
+        else {
+            for (int parallelisme : PARALLELISMES) {
+                var enregistrements = scenario.creer(usineEnregistrements, new GenerateurCompteur(GRAINE));
+                if (!comparer("enregistrements(parallelisme=" + parallelisme + ")", reference,
+                        simuler(enregistrements, parallelisme)))
+                    echecs++;
+            }
+        }
+
+        var referenceCohortes = simuler(scenario.creer(LacCohortes.usine(), new GenerateurCompteur(GRAINE)), 1);
+        for (int parallelisme : PARALLELISMES) {
+            var cohortes = scenario.creer(LacCohortes.usine(), new GenerateurCompteur(GRAINE));
+            if (!comparer("cohortes(parallelisme=" + parallelisme + ")", referenceCohortes,
+                    simuler(cohortes, parallelisme)))
+                echecs++;
+        }
+
+        if (echecs > 0) {
+            System.out.println("erreur: " + echecs + " cas échouent");
+            System.exit(1);
+        }
+    }
+
+
+    // Simulates the lake up to CYCLES on parallelisme threads, then closes it. Returns its state.
+    private static String simuler(MoteurLac lac, int parallelisme) {
+        var executeur = parallelisme > 1 ? new ForkJoinPool(parallelisme) : null;
+        try (lac) {
+            lac.setExecuteur(executeur);
+            while (lac.getCycle() < CYCLES)
+                lac.tick();
+            return etat(lac);
+        } finally {
+            if (executeur != null)
+                executeur.shutdown();
+        }
+    }
+
+    // Simulates the lake up to CYCLE_SAUVEGARDE on avant threads, saves it, and simulates the saved lake up to CYCLES
+    // on apres threads. Returns its state.
+    private static String reprendre(Scenario scenario, int avant, int apres) throws IOException {
+        var fichier = Files.createTempFile("reprise", ".lac");
+        var executeur = avant > 1 ? new ForkJoinPool(avant) : null;
+        try {
+            var lac = scenario.creerLac(new GenerateurCompteur(GRAINE));
+            lac.setExecuteur(executeur);
+            while (lac.getCycle() < CYCLE_SAUVEGARDE)
+                lac.tick();
+            Instantane.ecrire(lac, fichier);
+            return simuler(Instantane.lire(fichier), apres);
+        } finally {
+            if (executeur != null)
+                executeur.shutdown();
+            Files.deleteIfExists(fichier);
+        }
+    }
+
+    // The cycle, then the number of individuals and the exact total energy of each species, one species per line.
+    private static String etat(MoteurLac lac) {
+        var etat = new StringBuilder("cycle ").append(lac.getCycle());
+        for (var especes : List.of(lac.resumePlantes(), lac.resumeHerbivores(), lac.resumeCarnivores())) {
+            for (var entry : especes.entrySet()) {
+                etat.append('\n').append(entry.getKey()).append(": ").append(entry.getValue().getIndividus())
+                        .append(" individus, énergie ").append(entry.getValue().getEnergie());
+            }
+        }
+        return etat.toString();
+    }
+
+    // On failure, shows the first line where the states differ.
+    private static boolean comparer(String nom, String attendu, String obtenu) {
+        if (attendu.equals(obtenu)) {
+            System.out.println("ok    " + nom);
+            return true;
+        }
+
+        var lignesAttendues = attendu.split("\n");
+        var lignesObtenues = obtenu.split("\n");
+        int ligne = 0;
+        while (ligne < lignesAttendues.length && ligne < lignesObtenues.length
+                && lignesAttendues[ligne].equals(lignesObtenues[ligne]))
+            ligne++;
+        System.out.println("ECHEC " + nom + ": attendu \""
+                + (ligne < lignesAttendues.length ? lignesAttendues[ligne] : "") + "\", obtenu \""
+                + (ligne < lignesObtenues.length ? lignesObtenues[ligne] : "") + "\"");
+        return false;
+    }
+
+    // Returns the factory of LacEnregistrements, or null if it can't be used. See Simulation.usineEnregistrements.
+    private static Scenario.UsineMoteur<?> usineEnregistrements() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.foreign").isEmpty())
+            return null;
+        try {
+            return (Scenario.UsineMoteur<?>) Class.forName("com.IFT.SimLac.LacEnregistrements")
+                    .getMethod("usine", Path.class).invoke(null, (Object) null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.IFT.SimLac;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * This class simulates a lake like LacColonnes, but keeps its organisms outside of the Java heap, as fixed-width
+ * records (see PopulationEnregistrements). The heap used by the lake then doesn't grow with its populations, and the
+ * garbage collector has nothing to go through but a few objects per species.
+ *
+ * The rules, draws and orders are the ones of LacColonnes, so with the same generator, the three engines give the same
+ * results. Phases run on the calling thread, species after species, which gives the same order as the groups of
+ * LacColonnes (see OrdonnanceurEspeces): herbivores eat their plants as soon as they pick them, and carnivores hunt in
+ * the order of their population. setExecuteur has no effect.
+ *
+ * Only the prey indexes and the energies they are built from are kept on the heap, in buffers reused from one cycle to
+ * the next. The lake must be closed to free its records.
+ *
+ * Like PopulationEnregistrements, it is only compiled with the source root incubator/. Simulation gets its factory by
+ * name (see usine), so the default build doesn't need it.
+ */
+
+public final class LacEnregistrements implements MoteurLac {
+    private final int energieSolaire;  // New energy from the sun injected into the ecosystem
+    private final PopulationEnregistrements plantes;
+    private final PopulationEnregistrements herbivores;
+    private final PopulationEnregistrements carnivores;
+    private final GenerateurAleatoire generateur;     // Source of all random draws. See Tirages.
+    private long cycle = 0;                           // Number of cycles simulated so far.
+    private MesuresCycle mesures;                     // What happens to each species during the current cycle.
+                                                      // null when there is no observateur.
+    private Consumer<MesuresCycle> observateur = null; // Receives the measures at the end of each cycle.
+    // Count the dead removed from each population. Kept so that enleverMorts allocates nothing.
+    private final Population.CompteurMorts mortsPlantes = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.PLANTE, identifiant, nombre);
+    private final Population.CompteurMorts mortsHerbivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.HERBIVORE, identifiant, nombre);
+    private final Population.CompteurMorts mortsCarnivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.CARNIVORE, identifiant, nombre);
+
+    // Buffers reused from one tick to the next.
+    private IndexProies[] proies = new IndexProies[0];  // Prey of the carnivores, by identifier.
+    private double[] energiesProies = new double[0];    // Energies of one herbivore species, to index them.
+
+
+    // Constructor
+    // The organisms of the populations already have their keys. See usine.
+    LacEnregistrements(int energieSolaire, PopulationEnregistrements plantes, PopulationEnregistrements herbivores,
+                       PopulationEnregistrements carnivores, GenerateurAleatoire generateur) {
+        this.energieSolaire = energieSolaire;
+        this.plantes = plantes;
+        this.herbivores = herbivores;
+        this.carnivores = carnivores;
+        this.generateur = generateur;
+    }
+
+    // Returns a factory that builds a lake from a scenario. See Scenario.creer.
+    public static Scenario.UsineMoteur<LacEnregistrements> usine(Path projection) {
+        var plantes = new PopulationEnregistrements(projection);
+        var herbivores = new PopulationEnregistrements(projection);
+        var carnivores = new PopulationEnregistrements(projection);
+        return new Scenario.UsineMoteur<>() {
+            @Override
+            public void ajouterGroupe(MesuresCycle.Categorie categorie, Espece espece, int quantite, long premiereCle) {
+                var population = switch (categorie) {
+                    case PLANTE -> plantes;
+                    case HERBIVORE -> herbivores;
+                    case CARNIVORE -> carnivores;
+                };
+                population.ajouterGroupe(espece, quantite, espece.getEnergieEnfant(), 0, premiereCle);
+            }
+
+            @Override
+            public LacEnregistrements creer(int energieSolaire, GenerateurAleatoire generateur) {
+                return new LacEnregistrements(energieSolaire, plantes, herbivores, carnivores, generateur);
+            }
+        };
+    }
+
+
+    // Phases are sequential.
+    @Override
+    public void setExecuteur(ForkJoinPool executeur) {}
+
+    @Override
+    public void setObservateur(Consumer<MesuresCycle> observateur) {
+        this.observateur = observateur;
+    }
+
+
+    // Simulates one cycle, with the same phases as Lac.tick.
+    @Override
+    public void tick() {
+        debuterCycle();
+
+        var evenement = EvenementPhase.debuter();
+        plantsLifeCycle();
+        terminerPhase(evenement, "plantes");
+
+        evenement = EvenementPhase.debuter();
+        herbivoresLifeCycle();
+        terminerPhase(evenement, "herbivores");
+
+        evenement = EvenementPhase.debuter();
+        carnivoreLifeCycle();
+        terminerPhase(evenement, "carnivores");
+
+        evenement = EvenementPhase.debuter();
+        enleverMorts();
+        terminerPhase(evenement, "enleverMorts");
+
+        terminerCycle();
+    }
+
+    private void terminerPhase(EvenementPhase evenement, String phase) {
+        evenement.terminer(phase, cycle, plantes.getTaille(), herbivores.getTaille(), carnivores.getTaille());
+    }
+
+    // The measures are only taken when someone receives them.
+    private void debuterCycle() {
+        if (observateur == null)
+            return;
+        mesures = new MesuresCycle(cycle);
+        for (var enregistrements : plantes.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.PLANTE, enregistrements.identifiant, enregistrements.nom);
+        for (var enregistrements : herbivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.HERBIVORE, enregistrements.identifiant, enregistrements.nom);
+        for (var enregistrements : carnivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.CARNIVORE, enregistrements.identifiant, enregistrements.nom);
+    }
+
+    private void terminerCycle() {
+        cycle++;
+
+        if (observateur != null && mesures != null) {
+            mesurerPopulation(MesuresCycle.Categorie.PLANTE, plantes);
+            mesurerPopulation(MesuresCycle.Categorie.HERBIVORE, herbivores);
+            mesurerPopulation(MesuresCycle.Categorie.CARNIVORE, carnivores);
+            observateur.accept(mesures);
+        }
+        mesures = null;
+    }
+
+    // Each plant gets its share of the sun's energy, then goes through its life cycle. See Plante.bilanEnergetique.
+    private void plantsLifeCycle() {
+        long energieTotaleFixe = 0;
+        for (var enregistrements : plantes.getEspeces())
+            energieTotaleFixe += enregistrements.getEnergieFixe();
+        double energieTotaleDesPlantes = AgregatEspece.enEnergie(energieTotaleFixe);
+
+        for (var enregistrements : plantes.getEspeces()) {
+            for (int i = 0; i < enregistrements.taille; i++) {
+                var espece = plantes.getDescripteur(enregistrements.getEspece(i));
+                double energieRecue = energieSolaire * (enregistrements.getEnergie(i) / energieTotaleDesPlantes);
+                enregistrements.setBudgetEnergetique(i, energieRecue - espece.getBesoinEnergie());
+                cycleDeVie(enregistrements, i, espece);
+            }
+        }
+        ajouterEnfants(MesuresCycle.Categorie.PLANTE, plantes);
+    }
+
+    // Each herbivore eats, then goes through the rest of its life cycle. See LacColonnes.herbivoresLifeCycle.
+    private void herbivoresLifeCycle() {
+        for (var enregistrements : herbivores.getEspeces()) {
+            long nombreRepas = 0;
+            for (int i = 0; i < enregistrements.taille; i++)
+                nombreRepas += brouter(enregistrements, i);
+            if (mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.HERBIVORE, enregistrements.identifiant, nombreRepas);
+
+            for (int i = 0; i < enregistrements.taille; i++)
+                cycleDeVie(enregistrements, i, herbivores.getDescripteur(enregistrements.getEspece(i)));
+        }
+        ajouterEnfants(MesuresCycle.Categorie.HERBIVORE, herbivores);
+    }
+
+    // The herbivore at row i picks its plants, eats them and gets its energetic budget. Returns the number of plants
+    // eaten: as many as its meals, or all the plants it can eat if there are not enough. Plants are picked by their
+    // rank among the species the herbivore can eat, in the order of its diet. See LacColonnes.choisirPlantes.
+    private int brouter(PopulationEnregistrements.Enregistrements enregistrements, int i) {
+        var espece = (EspeceHerbivore) herbivores.getDescripteur(enregistrements.getEspece(i));
+        var aliments = espece.getIdentifiantsAliments();
+        int nombreMangeables = plantes.compter(aliments);
+        long cle = enregistrements.getCle(i);
+        int nombre = Math.min(nombreMangeables, Lois.geometrique(
+                generateur.uniforme(cle, cycle, Tirages.Usage.REPAS, 0), espece.getDebrouillardise()));
+
+        double voraciteMin = espece.getVoraciteMin();
+        double range = espece.getVoraciteMax() - voraciteMin;
+        double energieRecue = 0;
+        if (nombre == nombreMangeables) {
+            // Eats them all.
+            int j = 0;
+            for (var aliment : aliments) {
+                var plante = plantes.getEspece(aliment);
+                for (int rang = 0; plante != null && rang < plante.taille; rang++) {
+                    double fraction = voraciteMin + generateur.uniforme(cle, cycle, Tirages.Usage.VORACITE, j++) * range;
+                    energieRecue += manger(plante, rang, fraction);
+                }
+            }
+        } else {
+            for (int j = 0; j < nombre; j++) {
+                int rang = (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j) * nombreMangeables);
+                double fraction = voraciteMin + generateur.uniforme(cle, cycle, Tirages.Usage.VORACITE, j) * range;
+                for (var aliment : aliments) {
+                    var plante = plantes.getEspece(aliment);
+                    int nombreEspece = plante == null ? 0 : plante.taille;
+                    if (rang < nombreEspece) {
+                        energieRecue += manger(plante, rang, fraction);
+                        break;
+                    }
+                    rang -= nombreEspece;
+                }
+            }
+        }
+        enregistrements.setBudgetEnergetique(i, energieRecue - espece.getBesoinEnergie());
+        return nombre;
+    }
+
+    // The plant at rang loses fraction of its energy. Returns the energy eaten. See Plante.estMange.
+    private static double manger(PopulationEnregistrements.Enregistrements plante, int rang, double fraction) {
+        double energie = plante.getEnergie(rang);
+        double energieMangee = energie * fraction;
+        energie -= energieMangee;
+        plante.setEnergie(rang, energie);
+        if (energie < 0)
+            plante.marquerMort(rang);
+        return energieMangee;
+    }
+
+    // Each carnivore hunts, then goes through the rest of its life cycle. See LacColonnes.carnivoreLifeCycle.
+    private void carnivoreLifeCycle() {
+        indexerProies();
+
+        for (var enregistrements : carnivores.getEspeces()) {
+            long nombreRepas = 0;
+            for (int i = 0; i < enregistrements.taille; i++)
+                nombreRepas += chasser(enregistrements, i);
+            if (nombreRepas > 0 && mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.CARNIVORE, enregistrements.identifiant, nombreRepas);
+        }
+        ajouterEnfants(MesuresCycle.Categorie.CARNIVORE, carnivores);
+    }
+
+    // The carnivore at row i hunts, then goes through the rest of its life cycle. Returns the number of herbivores
+    // eaten. Eaten prey are removed from the index and marked dead. See Lac.listerHerbivoresMangees.
+    private int chasser(PopulationEnregistrements.Enregistrements enregistrements, int i) {
+        var espece = (EspeceCarnivore) carnivores.getDescripteur(enregistrements.getEspece(i));
+        var aliments = espece.getIdentifiantsAliments();
+        long cle = enregistrements.getCle(i);
+        double energieMax = enregistrements.getEnergie(i);
+
+        int nombreMangeables = 0;
+        for (var aliment : aliments) {
+            var index = proies[aliment];
+            if (index != null)
+                nombreMangeables += index.compter(energieMax);
+        }
+
+        // Carnivores can't eat more prey than there are weaker prey available.
+        int nombreRepas = Math.min(Lois.geometrique(generateur.uniforme(cle, cycle, Tirages.Usage.REPAS, 0),
+                espece.getDebrouillardise()), nombreMangeables);
+        boolean mangeToutes = nombreRepas == nombreMangeables;
+
+        double energieRecue = 0;
+        for (int j = 0; j < nombreRepas; j++) {
+            // When all the prey get eaten, no need to draw them at random.
+            int rang = mangeToutes ? 0 : (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j)
+                    * nombreMangeables);
+            energieRecue += retirerProie(aliments, energieMax, rang);
+            nombreMangeables--;
+        }
+        enregistrements.setBudgetEnergetique(i, energieRecue - espece.getBesoinEnergie());
+
+        cycleDeVie(enregistrements, i, espece);
+        return nombreRepas;
+    }
+
+    // Removes from the index the rang-th prey weaker than energieMax, counting species in the order of aliments,
+    // marks it dead and returns its energy.
+    private double retirerProie(int[] aliments, double energieMax, int rang) {
+        for (var aliment : aliments) {
+            var index = proies[aliment];
+            if (index == null)
+                continue;
+
+            int nombre = index.compter(energieMax);
+            if (rang < nombre) {
+                var enregistrements = herbivores.getEspece(aliment);
+                int position = index.retirer(rang);
+                enregistrements.marquerMort(position);
+                return enregistrements.getEnergie(position);
+            }
+            rang -= nombre;
+        }
+        throw new IndexOutOfBoundsException(rang);
+    }
+
+    // Indexes by energy the herbivore species some carnivore hunts, reusing the indexes of the previous hunt. Species
+    // without any herbivore, or that no carnivore hunts, have no index.
+    private void indexerProies() {
+        int taille = 0;
+        for (var espece : carnivores.getDescripteurs()) {
+            for (var aliment : ((EspeceCarnivore) espece).getIdentifiantsAliments())
+                taille = Math.max(taille, aliment + 1);
+        }
+        if (proies.length < taille)
+            proies = new IndexProies[taille];
+        var chassees = new boolean[taille];
+        for (var espece : carnivores.getDescripteurs()) {
+            for (var aliment : ((EspeceCarnivore) espece).getIdentifiantsAliments())
+                chassees[aliment] = true;
+        }
+
+        for (int aliment = 0; aliment < taille; aliment++) {
+            var enregistrements = herbivores.getEspece(aliment);
+            if (!chassees[aliment] || enregistrements == null) {
+                if (proies[aliment] != null)
+                    proies[aliment].indexer(energiesProies, 0);
+                continue;
+            }
+
+            if (energiesProies.length < enregistrements.taille)
+                energiesProies = new double[enregistrements.taille + (enregistrements.taille >> 3)];
+            for (int i = 0; i < enregistrements.taille; i++)
+                energiesProies[i] = enregistrements.getEnergie(i);
+            if (proies[aliment] == null)
+                proies[aliment] = new IndexProies();
+            proies[aliment].indexer(energiesProies, enregistrements.taille);
+        }
+    }
+
+    // Life cycle of the organism at row i once its energetic budget is known: it may die, have children and grows or
+    // shrinks. Same rules as Organisme.survivalCheck, reproductionCheck and croitreDecroitre, in that order.
+    // Children are only counted, see ajouterEnfants.
+    private void cycleDeVie(PopulationEnregistrements.Enregistrements enregistrements, int i, Espece espece) {
+        double budgetEnergetique = enregistrements.getBudgetEnergetique(i);
+        var usage = budgetEnergetique < 0 ? Tirages.Usage.SURVIE : Tirages.Usage.REPRODUCTION;
+        double tirage = generateur.uniforme(enregistrements.getCle(i), cycle, usage, 0);
+        double energie = enregistrements.getEnergie(i);
+        enregistrements.setEnfants(i, 0);
+
+        if (budgetEnergetique < 0) {
+            if (tirage > Organisme.chanceSurvie(espece.getResilience(), budgetEnergetique))
+                enregistrements.marquerMort(i);
+        } else if (Organisme.age(enregistrements.getNaissance(i), cycle) >= espece.getAgeFertilite()) {
+            int enfants = Organisme.naissances(tirage, espece.getFertilite(), espece.getEnergieEnfant(), energie,
+                    budgetEnergetique);
+            enregistrements.setEnfants(i, enfants);
+            budgetEnergetique -= enfants * espece.getEnergieEnfant();
+            enregistrements.setBudgetEnergetique(i, budgetEnergetique);
+        }
+
+        energie = Organisme.energieApres(espece.getEfficaciteEnergie(), espece.getTailleMaximum(), energie,
+                budgetEnergetique);
+        enregistrements.setEnergie(i, energie);
+        if (energie < 0)
+            enregistrements.marquerMort(i);
+    }
+
+    // Adds the children counted by the last phase after the records of their species, in the order of their parents,
+    // and counts them. Newborns are 0 years old during this cycle and their keys are drawn like in Lac.
+    private void ajouterEnfants(MesuresCycle.Categorie categorie, PopulationEnregistrements population) {
+        for (var enregistrements : population.getEspeces()) {
+            int taille = enregistrements.taille;  // Newborns are not parents.
+            for (int i = 0; i < taille; i++) {
+                int nombre = enregistrements.getEnfants(i);
+                if (nombre == 0)
+                    continue;
+                enregistrements.setEnfants(i, 0);
+
+                int espece = enregistrements.getEspece(i);
+                double energieEnfant = population.getDescripteur(espece).getEnergieEnfant();
+                long cleParent = enregistrements.getCle(i);
+                for (int rang = 0; rang < nombre; rang++) {
+                    long cle = generateur.bits(cleParent, cycle, Tirages.Usage.NAISSANCE, rang);
+                    population.ajouter(enregistrements, espece, energieEnfant, cycle, cle);
+                }
+                if (mesures != null)
+                    mesures.compterNaissances(categorie, enregistrements.identifiant, nombre);
+            }
+        }
+    }
+
+    private void enleverMorts() {
+        plantes.enleverMorts(mortsPlantes);
+        herbivores.enleverMorts(mortsHerbivores);
+        carnivores.enleverMorts(mortsCarnivores);
+    }
+
+    private void compterMorts(MesuresCycle.Categorie categorie, int identifiant, int nombre) {
+        if (mesures != null)
+            mesures.compterMorts(categorie, identifiant, nombre);
+    }
+
+    private void mesurerPopulation(MesuresCycle.Categorie categorie, PopulationEnregistrements population) {
+        for (var enregistrements : population.getEspeces())
+            mesures.setPopulation(categorie, enregistrements.identifiant, enregistrements.taille,
+                    AgregatEspece.enEnergie(enregistrements.getEnergieFixe()));
+    }
+
+    // Frees the records of the three populations. The lake can't be simulated any more.
+    @Override
+    public void close() {
+        plantes.close();
+        herbivores.close();
+        carnivores.close();
+    }
+
+
+    // Getters
+    public int getEnergieSolaire() {
+        return energieSolaire;
+    }
+
+    @Override
+    public long getCycle() {
+        return cycle;
+    }
+
+    // Goes through every organism, like LacColonnes.
+    @Override
+    public Map<String, AgregatEspece> resumePlantes() {
+        return plantes.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeHerbivores() {
+        return herbivores.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeCarnivores() {
+        return carnivores.resume();
+    }
+}
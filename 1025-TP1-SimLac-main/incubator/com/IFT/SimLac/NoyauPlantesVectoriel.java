@@ -0,0 +1,111 @@
+package com.IFT.SimLac;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of NoyauPlantes on the Vector API: each instruction processes as many plants as fit in the widest
+ * vector register of the processor (4 on AVX2, 8 on AVX-512). Rows left after the last whole vector are processed one
+ * at a time, like NoyauPlantesScalaire.
+ *
+ * Draws of a GenerateurCompteur are hashed in vectors too: only the key changes from one plant to the next (see
+ * GenerateurCompteur.bits). Other generators draw one value at a time.
+ *
+ * Needs --add-modules jdk.incubator.vector, both to compile and to run, which is why it lives in the source root
+ * incubator/ rather than src/. Nothing refers to it by name but NoyauPlantes.charger.
+ */
+
+public final class NoyauPlantesVectoriel implements NoyauPlantes {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;  // Same number of lanes.
+
+    private final NoyauPlantesScalaire scalaire = new NoyauPlantesScalaire();  // For the rows left.
+
+
+    @Override
+    public void bilanEnergetique(double energieSolaire, double energieTotale, double besoin, double[] energie,
+                                 double[] budget, int debut, int fin) {
+        int i = debut;
+        for (int limite = debut + DOUBLES.loopBound(fin - debut); i < limite; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, energie, i)
+                    .div(energieTotale)
+                    .mul(energieSolaire)
+                    .sub(besoin)
+                    .intoArray(budget, i);
+        }
+        scalaire.bilanEnergetique(energieSolaire, energieTotale, besoin, energie, budget, i, fin);
+    }
+
+    @Override
+    public void tirer(GenerateurAleatoire generateur, long cycle, long[] cle, double[] budget, double[] tirages,
+                      int debut, int fin) {
+        if (!(generateur instanceof GenerateurCompteur compteur)) {
+            scalaire.tirer(generateur, cycle, cle, budget, tirages, debut, fin);
+            return;
+        }
+
+        long graine = compteur.getGraineMelangee();
+        long melangeCycle = GenerateurCompteur.melangerCycle(cycle);
+        // The part of the hash that depends on the purpose is picked in double lanes, with the mask of the budgets, then
+        // reinterpreted as longs: on JDK 17, casting the mask to long lanes boxes every vector. Bits are left unchanged.
+        var survie = DoubleVector.broadcast(DOUBLES,
+                Double.longBitsToDouble(GenerateurCompteur.melangerUsage(Tirages.Usage.SURVIE, 0)));
+        var reproduction = DoubleVector.broadcast(DOUBLES,
+                Double.longBitsToDouble(GenerateurCompteur.melangerUsage(Tirages.Usage.REPRODUCTION, 0)));
+
+        int i = debut;
+        for (int limite = debut + LONGS.loopBound(fin - debut); i < limite; i += LONGS.length()) {
+            VectorMask<Double> deficit = DoubleVector.fromArray(DOUBLES, budget, i).compare(VectorOperators.LT, 0.0);
+            var usage = reproduction.blend(survie, deficit).reinterpretAsLongs();
+
+            var h = melanger(LongVector.fromArray(LONGS, cle, i).add(GenerateurCompteur.GAMMA));
+            h = melanger(h.lanewise(VectorOperators.XOR, graine));
+            h = melanger(h.lanewise(VectorOperators.XOR, melangeCycle));
+            h = melanger(h.lanewise(VectorOperators.XOR, usage));
+
+            // Same as GenerateurAleatoire.uniforme: values below 2^53 convert to double exactly.
+            var bits = (DoubleVector) h.lanewise(VectorOperators.LSHR, 11).convert(VectorOperators.L2D, 0);
+            bits.mul(0x1.0p-53).intoArray(tirages, i - debut);
+        }
+        for (; i < fin; i++) {
+            var usage = budget[i] < 0 ? Tirages.Usage.SURVIE : Tirages.Usage.REPRODUCTION;
+            tirages[i - debut] = generateur.uniforme(cle[i], cycle, usage, 0);
+        }
+    }
+
+    @Override
+    public void croitreDecroitre(double efficacite, double tailleMaximum, double[] energie, double[] budget,
+                                 long[] morts, int debut, int fin) {
+        int i = debut;
+        for (int limite = debut + DOUBLES.loopBound(fin - debut); i < limite; i += DOUBLES.length()) {
+            var avant = DoubleVector.fromArray(DOUBLES, energie, i);
+            var bilan = DoubleVector.fromArray(DOUBLES, budget, i);
+
+            // Organisme.energieApres, lane by lane.
+            var croissance = bilan.mul(efficacite).add(avant).min(tailleMaximum);
+            var apres = avant.add(bilan).blend(croissance, bilan.compare(VectorOperators.GT, 0.0));
+            apres.intoArray(energie, i);
+
+            // Few plants die this way, so the lanes are only looked at one by one when one of them does.
+            if (apres.compare(VectorOperators.LT, 0.0).anyTrue()) {
+                for (int j = i; j < i + DOUBLES.length(); j++) {
+                    if (energie[j] < 0)
+                        morts[j >> 6] |= 1L << j;
+                }
+            }
+        }
+        scalaire.croitreDecroitre(efficacite, tailleMaximum, energie, budget, morts, i, fin);
+    }
+
+
+    // Same as GenerateurCompteur.melanger, lane by lane.
+    private static LongVector melanger(LongVector z) {
+        z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 30)).mul(0xbf58476d1ce4e5b9L);
+        z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 27)).mul(0x94d049bb133111ebL);
+        return z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 31));
+    }
+}
@@ -0,0 +1,365 @@
+package com.IFT.SimLac;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds all the organisms of one category (plants, herbivores or carnivores) of a LacEnregistrements
+ * outside of the Java heap, as fixed-width records.
+ *
+ * Like in PopulationColonnes, organisms are partitioned by species, kept in the order they first appeared, and each
+ * organism keeps the number of its species descriptor. The organisms of a species are the records of a single memory
+ * segment, one after the other; the fields of a record are at the offsets below and have the meaning of the fields of
+ * Organisme. Phases read and write them in place. The heap only keeps a few objects per species, so the population
+ * doesn't weigh on the heap nor on the garbage collector, whatever its size.
+ *
+ * Segments are allocated in native memory, or mapped from files of the directory given to the constructor: the
+ * operating system then keeps in memory only the records in use, and writes the others back to their file. Either
+ * way, the memory is freed when the species dies out or when the population is closed. Native memory counts against
+ * the limit of -XX:MaxDirectMemorySize, which is the size of the heap by default; mapped files don't.
+ *
+ * Needs --add-modules jdk.incubator.foreign, both to compile and to run. That's why this class and LacEnregistrements
+ * live in the optional source root incubator/, which the default build leaves out.
+ */
+
+public final class PopulationEnregistrements implements AutoCloseable {
+
+    // Offsets of the fields of a record, in bytes.
+    static final long ENERGIE = 0;                 // double
+    static final long BUDGET_ENERGETIQUE = 8;      // double
+    static final long NAISSANCE = 16;              // long, the cycle at which the organism was 0 years old.
+    static final long CLE = 24;                    // long. See Tirages.
+    static final long ESPECE = 32;                 // int, the number of the descriptor. See getDescripteur.
+    static final long ENFANTS = 36;                // int, children born during the current phase, not added yet.
+    static final long STATUT = 40;                 // int, VIVANT or MORT.
+    static final long TAILLE_ENREGISTREMENT = 48;  // Multiple of 8, so that every field is aligned.
+
+    static final int VIVANT = 0;
+    static final int MORT = 1;                     // Died during the current cycle.
+
+    private static final int CAPACITE_INITIALE = 16;
+
+    // The records of one species. Records from taille on are free.
+    static final class Enregistrements {
+        final String nom;
+        final int identifiant;         // Interned name. See RegistreEspeces.
+        int taille = 0;
+        private final Path fichier;    // File the records are mapped from. null for native memory.
+        private ResourceScope portee;  // Owns segment. Closing it frees or unmaps the memory.
+        private MemorySegment segment;
+        private int capacite;          // Number of records segment holds.
+        private int morts = 0;         // Records marked dead since the last enleverMorts.
+
+        private Enregistrements(String nom, int identifiant, Path dossier) {
+            this.nom = nom;
+            this.identifiant = identifiant;
+            try {
+                this.fichier = dossier == null ? null : Files.createTempFile(dossier, nom + "-", ".enr");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (fichier != null)
+                fichier.toFile().deleteOnExit();  // Even if the population isn't closed.
+            allouer(CAPACITE_INITIALE);
+        }
+
+        double getEnergie(int rang) {
+            return MemoryAccess.getDoubleAtOffset(segment, rang * TAILLE_ENREGISTREMENT + ENERGIE);
+        }
+
+        void setEnergie(int rang, double energie) {
+            MemoryAccess.setDoubleAtOffset(segment, rang * TAILLE_ENREGISTREMENT + ENERGIE, energie);
+        }
+
+        double getBudgetEnergetique(int rang) {
+            return MemoryAccess.getDoubleAtOffset(segment, rang * TAILLE_ENREGISTREMENT + BUDGET_ENERGETIQUE);
+        }
+
+        void setBudgetEnergetique(int rang, double budgetEnergetique) {
+            MemoryAccess.setDoubleAtOffset(segment, rang * TAILLE_ENREGISTREMENT + BUDGET_ENERGETIQUE,
+                    budgetEnergetique);
+        }
+
+        long getNaissance(int rang) {
+            return MemoryAccess.getLongAtOffset(segment, rang * TAILLE_ENREGISTREMENT + NAISSANCE);
+        }
+
+        long getCle(int rang) {
+            return MemoryAccess.getLongAtOffset(segment, rang * TAILLE_ENREGISTREMENT + CLE);
+        }
+
+        int getEspece(int rang) {
+            return MemoryAccess.getIntAtOffset(segment, rang * TAILLE_ENREGISTREMENT + ESPECE);
+        }
+
+        int getEnfants(int rang) {
+            return MemoryAccess.getIntAtOffset(segment, rang * TAILLE_ENREGISTREMENT + ENFANTS);
+        }
+
+        void setEnfants(int rang, int enfants) {
+            MemoryAccess.setIntAtOffset(segment, rang * TAILLE_ENREGISTREMENT + ENFANTS, enfants);
+        }
+
+        boolean estMort(int rang) {
+            return MemoryAccess.getIntAtOffset(segment, rang * TAILLE_ENREGISTREMENT + STATUT) == MORT;
+        }
+
+        void marquerMort(int rang) {
+            if (estMort(rang))
+                return;
+            MemoryAccess.setIntAtOffset(segment, rang * TAILLE_ENREGISTREMENT + STATUT, MORT);
+            morts++;
+        }
+
+        // Returns the total energy of the species, in fixed point. See AgregatEspece.
+        long getEnergieFixe() {
+            long energieFixe = 0;
+            for (int i = 0; i < taille; i++)
+                energieFixe += AgregatEspece.enFixe(getEnergie(i));
+            return energieFixe;
+        }
+
+        private void ajouter(int espece, double energie, long naissance, long cle) {
+            reserver(taille + 1);
+            long debut = taille * TAILLE_ENREGISTREMENT;
+            MemoryAccess.setDoubleAtOffset(segment, debut + ENERGIE, energie);
+            MemoryAccess.setDoubleAtOffset(segment, debut + BUDGET_ENERGETIQUE, 0);
+            MemoryAccess.setLongAtOffset(segment, debut + NAISSANCE, naissance);
+            MemoryAccess.setLongAtOffset(segment, debut + CLE, cle);
+            MemoryAccess.setIntAtOffset(segment, debut + ESPECE, espece);
+            MemoryAccess.setIntAtOffset(segment, debut + ENFANTS, 0);
+            MemoryAccess.setIntAtOffset(segment, debut + STATUT, VIVANT);
+            taille++;
+        }
+
+        // Grows the segment so that it holds at least capacite records.
+        private void reserver(int capacite) {
+            if (capacite <= this.capacite)
+                return;
+            allouer(Math.max(capacite, this.capacite + (this.capacite >> 1)));
+        }
+
+        // Replaces the segment with one of capacite records that starts with the records in use. A mapped file only
+        // grows: its records stay where they are.
+        private void allouer(int capacite) {
+            var ancienne = portee;
+            var ancien = segment;
+            long octets = capacite * TAILLE_ENREGISTREMENT;
+
+            if (fichier != null) {
+                if (ancienne != null)
+                    ancienne.close();
+                portee = ResourceScope.newSharedScope();
+                try {
+                    segment = MemorySegment.mapFile(fichier, 0, octets, FileChannel.MapMode.READ_WRITE, portee);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                portee = ResourceScope.newSharedScope();
+                segment = MemorySegment.allocateNative(octets, Long.BYTES, portee);
+                if (ancienne != null) {
+                    segment.asSlice(0, taille * TAILLE_ENREGISTREMENT)
+                            .copyFrom(ancien.asSlice(0, taille * TAILLE_ENREGISTREMENT));
+                    ancienne.close();
+                }
+            }
+            this.capacite = capacite;
+        }
+
+        // Removes the records marked dead. Survivors are moved down in order, by runs of consecutive records.
+        // Returns the number of records removed.
+        private int enleverMorts() {
+            int nombreMorts = morts;
+            if (nombreMorts == 0)
+                return 0;
+
+            int vivants = 0;
+            int i = 0;
+            while (i < taille) {
+                if (estMort(i)) {
+                    i++;
+                    continue;
+                }
+                int debut = i;
+                while (i < taille && !estMort(i))
+                    i++;
+                if (debut != vivants) {
+                    long octets = (i - debut) * TAILLE_ENREGISTREMENT;
+                    segment.asSlice(vivants * TAILLE_ENREGISTREMENT, octets)
+                            .copyFrom(segment.asSlice(debut * TAILLE_ENREGISTREMENT, octets));
+                }
+                vivants += i - debut;
+            }
+
+            taille = vivants;
+            morts = 0;
+            return nombreMorts;
+        }
+
+        // Frees the memory of the records, and deletes their file.
+        private void fermer() {
+            portee.close();
+            if (fichier != null) {
+                try {
+                    Files.deleteIfExists(fichier);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private final Path dossier;                                           // Where records are mapped. null if not.
+    private final List<Enregistrements> especes = new ArrayList<>();      // In the order they first appeared.
+    private final List<Enregistrements> parIdentifiant = new ArrayList<>(); // Same species by identifier.
+    private final List<Espece> descripteurs = new ArrayList<>();
+    private final Map<Espece, Integer> numeros = new IdentityHashMap<>();  // Number of each descriptor.
+    private int taille = 0;
+
+
+    // Constructors
+    // A population whose records are in native memory.
+    public PopulationEnregistrements() {
+        this(null);
+    }
+
+    // A population whose records are mapped from files created in dossier, one per species, or in native memory if
+    // dossier is null. Files are deleted along with their species.
+    public PopulationEnregistrements(Path dossier) {
+        this.dossier = dossier;
+    }
+
+
+    // Adds quantite organisms of the species espece, all with the energy energie and born during the cycle naissance,
+    // with the keys premiereCle, premiereCle + 1, ... The segment is grown once for the whole group.
+    public void ajouterGroupe(Espece espece, int quantite, double energie, long naissance, long premiereCle) {
+        if (quantite <= 0)
+            return;
+
+        var enregistrements = enregistrements(espece);
+        int numero = numero(espece);
+        enregistrements.reserver(enregistrements.taille + quantite);
+        for (int i = 0; i < quantite; i++)
+            enregistrements.ajouter(numero, energie, naissance, premiereCle + i);
+        taille += quantite;
+    }
+
+    // Adds an organism to the species enregistrements, whose descriptor has the number espece.
+    void ajouter(Enregistrements enregistrements, int espece, double energie, long naissance, long cle) {
+        enregistrements.ajouter(espece, energie, naissance, cle);
+        taille++;
+    }
+
+    // Removes the organisms marked dead. Species left without any individual are forgotten, and their memory freed.
+    // Gives morts the number of organisms removed from each species that lost some, in the population's order.
+    public void enleverMorts(Population.CompteurMorts morts) {
+        var iterator = especes.iterator();
+        while (iterator.hasNext()) {
+            var enregistrements = iterator.next();
+            int nombre = enregistrements.enleverMorts();
+            if (nombre > 0) {
+                morts.compter(enregistrements.identifiant, nombre);
+                taille -= nombre;
+            }
+            if (enregistrements.taille == 0) {
+                iterator.remove();
+                parIdentifiant.set(enregistrements.identifiant, null);
+                enregistrements.fermer();
+            }
+        }
+    }
+
+    // Returns the number of organisms belonging to one of the given species, given by identifier.
+    public int compter(int[] identifiants) {
+        int nombre = 0;
+        for (var identifiant : identifiants) {
+            var enregistrements = getEspece(identifiant);
+            if (enregistrements != null)
+                nombre += enregistrements.taille;
+        }
+        return nombre;
+    }
+
+    // Returns, for each species, its number of individuals and their total energy. Goes through every organism.
+    public Map<String, AgregatEspece> resume() {
+        var resume = new LinkedHashMap<String, AgregatEspece>();
+        for (var enregistrements : especes) {
+            var agregat = new AgregatEspece();
+            agregat.ajouter(enregistrements.taille, enregistrements.getEnergieFixe());
+            resume.put(enregistrements.nom, agregat);
+        }
+        return resume;
+    }
+
+    // Frees the memory of every species. The population is empty afterwards.
+    @Override
+    public void close() {
+        for (var enregistrements : especes) {
+            parIdentifiant.set(enregistrements.identifiant, null);
+            enregistrements.fermer();
+        }
+        especes.clear();
+        taille = 0;
+    }
+
+
+    // Getters
+    // Species in the order they first appeared.
+    List<Enregistrements> getEspeces() {
+        return Collections.unmodifiableList(especes);
+    }
+
+    // Returns the species identifiant, or null if it has no individual. See RegistreEspeces.
+    Enregistrements getEspece(int identifiant) {
+        return identifiant < parIdentifiant.size() ? parIdentifiant.get(identifiant) : null;
+    }
+
+    // Returns the descriptor number numero.
+    Espece getDescripteur(int numero) {
+        return descripteurs.get(numero);
+    }
+
+    // Descriptors in the order of their numbers.
+    List<Espece> getDescripteurs() {
+        return Collections.unmodifiableList(descripteurs);
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+
+    private Enregistrements enregistrements(Espece espece) {
+        int identifiant = espece.getIdentifiant();
+        var enregistrements = getEspece(identifiant);
+        if (enregistrements == null) {
+            enregistrements = new Enregistrements(espece.getNom(), identifiant, dossier);
+            especes.add(enregistrements);
+            while (parIdentifiant.size() <= identifiant)
+                parIdentifiant.add(null);
+            parIdentifiant.set(identifiant, enregistrements);
+        }
+        return enregistrements;
+    }
+
+    private int numero(Espece espece) {
+        return numeros.computeIfAbsent(espece, e -> {
+            descripteurs.add(e);
+            return descripteurs.size() - 1;
+        });
+    }
+}
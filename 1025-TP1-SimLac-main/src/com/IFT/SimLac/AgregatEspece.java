@@ -0,0 +1,77 @@
+package com.IFT.SimLac;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class keeps the number of individuals of a species and their total energy up to date, so that totals and
+ * reports don't have to go through every organism.
+ *
+ * Organisms report every change of their energy (see Organisme). Energy is summed in fixed point, on 64-bit integers:
+ * integer sums don't depend on the order of the additions, so the total is the same whichever thread reports first,
+ * and changes can come from several threads at once. The count only changes when organisms join or leave their
+ * Population, which is never done concurrently.
+ */
+
+public final class AgregatEspece {
+
+    private static final double ECHELLE = 0x1.0p24;  // Fixed point unit: energies are rounded to 2^-24.
+
+    private int individus = 0;
+    private final LongAdder energie = new LongAdder();  // Total energy, in fixed point.
+
+
+    // Returns energie in fixed point.
+    static long enFixe(double energie) {
+        return Math.round(energie * ECHELLE);
+    }
+
+    // Returns the energy whose fixed point value is energieFixe.
+    static double enEnergie(long energieFixe) {
+        return energieFixe / ECHELLE;
+    }
+
+    // An organism whose energy is energieFixe joins the species.
+    void ajouter(long energieFixe) {
+        individus++;
+        energie.add(energieFixe);
+    }
+
+    // nombre organisms whose energies sum to energieFixe join the species.
+    void ajouter(int nombre, long energieFixe) {
+        individus += nombre;
+        energie.add(energieFixe);
+    }
+
+    // An organism whose energy is energieFixe leaves the species.
+    void retirer(long energieFixe) {
+        individus--;
+        energie.add(-energieFixe);
+    }
+
+    // The energy of an organism of the species changed by variationFixe. May be called from several threads.
+    void varier(long variationFixe) {
+        energie.add(variationFixe);
+    }
+
+    // Returns a copy of the current totals, which won't be updated anymore.
+    public AgregatEspece copier() {
+        var copie = new AgregatEspece();
+        copie.individus = individus;
+        copie.energie.add(energie.sum());
+        return copie;
+    }
+
+
+    // Getters
+    public int getIndividus() {
+        return individus;
+    }
+
+    public double getEnergie() {
+        return enEnergie(energie.sum());
+    }
+
+    long getEnergieFixe() {
+        return energie.sum();
+    }
+}
@@ -0,0 +1,227 @@
+package com.IFT.SimLac;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class sweeps the parameters of a Scenario: it simulates one lake for each combination of parameter values and
+ * writes one CSV row per run, with the final number of individuals and total energy of every species: plants first,
+ * then herbivores and carnivores. A plant and an animal may share a name; each has its own columns.
+ *
+ * Combinations are either the cartesian product of the values of each parameter (a grid), or points drawn uniformly
+ * in the ranges of the parameters. Runs are executed on a fixed pool of threads. Only a few runs are submitted ahead
+ * of the one being written, so memory stays bounded however large the sweep is, and rows come out in run order.
+ * Each run gets its own seed derived from graine, so the whole sweep is reproducible.
+ */
+
+public final class Balayage {
+
+    // A parameter to sweep and its range, as given on the command line: "Espece.parametre=min:max:pas", or
+    // "energieSolaire=min:max:pas" for the solar energy of the lake.
+    public static final class Parametre {
+        private final String nomEspece;  // null for a parameter of the lake.
+        private final String nom;
+        private final double min;
+        private final double max;
+        private final double pas;
+
+        public Parametre(String nomEspece, String nom, double min, double max, double pas) {
+            if (max < min)
+                throw new IllegalArgumentException("max must be greater or equal to min");
+            if (pas <= 0)
+                throw new IllegalArgumentException("pas must be greater than 0");
+            this.nomEspece = nomEspece;
+            this.nom = nom;
+            this.min = min;
+            this.max = max;
+            this.pas = pas;
+        }
+
+        public static Parametre lire(String texte) {
+            int egal = texte.indexOf('=');
+            if (egal < 0)
+                throw new IllegalArgumentException("expected Espece.parametre=min:max:pas, got " + texte);
+
+            var cible = texte.substring(0, egal);
+            var bornes = texte.substring(egal + 1).split(":");
+            if (bornes.length != 3)
+                throw new IllegalArgumentException("expected min:max:pas, got " + texte.substring(egal + 1));
+
+            int point = cible.lastIndexOf('.');
+            var nomEspece = point < 0 ? null : cible.substring(0, point);
+            var nom = cible.substring(point + 1);
+            return new Parametre(nomEspece, nom, Double.parseDouble(bornes[0]), Double.parseDouble(bornes[1]),
+                    Double.parseDouble(bornes[2]));
+        }
+
+        // Returns the values of the grid: min, min + pas, ... up to max included.
+        public double[] valeurs() {
+            int nombre = (int) Math.floor((max - min) / pas + 1e-9) + 1;
+            var valeurs = new double[nombre];
+            for (int i = 0; i < nombre; i++)
+                valeurs[i] = min + i * pas;
+            return valeurs;
+        }
+
+        public String getNomColonne() {
+            return nomEspece == null ? nom : nomEspece + "." + nom;
+        }
+
+        private Scenario appliquer(Scenario scenario, double valeur) {
+            return scenario.avecParametre(nomEspece, nom, valeur);
+        }
+    }
+
+
+    private final Scenario base;
+    private final List<Parametre> parametres;
+    private final List<double[]> points;  // Values of the parameters for each run.
+    private final long[] graines;         // Seed of each run
+    private final Set<String> plantes;    // Names of the species of each category, in the order of their columns.
+    private final Set<String> herbivores;
+    private final Set<String> carnivores;
+
+
+    // Constructor
+    // Sweeps the grid of the parameters when nombreTirages is 0, or nombreTirages points drawn uniformly otherwise.
+    public Balayage(Scenario base, List<Parametre> parametres, int nombreTirages, long graine) {
+        if (parametres.isEmpty())
+            throw new IllegalArgumentException("at least one parameter is needed");
+        if (nombreTirages < 0)
+            throw new IllegalArgumentException("nombreTirages must be greater or equal to 0");
+        this.base = base;
+        this.parametres = List.copyOf(parametres);
+        this.plantes = noms(base.getPlantes());
+        this.herbivores = noms(base.getHerbivores());
+        this.carnivores = noms(base.getCarnivores());
+
+        // Fails now rather than in the middle of the sweep if a parameter or one of its bounds is invalid.
+        for (var parametre : this.parametres) {
+            parametre.appliquer(base, parametre.min);
+            parametre.appliquer(base, parametre.max);
+        }
+
+        var source = new SplittableRandom(graine);
+        this.points = nombreTirages == 0 ? grille(this.parametres) : tirages(this.parametres, nombreTirages, source);
+        this.graines = new long[points.size()];
+        for (int i = 0; i < graines.length; i++)
+            graines[i] = source.nextLong();
+    }
+
+
+    // Simulates every run for nombreCycles cycles on parallelisme threads and writes the CSV to out. With recyclage,
+    // each lake recycles its dead organisms (see Lac.setRecyclage), which doesn't change the rows.
+    public void executer(int nombreCycles, int parallelisme, boolean recyclage, PrintStream out)
+            throws InterruptedException {
+        var entete = new StringBuilder("run");
+        parametres.forEach(parametre -> entete.append(',').append(parametre.getNomColonne()));
+        for (var especes : List.of(plantes, herbivores, carnivores)) {
+            especes.forEach(espece -> entete.append(',').append(espece).append("_individus")
+                    .append(',').append(espece).append("_energie"));
+        }
+        out.println(entete);
+
+        ExecutorService executeur = Executors.newFixedThreadPool(Math.max(1, parallelisme));
+        try {
+            int fenetre = 2 * Math.max(1, parallelisme);
+            var enCours = new ArrayDeque<Future<String>>(fenetre);
+            int suivant = 0;
+            while (suivant < points.size() || !enCours.isEmpty()) {
+                while (suivant < points.size() && enCours.size() < fenetre) {
+                    int run = suivant++;
+                    enCours.add(executeur.submit(() -> executerRun(run, nombreCycles, recyclage)));
+                }
+                out.println(enCours.remove().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+
+
+    private String executerRun(int run, int nombreCycles, boolean recyclage) {
+        var point = points.get(run);
+        var scenario = base;
+        for (int i = 0; i < parametres.size(); i++)
+            scenario = parametres.get(i).appliquer(scenario, point[i]);
+
+        var lac = scenario.creerLac(new GenerateurCompteur(graines[run]));
+        lac.setRecyclage(recyclage);
+        for (int i = 0; i < nombreCycles; i++)
+            lac.tick();
+
+        var ligne = new StringBuilder(Integer.toString(run));
+        for (var valeur : point)
+            ligne.append(',').append(formater(valeur));
+        ajouterColonnes(ligne, plantes, lac.resumePlantes());
+        ajouterColonnes(ligne, herbivores, lac.resumeHerbivores());
+        ajouterColonnes(ligne, carnivores, lac.resumeCarnivores());
+        return ligne.toString();
+    }
+
+    // Appends the number of individuals and the energy of each of especes, as found in the summary of their category.
+    private static void ajouterColonnes(StringBuilder ligne, Set<String> especes, Map<String, AgregatEspece> resumes) {
+        for (var espece : especes) {
+            var statistiques = resumes.get(espece);
+            ligne.append(',').append(statistiques == null ? 0 : statistiques.getIndividus())
+                    .append(',').append(formater(statistiques == null ? 0 : statistiques.getEnergie()));
+        }
+    }
+
+    private static Set<String> noms(List<? extends Scenario.Bloc<? extends UsineOrganisme>> blocs) {
+        var noms = new LinkedHashSet<String>();
+        blocs.forEach(bloc -> noms.add(bloc.getUsine().getNomEspece()));
+        return noms;
+    }
+
+    private static String formater(double valeur) {
+        return String.format(Locale.ROOT, "%.4f", valeur);
+    }
+
+    // Cartesian product of the values of each parameter, the last parameter varying fastest.
+    private static List<double[]> grille(List<Parametre> parametres) {
+        var points = new ArrayList<double[]>();
+        points.add(new double[0]);
+        for (var parametre : parametres) {
+            var suivants = new ArrayList<double[]>();
+            for (var point : points) {
+                for (var valeur : parametre.valeurs()) {
+                    var suivant = Arrays.copyOf(point, point.length + 1);
+                    suivant[point.length] = valeur;
+                    suivants.add(suivant);
+                }
+            }
+            points = suivants;
+        }
+        return points;
+    }
+
+    private static List<double[]> tirages(List<Parametre> parametres, int nombreTirages, SplittableRandom source) {
+        var points = new ArrayList<double[]>(nombreTirages);
+        for (int t = 0; t < nombreTirages; t++) {
+            var point = new double[parametres.size()];
+            for (int i = 0; i < point.length; i++) {
+                var parametre = parametres.get(i);
+                point[i] = parametre.min + source.nextDouble() * (parametre.max - parametre.min);
+            }
+            points.add(point);
+        }
+        return points;
+    }
+}
@@ -14,43 +14,33 @@ import java.util.Set;
 
 public final class Carnivore extends Organisme {
 
-    // Attributes
-    private final double debrouillardise;  // Determines the chance of having one or multiple meals during a cycle.
-    private final Set<String> aliments;    // Set of Herbivore objects that can be eaten by this Carnivore.
-
+    // Parameters are held by the species descriptor, see EspeceCarnivore.
 
     // Constructor
-    public Carnivore(String nomEspece, double energie, int age, double besoinEnergie, double efficaciteEnergie,
-                     double resilience, double fertilite, int ageFertilite, double energieEnfant,
-                     double debrouillardise, Set<String> aliments, double tailleMaximum) {
+    public Carnivore(EspeceCarnivore espece, double energie, int age) {
+        super(espece, energie, age);
+    }
 
-        super(nomEspece, energie, age, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
-                energieEnfant, tailleMaximum);
+    private Carnivore(Carnivore autre) {
+        super(autre);
+    }
 
-        this.debrouillardise = debrouillardise;
-        this.aliments = aliments;
-        this.tailleMaximum = tailleMaximum;
+    @Override
+    public Carnivore copier() {
+        return new Carnivore(this);
     }
 
     @Override
     public Carnivore seReproduire() {
-        return new Carnivore(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience,
-                fertilite, ageFertilite, energieEnfant, debrouillardise, aliments, tailleMaximum);
+        return new Carnivore(getEspece(), espece.getEnergieEnfant(), 0);
     }
 
 
     // Returns the number of times this carnivore feeds.
     // If the project gets any larger, consider putting this method into an Animal abstract class.
-    public int nombreRepas() {
-        int nombreHerbivoresManges = 0;
-
-        double roll = Math.random();
-        while (roll <= debrouillardise) {
-            nombreHerbivoresManges++;
-            roll = Math.random();
-        }
-
-        return nombreHerbivoresManges;
+    // Rolls are made until one is greater than debrouillardise; the count is drawn at once, see Lois.geometrique.
+    public int nombreRepas(Tirages tirages) {
+        return Lois.geometrique(tirages.suivant(), getEspece().getDebrouillardise());
     }
 
 
@@ -58,16 +48,20 @@ public final class Carnivore extends Organisme {
     public void bilanEnergetique(List<Herbivore> herbivoresManges) {
         double energieRecue = 0;
 
-        for (var herbivoreMange : herbivoresManges) {
+        for (int i = 0; i < herbivoresManges.size(); i++) {
+            var herbivoreMange = herbivoresManges.get(i);
             energieRecue += herbivoreMange.getEnergie();
             herbivoreMange.estMange();
         }
-        budgetEnergetique = energieRecue - besoinEnergie;
+        budgetEnergetique = energieRecue - espece.getBesoinEnergie();
     }
 
 
     // Getters
-    public Set<String> getAliments() { return Set.copyOf(aliments); }
-}
+    @Override
+    public EspeceCarnivore getEspece() { return (EspeceCarnivore) espece; }
 
+    public double getDebrouillardise() { return getEspece().getDebrouillardise(); }
 
+    public Set<String> getAliments() { return getEspece().getAliments(); }
+}
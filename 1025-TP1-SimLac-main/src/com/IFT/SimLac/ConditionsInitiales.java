@@ -1,10 +1,8 @@
 package com.IFT.SimLac;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,80 +10,106 @@ import java.util.List;
  * Les conditions initiales de la simulation sont stockées dans des fichier XML. Le rôle de cette classe est de lire de
  * tels fichiers.
  *
- * On utilise une classe nomée XMLEventReader. Ce n'est pas la façon la plus facile de lire du XML, mais elle a
- * l'avantage de faire partie du JDK, donc il n'y a pas de dépendance à ajouter à votre projet. Elle fonctionne comme
- * un curseur dans le document: on lui demande le prochain évènement, qui peut être une ouverture de tag, des
- * caractères, etc.
+ * On utilise une classe nomée XMLStreamReader. Elle fait partie du JDK, donc il n'y a pas de dépendance à ajouter à
+ * votre projet. Elle fonctionne comme un curseur dans le document: on l'avance au prochain évènement, qui peut être une
+ * ouverture de tag, des caractères, etc., puis on lit l'évènement courant directement dans le curseur. Contrairement à
+ * XMLEventReader, aucun objet n'est créé pour chaque évènement.
+ *
+ * Un tag d'organisme avec son attribut quantite n'est lu qu'une fois: il devient un seul bloc du scénario (voir
+ * Scenario), dont les organismes sont tous créés d'un coup quand le lac est créé.
  */
 public final class ConditionsInitiales {
-    private final XMLEventReader reader;
+    private final XMLStreamReader reader;
+    private final GenerateurAleatoire generateur;
+    private boolean surLac = false;    // Le curseur est sur un tag lac qui n'a pas encore été lu.
+    private boolean dansLacs = false;  // Le curseur est dans un tag lacs.
+
+    public ConditionsInitiales(XMLStreamReader reader) {
+        this(reader, GenerateurCompteur.sansGraine());
+    }
 
-    public ConditionsInitiales(XMLEventReader reader) {
+    // Les lacs lus utilisent le générateur donné pour tous leurs tirages aléatoires.
+    public ConditionsInitiales(XMLStreamReader reader, GenerateurAleatoire generateur) {
         this.reader = reader;
+        this.generateur = generateur;
     }
 
     public Lac nextLac() throws ConditionsInitialesInvalides {
-        // On cherche le début du document.
-        while (true) {
+        return this.nextScenario().creerLac(this.generateur);
+    }
+
+    // Dit s'il reste un lac à lire. Le document contient soit un seul tag lac, soit un tag lacs qui contient plusieurs
+    // tags lac à la suite.
+    public boolean hasNext() throws ConditionsInitialesInvalides {
+        while (!this.surLac) {
+            try {
+                if (!this.reader.hasNext()) {
+                    return false;
+                }
+            } catch (XMLStreamException e) {
+                throw new ConditionsInitialesInvalides("le document se termine avant la fin", e);
+            }
+
             var event = this.nextEvent();
-            if (event.isStartElement()) {
-                var startElement = event.asStartElement();
-                var name = startElement.getName().getLocalPart();
-                if (!name.equals("lac")) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                var name = this.reader.getLocalName();
+                if (name.equals("lac")) {
+                    this.surLac = true;
+                } else if (!name.equals("lacs") || this.dansLacs) {
                     throw new ConditionsInitialesInvalides(
                         "je m'attendais au tag \"lac\", mais j'ai eu \"" + name + "\"");
+                } else {
+                    this.dansLacs = true;
                 }
-                break;
-            } else if (!event.isProcessingInstruction() && !event.isStartDocument()) {
-                throw new ConditionsInitialesInvalides("élément invalide: " + event);
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                return false;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                // C'est nécessairement le tag fermant </lacs>, si le document est bien formé.
+                this.dansLacs = false;
+            } else if (event != XMLStreamConstants.PROCESSING_INSTRUCTION && event != XMLStreamConstants.COMMENT
+                    && event != XMLStreamConstants.START_DOCUMENT && !this.reader.isWhiteSpace()) {
+                throw new ConditionsInitialesInvalides("élément invalide: " + this.reader.getText());
             }
         }
+        return true;
+    }
+
+    // Lit le prochain lac sans créer ses organismes. Le scénario garde une usine configurée par groupe d'organismes.
+    public Scenario nextScenario() throws ConditionsInitialesInvalides {
+        // On cherche le début du lac.
+        if (!this.hasNext()) {
+            throw new ConditionsInitialesInvalides("le document se termine avant la fin");
+        }
+        this.surLac = false;
 
         Integer energieSolaire = null;
-        List<Plante> plantes = new ArrayList<>();
-        List<Herbivore> herbivores = new ArrayList<>();
-        List<Carnivore> carnivores = new ArrayList<>();
+        List<Scenario.Bloc<UsinePlante>> plantes = new ArrayList<>();
+        List<Scenario.Bloc<UsineHerbivore>> herbivores = new ArrayList<>();
+        List<Scenario.Bloc<UsineCarnivore>> carnivores = new ArrayList<>();
 
-        while (this.reader.hasNext()) {
-            var event = this.nextEvent();
-            if (event.isStartElement()) {
-                var startElement = event.asStartElement();
-                switch (startElement.getName().getLocalPart()) {
-                    case "energieSolaire" -> {
-                        energieSolaire = this.nextInt("energieSolaire");
-                        this.skipEndTag();
-                    }
-                    case "plante" -> {
-                        var quantityAttribute = startElement.getAttributeByName(new QName("quantite"));
-                        var quantity = Integer.parseInt(quantityAttribute.getValue());
-                        var usine = new UsinePlante();
-                        this.nextPlante(usine);
-                        for (int i = 0; i < quantity; i += 1) {
-                            plantes.add(usine.creerPlante());
-                        }
-                    }
-                    case "herbivore" -> {
-                        var quantityAttribute = startElement.getAttributeByName(new QName("quantite"));
-                        var quantity = Integer.parseInt(quantityAttribute.getValue());
-                        var usine = new UsineHerbivore();
-                        this.nextHerbivore(usine);
-                        for (int i = 0; i < quantity; i += 1) {
-                            herbivores.add(usine.creerHerbivore());
-                        }
-                    }
-                    case "carnivore" -> {
-                        var quantityAttribute = startElement.getAttributeByName(new QName("quantite"));
-                        var quantity = Integer.parseInt(quantityAttribute.getValue());
-                        var usine = new UsineCarnivore();
-                        this.nextCarnivore(usine);
-                        for (int i = 0; i < quantity; i += 1) {
-                            carnivores.add(usine.creerCarnivore());
-                        }
-                    }
+        // nextTag s'arrête au tag fermant </lac>, puisque chaque tag ouvrant est lu jusqu'à sa fin.
+        while (this.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (this.reader.getLocalName()) {
+                case "energieSolaire" -> energieSolaire = this.nextInt("energieSolaire");
+                case "plante" -> {
+                    var quantity = this.quantite();
+                    var usine = new UsinePlante();
+                    this.nextPlante(usine);
+                    plantes.add(new Scenario.Bloc<>(usine, quantity));
+                }
+                case "herbivore" -> {
+                    var quantity = this.quantite();
+                    var usine = new UsineHerbivore();
+                    this.nextHerbivore(usine);
+                    herbivores.add(new Scenario.Bloc<>(usine, quantity));
                 }
-            } else if (event.isEndElement()) {
-                // C'est nécessairement le tag fermant </lac>, si le document est bien formé.
-                break;
+                case "carnivore" -> {
+                    var quantity = this.quantite();
+                    var usine = new UsineCarnivore();
+                    this.nextCarnivore(usine);
+                    carnivores.add(new Scenario.Bloc<>(usine, quantity));
+                }
+                default -> this.skipElement();
             }
         }
 
@@ -93,133 +117,147 @@ public final class ConditionsInitiales {
             throw new ConditionsInitialesInvalides("energieSolaire non spécifiée");
         }
 
-        return new Lac(energieSolaire, plantes, herbivores, carnivores);
+        return new Scenario(energieSolaire, plantes, herbivores, carnivores);
     }
 
     private void nextPlante(UsinePlante usine) throws ConditionsInitialesInvalides {
-        while (true) {
-            var event = this.nextEventIgnoringWhitespace();
-            if (event.isStartElement()) {
-                var startElement = event.asStartElement();
-                var name = startElement.getName().getLocalPart();
-                switch (name) {
-                    case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
-                    case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
-                    case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
-                    case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
-                    case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
-                    case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
-                    case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
-                    case "tailleMaximum" -> usine.setTailleMaximum((this.nextInt("tailleMaximum")));
-                    default -> throw new ConditionsInitialesInvalides(
-                        "attribut \"" + name + "\" invalide pour une plante");
-                }
-                this.skipEndTag();
-            } else if (event.isEndElement()) {
-                return;
+        while (this.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            var name = this.reader.getLocalName();
+            switch (name) {
+                case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
+                case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
+                case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
+                case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
+                case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
+                case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
+                case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
+                case "tailleMaximum" -> usine.setTailleMaximum((this.nextInt("tailleMaximum")));
+                default -> throw new ConditionsInitialesInvalides(
+                    "attribut \"" + name + "\" invalide pour une plante");
             }
         }
     }
 
     private void nextHerbivore(UsineHerbivore usine) throws ConditionsInitialesInvalides {
-        while (true) {
-            var event = this.nextEventIgnoringWhitespace();
-            if (event.isStartElement()) {
-                var startElement = event.asStartElement();
-                var name = startElement.getName().getLocalPart();
-                switch (name) {
-                    case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
-                    case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
-                    case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
-                    case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
-                    case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
-                    case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
-                    case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
-                    case "debrouillardise" -> usine.setDebrouillardise(this.nextDouble("debrouillardise"));
-                    case "voraciteMin" -> usine.setVoraciteMin(this.nextDouble("voraciteMin"));
-                    case "voraciteMax" -> usine.setVoraciteMax(this.nextDouble("voraciteMax"));
-                    case "aliments" -> usine.addAliment(this.nextString("aliments"));
-                    case "tailleMaximum" -> usine.setTailleMaximum((this.nextInt("tailleMaximum")));
-                    default -> throw new ConditionsInitialesInvalides(
-                        "attribut \"" + name + "\" invalide pour un herbivore");
-                }
-                this.skipEndTag();
-            } else if (event.isEndElement()) {
-                return;
+        while (this.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            var name = this.reader.getLocalName();
+            switch (name) {
+                case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
+                case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
+                case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
+                case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
+                case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
+                case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
+                case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
+                case "debrouillardise" -> usine.setDebrouillardise(this.nextDouble("debrouillardise"));
+                case "voraciteMin" -> usine.setVoraciteMin(this.nextDouble("voraciteMin"));
+                case "voraciteMax" -> usine.setVoraciteMax(this.nextDouble("voraciteMax"));
+                case "aliments" -> usine.addAliment(this.nextString("aliments"));
+                case "tailleMaximum" -> usine.setTailleMaximum((this.nextInt("tailleMaximum")));
+                default -> throw new ConditionsInitialesInvalides(
+                    "attribut \"" + name + "\" invalide pour un herbivore");
             }
         }
     }
 
     private void nextCarnivore(UsineCarnivore usine) throws ConditionsInitialesInvalides {
-        while (true) {
-            var event = this.nextEventIgnoringWhitespace();
-            if (event.isStartElement()) {
-                var startElement = event.asStartElement();
-                var name = startElement.getName().getLocalPart();
-                switch (name) {
-                    case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
-                    case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
-                    case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
-                    case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
-                    case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
-                    case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
-                    case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
-                    case "debrouillardise" -> usine.setDebrouillardise(this.nextDouble("debrouillardise"));
-                    case "aliments" -> usine.addAliment(this.nextString("aliments"));
-                    case "tailleMaximum" -> usine.setTailleMaximum(this.nextInt("tailleMaximum"));
-                    default -> throw new ConditionsInitialesInvalides(
-                            "attribut \"" + name + "\" invalide pour un carnivore");
-                }
-                this.skipEndTag();
-            } else if (event.isEndElement()) {
-                return;
+        while (this.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            var name = this.reader.getLocalName();
+            switch (name) {
+                case "nomEspece" -> usine.setNomEspece(this.nextString("nomEspece"));
+                case "besoinEnergie" -> usine.setBesoinEnergie(this.nextDouble("besoinEnergie"));
+                case "efficaciteEnergie" -> usine.setEfficaciteEnergie(this.nextDouble("efficaciteEnergie"));
+                case "resilience" -> usine.setResilience(this.nextDouble("resilience"));
+                case "fertilite" -> usine.setFertilite(this.nextDouble("fertilite"));
+                case "ageFertilite" -> usine.setAgeFertilite(this.nextInt("ageFertilite"));
+                case "energieEnfant" -> usine.setEnergieEnfant(this.nextDouble("energieEnfant"));
+                case "debrouillardise" -> usine.setDebrouillardise(this.nextDouble("debrouillardise"));
+                case "aliments" -> usine.addAliment(this.nextString("aliments"));
+                case "tailleMaximum" -> usine.setTailleMaximum(this.nextInt("tailleMaximum"));
+                default -> throw new ConditionsInitialesInvalides(
+                        "attribut \"" + name + "\" invalide pour un carnivore");
             }
         }
     }
 
+    // Lit l'attribut quantite du tag d'organisme courant.
+    private int quantite() throws ConditionsInitialesInvalides {
+        var quantite = this.reader.getAttributeValue(null, "quantite");
+        if (quantite == null) {
+            throw new ConditionsInitialesInvalides(
+                "attribut \"quantite\" manquant pour \"" + this.reader.getLocalName() + "\"");
+        }
+        int nombre;
+        try {
+            nombre = Integer.parseInt(quantite.trim());
+        } catch (NumberFormatException e) {
+            throw new ConditionsInitialesInvalides("quantite invalide: \"" + quantite + "\"", e);
+        }
+        if (nombre < 0) {
+            throw new ConditionsInitialesInvalides("quantite négative: " + nombre);
+        }
+        return nombre;
+    }
+
+    // Lit le texte du tag courant et s'arrête sur son tag fermant.
     private String nextString(String context) throws ConditionsInitialesInvalides {
-        var characters = this.nextCharacters(context);
-        return characters.getData().trim();
+        try {
+            return this.reader.getElementText().trim();
+        } catch (XMLStreamException e) {
+            throw new ConditionsInitialesInvalides("je m'attendais à avoir des caractères dans " + context, e);
+        }
     }
 
     private int nextInt(String context) throws ConditionsInitialesInvalides {
-        return Integer.parseInt(this.nextString(context));
+        var text = this.nextString(context);
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ConditionsInitialesInvalides("je m'attendais à un entier dans " + context + ": " + text, e);
+        }
     }
 
     private double nextDouble(String context) throws ConditionsInitialesInvalides {
-        return Double.parseDouble(this.nextString(context));
-    }
-
-    private Characters nextCharacters(String context) throws ConditionsInitialesInvalides {
-        var event = this.nextEvent();
-        if (event.isCharacters()) {
-            return event.asCharacters();
-        } else {
-            throw new ConditionsInitialesInvalides("je m'attendais à avoir des caractères dans " + context);
+        var text = this.nextString(context);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new ConditionsInitialesInvalides("je m'attendais à un nombre dans " + context + ": " + text, e);
         }
     }
 
-    private void skipEndTag() throws ConditionsInitialesInvalides {
-        var event = this.nextEventIgnoringWhitespace();
-        if (!event.isEndElement()) {
-            throw new ConditionsInitialesInvalides(
-                "je m'attendais à la fin d'un tag, mais j'ai eu des données: " + event);
+    // Passe le tag courant et tout son contenu, jusqu'à son tag fermant.
+    private void skipElement() throws ConditionsInitialesInvalides {
+        int profondeur = 1;
+        while (profondeur > 0) {
+            var event = this.nextEvent();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                profondeur++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                profondeur--;
+            }
         }
     }
 
-    private XMLEvent nextEventIgnoringWhitespace() throws ConditionsInitialesInvalides {
-        while (true) {
-            var event = this.nextEvent();
-            if (event.isCharacters() && event.asCharacters().isWhiteSpace()) {
-                continue;
+    // Avance jusqu'au prochain tag, ouvrant ou fermant, en ignorant les espaces et les commentaires.
+    private int nextTag() throws ConditionsInitialesInvalides {
+        try {
+            if (!this.reader.hasNext()) {
+                throw new ConditionsInitialesInvalides("le document se termine avant la fin");
             }
-            return event;
+            return this.reader.nextTag();
+        } catch (XMLStreamException e) {
+            throw new ConditionsInitialesInvalides(
+                "je m'attendais à un tag, mais j'ai eu des données: " + e.getMessage(), e);
         }
     }
 
-    private XMLEvent nextEvent() throws ConditionsInitialesInvalides {
+    private int nextEvent() throws ConditionsInitialesInvalides {
         try {
-            return this.reader.nextEvent();
+            if (!this.reader.hasNext()) {
+                throw new ConditionsInitialesInvalides("le document se termine avant la fin");
+            }
+            return this.reader.next();
         } catch (XMLStreamException e) {
             throw new ConditionsInitialesInvalides("le document se termine avant la fin", e);
         }
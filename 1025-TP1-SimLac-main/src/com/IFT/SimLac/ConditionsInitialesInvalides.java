@@ -1,6 +1,8 @@
 package com.IFT.SimLac;
 
 public final class ConditionsInitialesInvalides extends Exception {
+    private static final long serialVersionUID = 1L;
+
     public ConditionsInitialesInvalides(String message) {
         super(message);
     }
@@ -0,0 +1,108 @@
+package com.IFT.SimLac;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class writes the measures of each cycle of a Lac as CSV, one row per species and per cycle.
+ *
+ * It is meant to be the observer of a Lac (see Lac.setObservateur). The simulation thread only puts the measures in a
+ * bounded queue; a background thread formats them and writes them. The simulation only waits if the writer falls a
+ * whole queue behind, so memory stays bounded even when the output is slower than the simulation.
+ */
+
+public final class EcrivainMesures implements Consumer<MesuresCycle>, AutoCloseable {
+
+    private static final String ENTETE = "cycle,categorie,espece,individus,energie,naissances,morts,repas";
+    private static final MesuresCycle FIN = new MesuresCycle(-1);  // Tells the writer thread to stop.
+
+    private final BlockingQueue<MesuresCycle> file;
+    private final Writer sortie;
+    private final Thread ecrivain;
+    private volatile IOException erreur = null;  // First error met by the writer thread.
+
+
+    // Constructor
+    // capacite is the number of cycles that can wait to be written. sortie is closed with this writer.
+    public EcrivainMesures(Writer sortie, int capacite) {
+        if (capacite <= 0)
+            throw new IllegalArgumentException("capacite must be greater than 0");
+        this.file = new ArrayBlockingQueue<>(capacite);
+        this.sortie = new BufferedWriter(sortie);
+        this.ecrivain = new Thread(this::ecrire, "EcrivainMesures");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+
+
+    // Hands the measures over to the writer thread.
+    @Override
+    public void accept(MesuresCycle mesures) {
+        try {
+            // Checks now and then that the writer is still running, otherwise nobody would ever make room.
+            do {
+                verifierErreur();
+            } while (!file.offer(mesures, 100, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the writer", e);
+        }
+    }
+
+    // Waits until all measures are written, then closes the output.
+    @Override
+    public void close() throws IOException {
+        try {
+            // Checks now and then that the writer is still running, like accept.
+            while (erreur == null && ecrivain.isAlive()) {
+                if (file.offer(FIN, 100, TimeUnit.MILLISECONDS))
+                    break;
+            }
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sortie.close();
+        }
+        if (erreur != null)
+            throw erreur;
+    }
+
+
+    private void ecrire() {
+        try {
+            sortie.write(ENTETE);
+            sortie.write('\n');
+            while (true) {
+                var mesures = file.take();
+                if (mesures == FIN)
+                    break;
+                for (var espece : mesures.getEspeces()) {
+                    sortie.write(String.format(Locale.ROOT, "%d,%s,%s,%d,%.4f,%d,%d,%d\n", mesures.getCycle(),
+                            espece.getCategorie().name().toLowerCase(Locale.ROOT), espece.getNom(),
+                            espece.getIndividus(), espece.getEnergie(), espece.getNaissances(), espece.getMorts(),
+                            espece.getRepas()));
+                }
+            }
+            sortie.flush();
+        } catch (IOException e) {
+            erreur = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void verifierErreur() {
+        if (erreur != null)
+            throw new UncheckedIOException("could not write the measures", erreur);
+        if (!ecrivain.isAlive())
+            throw new IllegalStateException("the writer thread stopped");
+    }
+}
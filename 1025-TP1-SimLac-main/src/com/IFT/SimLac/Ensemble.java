@@ -0,0 +1,132 @@
+package com.IFT.SimLac;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class runs many replicas of the same initial Lac and summarizes their outcome.
+ *
+ * The simulation is stochastic, so a single run says little. Each replica is an independent copy of the initial lake
+ * with its own seed. Replicas run concurrently; the report gives, for each species, the mean, the variance and some
+ * percentiles of its number of individuals and of its total energy across replicas. A species extinct in a replica
+ * counts as 0 individuals and 0 energy.
+ */
+
+public final class Ensemble {
+
+    private static final double[] PERCENTILES = {0.05, 0.5, 0.95};
+
+    private final Lac initial;
+    private final long[] graines;  // Seed of each replica
+
+    // Summary of each replica at the end of its run. Replicas themselves are dropped as soon as they are done.
+    private final List<Map<String, AgregatEspece>> resumesPlantes;
+    private final List<Map<String, AgregatEspece>> resumesHerbivores;
+    private final List<Map<String, AgregatEspece>> resumesCarnivores;
+
+
+    // Constructor
+    // Seeds of the replicas are derived from graine, so the whole ensemble is reproducible.
+    public Ensemble(Lac initial, int nombreReplicas, long graine) {
+        if (nombreReplicas <= 0)
+            throw new IllegalArgumentException("nombreReplicas must be greater than 0");
+        this.initial = initial;
+
+        var source = new SplittableRandom(graine);
+        this.graines = new long[nombreReplicas];
+        for (int i = 0; i < nombreReplicas; i++)
+            graines[i] = source.nextLong();
+
+        this.resumesPlantes = new ArrayList<>(Collections.nCopies(nombreReplicas, Map.of()));
+        this.resumesHerbivores = new ArrayList<>(Collections.nCopies(nombreReplicas, Map.of()));
+        this.resumesCarnivores = new ArrayList<>(Collections.nCopies(nombreReplicas, Map.of()));
+    }
+
+
+    // Copies the initial lake for each replica and simulates them for nombreCycles cycles. Replicas run concurrently
+    // on executeur, or one after the other when executeur is null.
+    public void executer(int nombreCycles, ForkJoinPool executeur) {
+        var taches = new ArrayList<ForkJoinTask<?>>();
+        for (int r = 0; r < graines.length; r++) {
+            int index = r;
+            taches.add(ForkJoinTask.adapt(() -> {
+                var replica = initial.copier(new GenerateurCompteur(graines[index]));
+                replica.setExecuteur(executeur);
+                for (int i = 0; i < nombreCycles; i++)
+                    replica.tick();
+
+                resumesPlantes.set(index, replica.resumePlantes());
+                resumesHerbivores.set(index, replica.resumeHerbivores());
+                resumesCarnivores.set(index, replica.resumeCarnivores());
+            }));
+        }
+
+        if (executeur == null)
+            taches.forEach(ForkJoinTask::invoke);
+        else
+            executeur.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(taches)));
+    }
+
+    public void imprimeRapport(PrintStream out) {
+        out.println("Sur " + graines.length + " réplicas :");
+
+        out.println("Plantes");
+        imprimeEspeces(out, initial.resumePlantes().keySet(), resumesPlantes);
+        out.println("Herbivores");
+        imprimeEspeces(out, initial.resumeHerbivores().keySet(), resumesHerbivores);
+        out.println("Carnivores");
+        imprimeEspeces(out, initial.resumeCarnivores().keySet(), resumesCarnivores);
+    }
+
+
+    private static void imprimeEspeces(PrintStream out, Iterable<String> especes,
+                                       List<Map<String, AgregatEspece>> resumes) {
+        for (var espece : especes) {
+            var individus = new double[resumes.size()];
+            var energies = new double[resumes.size()];
+            for (int i = 0; i < resumes.size(); i++) {
+                var statistiques = resumes.get(i).get(espece);
+                if (statistiques != null) {
+                    individus[i] = statistiques.getIndividus();
+                    energies[i] = statistiques.getEnergie();
+                }
+            }
+            out.println(espece + ":");
+            imprimeDistribution(out, "individus", individus);
+            imprimeDistribution(out, "énergie", energies);
+        }
+    }
+
+    private static void imprimeDistribution(PrintStream out, String nom, double[] valeurs) {
+        var statistiques = Arrays.stream(valeurs).summaryStatistics();
+        double moyenne = statistiques.getAverage();
+
+        double sommeCarres = 0;
+        for (var valeur : valeurs)
+            sommeCarres += (valeur - moyenne) * (valeur - moyenne);
+        double variance = valeurs.length > 1 ? sommeCarres / (valeurs.length - 1) : 0;
+
+        var valeursTriees = valeurs.clone();
+        Arrays.sort(valeursTriees);
+
+        var ligne = new StringBuilder(String.format("    %s: moyenne %.2f, variance %.2f", nom, moyenne, variance));
+        for (var p : PERCENTILES)
+            ligne.append(String.format(", P%d %.2f", Math.round(p * 100), percentile(valeursTriees, p)));
+        out.println(ligne);
+    }
+
+    // Percentile p (between 0 and 1) of sorted values, interpolated linearly between the closest ranks.
+    private static double percentile(double[] valeursTriees, double p) {
+        double position = p * (valeursTriees.length - 1);
+        int bas = (int) Math.floor(position);
+        int haut = (int) Math.ceil(position);
+        return valeursTriees[bas] + (position - bas) * (valeursTriees[haut] - valeursTriees[bas]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.IFT.SimLac;
+
+/**
+ * This class describes a species: the parameters shared by all its individuals.
+ *
+ * Organisms only keep their own state (energy, age, ...) and a reference to their species, so millions of individuals
+ * of a species share a single descriptor. Descriptors are built by the Usine classes and never change.
+ * Plants are described by this class; EspeceHerbivore and EspeceCarnivore add the parameters of animals.
+ */
+
+public class Espece {
+
+    // attributes
+    private final String nom;                  // Name of the species
+    private final int identifiant;             // Interned name. See RegistreEspeces.
+    private final double besoinEnergie;        // Energy needed each cycle to survive.
+    private final double efficaciteEnergie;    // The ratio at which any remaining energy is metabolised.
+    private final double resilience;           // Determines the chance of survival when not enough energy is received.
+    private final double fertilite;            // Determines the chance of having a baby
+    private final int ageFertilite;            // Minimum age required to have babies
+    private final double energieEnfant;        // Starting energy at birth
+    private final double tailleMaximum;        // Maximum energy an organism can have. Limits growth.
+
+
+    // Constructor
+    public Espece(String nom, double besoinEnergie, double efficaciteEnergie, double resilience, double fertilite,
+                  int ageFertilite, double energieEnfant, double tailleMaximum) {
+        this.nom = nom;
+        this.identifiant = RegistreEspeces.identifiant(nom);
+        this.besoinEnergie = besoinEnergie;
+        this.efficaciteEnergie = efficaciteEnergie;
+        this.resilience = resilience;
+        this.fertilite = fertilite;
+        this.ageFertilite = ageFertilite;
+        this.energieEnfant = energieEnfant;
+        this.tailleMaximum = tailleMaximum;
+    }
+
+
+    // Getters
+    public String getNom() {
+        return nom;
+    }
+
+    public int getIdentifiant() {
+        return identifiant;
+    }
+
+    public double getBesoinEnergie() {
+        return besoinEnergie;
+    }
+
+    public double getEfficaciteEnergie() {
+        return efficaciteEnergie;
+    }
+
+    public double getResilience() {
+        return resilience;
+    }
+
+    public double getFertilite() {
+        return fertilite;
+    }
+
+    public int getAgeFertilite() {
+        return ageFertilite;
+    }
+
+    public double getEnergieEnfant() {
+        return energieEnfant;
+    }
+
+    public double getTailleMaximum() {
+        return tailleMaximum;
+    }
+}
@@ -0,0 +1,45 @@
+package com.IFT.SimLac;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Descriptor of a carnivore species. See Espece.
+ */
+
+public final class EspeceCarnivore extends Espece {
+
+    // Attributes
+    private final double debrouillardise;  // Determines the chance of having one or multiple meals during a cycle.
+    private final Set<String> aliments;    // Species of herbivores this carnivore can eat.
+    private final int[] identifiantsAliments;  // Identifiers of aliments, in the same order.
+
+
+    // Constructor
+    // The diet keeps the iteration order of aliments; draws depend on it.
+    public EspeceCarnivore(String nom, double besoinEnergie, double efficaciteEnergie, double resilience,
+                           double fertilite, int ageFertilite, double energieEnfant, double tailleMaximum,
+                           double debrouillardise, Set<String> aliments) {
+        super(nom, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite, energieEnfant,
+                tailleMaximum);
+        this.debrouillardise = debrouillardise;
+        this.aliments = Collections.unmodifiableSet(new LinkedHashSet<>(aliments));
+        this.identifiantsAliments = RegistreEspeces.identifiants(this.aliments);
+    }
+
+
+    // Getters
+    public double getDebrouillardise() {
+        return debrouillardise;
+    }
+
+    public Set<String> getAliments() {
+        return aliments;
+    }
+
+    // Identifiers of the species in the diet, in the iteration order of getAliments. Must not be modified.
+    int[] getIdentifiantsAliments() {
+        return identifiantsAliments;
+    }
+}
@@ -0,0 +1,57 @@
+package com.IFT.SimLac;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Descriptor of an herbivore species. See Espece.
+ */
+
+public final class EspeceHerbivore extends Espece {
+
+    // Attributes
+    private final double debrouillardise;  // Determines the chance of having one or multiple meals during a cycle.
+    private final double voraciteMin;      // The minimum ratio of a plant an herbivore eats in one meal.
+    private final double voraciteMax;      // The maximum ratio of a plant an herbivore eats in one meal.
+    private final Set<String> aliments;    // Species of plants this herbivore can eat.
+    private final int[] identifiantsAliments;  // Identifiers of aliments, in the same order.
+
+
+    // Constructor
+    // The diet keeps the iteration order of aliments; draws depend on it.
+    public EspeceHerbivore(String nom, double besoinEnergie, double efficaciteEnergie, double resilience,
+                           double fertilite, int ageFertilite, double energieEnfant, double tailleMaximum,
+                           double debrouillardise, double voraciteMin, double voraciteMax, Set<String> aliments) {
+        super(nom, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite, energieEnfant,
+                tailleMaximum);
+        this.debrouillardise = debrouillardise;
+        this.voraciteMin = voraciteMin;
+        this.voraciteMax = voraciteMax;
+        this.aliments = Collections.unmodifiableSet(new LinkedHashSet<>(aliments));
+        this.identifiantsAliments = RegistreEspeces.identifiants(this.aliments);
+    }
+
+
+    // Getters
+    public double getDebrouillardise() {
+        return debrouillardise;
+    }
+
+    public double getVoraciteMin() {
+        return voraciteMin;
+    }
+
+    public double getVoraciteMax() {
+        return voraciteMax;
+    }
+
+    public Set<String> getAliments() {
+        return aliments;
+    }
+
+    // Identifiers of the species in the diet, in the iteration order of getAliments. Must not be modified.
+    int[] getIdentifiantsAliments() {
+        return identifiantsAliments;
+    }
+}
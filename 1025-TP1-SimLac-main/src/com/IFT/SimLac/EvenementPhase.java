@@ -0,0 +1,62 @@
+package com.IFT.SimLac;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering one phase of a cycle of a Lac. Its duration is the duration of the phase;
+ * it also carries the cycle and the size of each population when the phase ended.
+ *
+ * Events are only recorded while a recording with this event enabled is running, e.g. with
+ *     java -XX:StartFlightRecording:filename=simlac.jfr ...
+ * Otherwise, creating and committing one costs next to nothing, see Lac.tick.
+ */
+
+@Name("com.IFT.SimLac.Phase")
+@Label("Phase d'un cycle")
+@Category({"SimLac"})
+@Description("Une phase d'un cycle du lac")
+@StackTrace(false)
+public final class EvenementPhase extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Cycle")
+    long cycle;
+
+    @Label("Plantes")
+    int plantes;
+
+    @Label("Herbivores")
+    int herbivores;
+
+    @Label("Carnivores")
+    int carnivores;
+
+
+    // Starts the event of a phase, which the engine ends with terminer once the phase is over.
+    static EvenementPhase debuter() {
+        var evenement = new EvenementPhase();
+        evenement.begin();
+        return evenement;
+    }
+
+    // Ends the phase of the given name during cycle, with the size of each population at that point. The event is
+    // only filled and committed if a recording asks for it.
+    void terminer(String nom, long cycle, int plantes, int herbivores, int carnivores) {
+        end();
+        if (shouldCommit()) {
+            this.phase = nom;
+            this.cycle = cycle;
+            this.plantes = plantes;
+            this.herbivores = herbivores;
+            this.carnivores = carnivores;
+            commit();
+        }
+    }
+}
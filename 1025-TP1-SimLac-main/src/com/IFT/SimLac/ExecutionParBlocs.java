@@ -0,0 +1,75 @@
+package com.IFT.SimLac;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class splits a range of indices into fixed-size blocks and processes them, in parallel when a ForkJoinPool is
+ * given, or in order otherwise.
+ *
+ * Blocks don't depend on the number of threads: their boundaries only depend on the size of the range. As long as
+ * each block writes its results to its own slot, the outcome is the same whether blocks run in parallel or not.
+ */
+
+public final class ExecutionParBlocs {
+
+    public static final int TAILLE_BLOC = 1024;  // Number of indices per block.
+
+    // Work done on one block: indices from debut (inclusive) to fin (exclusive).
+    @FunctionalInterface
+    public interface ActionBloc {
+        void executer(int bloc, int debut, int fin);
+    }
+
+    private ExecutionParBlocs() {}
+
+
+    // Returns the number of blocks needed to cover taille indices.
+    public static int nombreBlocs(int taille) {
+        return (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+    }
+
+    // Runs action on every block of [0, taille). When pool is null, blocks are processed in order by the caller.
+    public static void pourChaqueBloc(ForkJoinPool pool, int taille, ActionBloc action) {
+        int nombreBlocs = nombreBlocs(taille);
+        if (pool == null || nombreBlocs <= 1) {
+            for (int bloc = 0; bloc < nombreBlocs; bloc++)
+                executerBloc(action, bloc, taille);
+        } else
+            pool.invoke(new TacheBlocs(action, taille, 0, nombreBlocs));
+    }
+
+
+    private static void executerBloc(ActionBloc action, int bloc, int taille) {
+        int debut = bloc * TAILLE_BLOC;
+        action.executer(bloc, debut, Math.min(debut + TAILLE_BLOC, taille));
+    }
+
+    // Splits the blocks in halves until only one is left.
+    private static final class TacheBlocs extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ActionBloc action;
+        private final int taille;
+        private final int premierBloc;
+        private final int finBlocs;
+
+        private TacheBlocs(ActionBloc action, int taille, int premierBloc, int finBlocs) {
+            this.action = action;
+            this.taille = taille;
+            this.premierBloc = premierBloc;
+            this.finBlocs = finBlocs;
+        }
+
+        @Override
+        protected void compute() {
+            if (finBlocs - premierBloc == 1) {
+                executerBloc(action, premierBloc, taille);
+                return;
+            }
+            int milieu = (premierBloc + finBlocs) >>> 1;
+            invokeAll(new TacheBlocs(action, taille, premierBloc, milieu),
+                      new TacheBlocs(action, taille, milieu, finBlocs));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.IFT.SimLac;
+
+/**
+ * This interface is the source of randomness of a Lac.
+ *
+ * A generator has no mutable state: a draw is fully determined by the key of the organism it concerns, the cycle,
+ * the purpose of the draw and its rank. Organisms can therefore be processed in any order, by any number of threads,
+ * and a simulation started with the same seed always gives the same result.
+ */
+
+public interface GenerateurAleatoire {
+
+    // Returns 64 random bits determined only by the arguments.
+    long bits(long cle, long cycle, Tirages.Usage usage, int rang);
+
+    // Returns the seed from which this generator was built.
+    long getGraine();
+
+
+    // Returns a uniform value in [0, 1) determined only by the arguments.
+    default double uniforme(long cle, long cycle, Tirages.Usage usage, int rang) {
+        return (bits(cle, cycle, usage, rang) >>> 11) * 0x1.0p-53;
+    }
+}
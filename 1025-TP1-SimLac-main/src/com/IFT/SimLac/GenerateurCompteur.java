@@ -0,0 +1,70 @@
+package com.IFT.SimLac;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counter-based implementation of GenerateurAleatoire.
+ *
+ * Each draw hashes the seed, the organism's key, the cycle, the purpose and the rank of the draw through the SplitMix64
+ * finalizer. Nothing is shared nor updated between draws, so there is no contention when organisms are processed
+ * concurrently.
+ *
+ * Only the key changes from one organism to the next, so a batch of draws for the same cycle and purpose computes the
+ * other parts of the hash once. See NoyauPlantesVectoriel.
+ */
+
+public final class GenerateurCompteur implements GenerateurAleatoire {
+
+    static final long GAMMA = 0x9e3779b97f4a7c15L;  // Golden ratio increment used by SplitMix64.
+
+    private final long graine;
+    private final long graineMelangee;  // First step of every draw.
+
+
+    // Constructor
+    public GenerateurCompteur(long graine) {
+        this.graine = graine;
+        this.graineMelangee = melanger(graine + GAMMA);
+    }
+
+    // Returns a generator built from an arbitrary seed. Used when no seed is specified.
+    public static GenerateurCompteur sansGraine() {
+        return new GenerateurCompteur(ThreadLocalRandom.current().nextLong());
+    }
+
+
+    @Override
+    public long bits(long cle, long cycle, Tirages.Usage usage, int rang) {
+        long h = melanger(graineMelangee ^ melanger(cle + GAMMA));
+        h = melanger(h ^ melangerCycle(cycle));
+        return melanger(h ^ melangerUsage(usage, rang));
+    }
+
+    @Override
+    public long getGraine() {
+        return graine;
+    }
+
+
+    // Part of a draw that only depends on the seed.
+    long getGraineMelangee() {
+        return graineMelangee;
+    }
+
+    // Part of a draw that only depends on the cycle.
+    static long melangerCycle(long cycle) {
+        return melanger(cycle + 2 * GAMMA);
+    }
+
+    // Part of a draw that only depends on the purpose and the rank.
+    static long melangerUsage(Tirages.Usage usage, int rang) {
+        return melanger(((long) usage.ordinal() << 32 | (rang & 0xffffffffL)) + 3 * GAMMA);
+    }
+
+    // SplitMix64 finalizer: a bijection that spreads every input bit over the whole output.
+    static long melanger(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
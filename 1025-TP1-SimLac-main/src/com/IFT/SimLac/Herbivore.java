@@ -1,6 +1,5 @@
 package com.IFT.SimLac;
 
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -14,65 +13,58 @@ import java.util.Set;
 
 public final class Herbivore extends Organisme{
 
-    // Attributes
-    private final double debrouillardise;  // Determines the chance of having one or multiple meals during a cycle.
-    private final double voraciteMin;      // The minimum ratio of a plant an herbivore eats in one meal.
-    private final double voraciteMax;      // The maximum ratio of a plant an herbivore eats in one meal.
-    private final Set<String> aliments;    // Set of Plante objects that can be eaten by this herbivore.
-
+    // Parameters are held by the species descriptor, see EspeceHerbivore.
 
     // Constructor
-    public Herbivore(String nomEspece, double energie, int age, double besoinEnergie, double efficaciteEnergie,
-                     double resilience, double fertilite, int ageFertilite, double energieEnfant,
-                     double debrouillardise, double voraciteMin, double voraciteMax, Set<String> aliments,
-                     double tailleMaximum) {
-
-        super(nomEspece, energie, age, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
-                energieEnfant, tailleMaximum);
-
-        this.debrouillardise = debrouillardise;
-        this.voraciteMin = voraciteMin;
-        this.voraciteMax = voraciteMax;
-        this.aliments = aliments;
-        this.tailleMaximum = tailleMaximum;
+    public Herbivore(EspeceHerbivore espece, double energie, int age) {
+        super(espece, energie, age);
+    }
+
+    private Herbivore(Herbivore autre) {
+        super(autre);
+    }
+
+    @Override
+    public Herbivore copier() {
+        return new Herbivore(this);
     }
 
     @Override
     public Herbivore seReproduire(){
-        return new Herbivore(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience,
-                fertilite, ageFertilite, energieEnfant, debrouillardise, voraciteMin, voraciteMax, aliments,
-                tailleMaximum);
+        return new Herbivore(getEspece(), espece.getEnergieEnfant(), 0);
     }
 
 
     // Returns the number of times this herbivore feeds.
     // If the project gets any larger, consider putting this method into an Animal abstract class.
-    public int nombreRepas(){
-        int nombrePlantes = 0;
+    // Rolls are made until one is greater than debrouillardise; the count is drawn at once, see Lois.geometrique.
+    public int nombreRepas(Tirages tirages) {
+        return Lois.geometrique(tirages.suivant(), getEspece().getDebrouillardise());
+    }
 
-        double roll = Math.random();
-        while (roll <= debrouillardise) {
-            nombrePlantes++;
-            roll = Math.random();
-        }
-        return nombrePlantes;
+
+    // Puts in fractions, from debut, the fraction of its energy each of the next nombreRepas plants eaten will loose.
+    public void fractionsMangees(int nombreRepas, Tirages tirages, double[] fractions, int debut) {
+        double voraciteMin = getEspece().getVoraciteMin();
+        double range = getEspece().getVoraciteMax() - voraciteMin;
+        for (int i = debut; i < debut + nombreRepas; i++)
+            fractions[i] = voraciteMin + tirages.suivant() * range;
     }
 
 
-    // Updates the energetic budget of this herbivore.
-    public void bilanEnergetique(List<Plante> plantesMangees) {
+    // Updates the energetic budget of this herbivore, from the nombre meals of plantesMangees starting at debut.
+    // fractionsMangees[i] is the fraction of plantesMangees[i] eaten. See fractionsMangees.
+    public void bilanEnergetique(Plante[] plantesMangees, double[] fractionsMangees, int debut, int nombre) {
         double energieRecue = 0;
 
-        for (var planteMangee : plantesMangees) {
-            double range = voraciteMax - voraciteMin;
-            double fractionEnergieMangee = voraciteMin + Math.random() * range;
-
-            double energieMangee = planteMangee.getEnergie() * fractionEnergieMangee;
+        for (int i = debut; i < debut + nombre; i++) {
+            var planteMangee = plantesMangees[i];
+            double energieMangee = planteMangee.getEnergie() * fractionsMangees[i];
 
             energieRecue += energieMangee;
             planteMangee.estMange(energieMangee);
         }
-        budgetEnergetique = energieRecue - besoinEnergie;
+        budgetEnergetique = energieRecue - espece.getBesoinEnergie();
     }
 
 
@@ -82,7 +74,24 @@ public final class Herbivore extends Organisme{
     }
 
     // Getters
+    @Override
+    public EspeceHerbivore getEspece() {
+        return (EspeceHerbivore) espece;
+    }
+
+    public double getDebrouillardise() {
+        return getEspece().getDebrouillardise();
+    }
+
+    public double getVoraciteMin() {
+        return getEspece().getVoraciteMin();
+    }
+
+    public double getVoraciteMax() {
+        return getEspece().getVoraciteMax();
+    }
+
     public Set<String> getAliments() {
-        return Set.copyOf(aliments);
+        return getEspece().getAliments();
     }
 }
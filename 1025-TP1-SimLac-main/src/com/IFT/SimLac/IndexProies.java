@@ -0,0 +1,192 @@
+package com.IFT.SimLac;
+
+import java.util.List;
+
+/**
+ * This class indexes the herbivores of one species by energy so that carnivores can pick their prey quickly.
+ * It is built at the start of the carnivores' turn, once the herbivores' energy is known for the cycle.
+ *
+ * Prey are sorted by increasing energy. A Fenwick tree keeps track of the prey still available, so that counting the
+ * prey weaker than a carnivore, finding the k-th of them and removing it once eaten are all done in O(log n).
+ * The index only keeps the position of each prey in the list it was built from, so that eaten prey can be marked dead
+ * in their Population without being looked for.
+ *
+ * An entry of the index may also stand for several identical prey, like a row of PopulationCohortes: it is then
+ * counted that many times, and removed one prey at a time.
+ *
+ * An index can be rebuilt for another cycle with indexer. Its arrays are kept and only grow, so once the number of
+ * prey is stable, indexing allocates nothing.
+ */
+
+public final class IndexProies {
+
+    private static final int TAILLE_SERIE = 32;  // Prey sorted by insertion before being merged. See trier.
+
+    private int[] proies = new int[0];              // Positions of the prey, sorted by increasing energy.
+    private double[] energies = new double[0];      // energies[i] is the energy of the prey proies[i].
+    private int[] arbre = new int[1];               // Fenwick tree (1-indexed) counting the prey not eaten yet.
+    private int[] tamponProies = new int[0];        // Room for merging, see trier.
+    private double[] tamponEnergies = new double[0];
+    private int taille = 0;                         // Number of prey, eaten or not.
+
+
+    // Constructors
+    // An empty index, to be filled by indexer.
+    public IndexProies() {}
+
+    public IndexProies(List<Herbivore> herbivores) {
+        indexer(herbivores);
+    }
+
+
+    // Replaces the prey of this index with herbivores, all available.
+    public void indexer(List<Herbivore> herbivores) {
+        reserver(herbivores.size());
+        for (int i = 0; i < taille; i++) {
+            proies[i] = i;
+            energies[i] = herbivores.get(i).getEnergie();
+        }
+        construire(null);
+    }
+
+    // Replaces the prey of this index with the first nombre prey of energiesProies, all available. The prey at
+    // position i has the energy energiesProies[i]. Used by LacColonnes, whose herbivores are columns.
+    public void indexer(double[] energiesProies, int nombre) {
+        indexer(energiesProies, null, nombre);
+    }
+
+    // Same as indexer(double[], int), but the position i stands for effectifs[i] prey of the energy
+    // energiesProies[i]. retirer then returns the position of each prey removed. Used by LacCohortes.
+    public void indexer(double[] energiesProies, int[] effectifs, int nombre) {
+        reserver(nombre);
+        for (int i = 0; i < taille; i++) {
+            proies[i] = i;
+            energies[i] = energiesProies[i];
+        }
+        construire(effectifs);
+    }
+
+    // Sets the number of prey, growing the arrays if needed.
+    private void reserver(int nombre) {
+        taille = nombre;
+        if (proies.length < taille) {
+            int capacite = taille + (taille >> 3);
+            proies = new int[capacite];
+            energies = new double[capacite];
+            arbre = new int[capacite + 1];
+            tamponProies = new int[capacite];
+            tamponEnergies = new double[capacite];
+        }
+    }
+
+    // Sorts the prey and makes them all available. Each position counts once, or effectifs[position] times.
+    private void construire(int[] effectifs) {
+        trier();
+
+        // Every prey is available. Builds the tree in O(n) by pushing each node into its parent.
+        for (int i = 1; i <= taille; i++)
+            arbre[i] = 0;
+        for (int i = 1; i <= taille; i++) {
+            arbre[i] += effectifs == null ? 1 : effectifs[proies[i - 1]];
+            int parent = i + (i & -i);
+            if (parent <= taille)
+                arbre[parent] += arbre[i];
+        }
+    }
+
+
+    // Returns the number of prey not eaten yet whose energy is lesser or equal to energieMax.
+    public int compter(double energieMax) {
+        int nombre = 0;
+        for (int i = rangMaximum(energieMax); i > 0; i -= i & -i)
+            nombre += arbre[i];
+        return nombre;
+    }
+
+    // Removes the rang-th prey (starting at 0) among the prey not eaten yet, ordered by energy, and returns its
+    // position in the list the index was built from.
+    // rang must be smaller than compter(energieMax) for the prey to be weaker than energieMax.
+    public int retirer(int rang) {
+        int position = 0;
+        for (int pas = Integer.highestOneBit(taille); pas > 0; pas >>= 1) {
+            int suivant = position + pas;
+            if (suivant <= taille && arbre[suivant] <= rang) {
+                position = suivant;
+                rang -= arbre[suivant];
+            }
+        }
+        if (position >= taille)
+            throw new IndexOutOfBoundsException(rang);
+
+        for (int i = position + 1; i <= taille; i += i & -i)
+            arbre[i]--;
+        return proies[position];
+    }
+
+
+    // Returns the number of prey (eaten or not) whose energy is lesser or equal to energieMax.
+    private int rangMaximum(double energieMax) {
+        int debut = 0;
+        int fin = taille;
+        while (debut < fin) {
+            int milieu = (debut + fin) >>> 1;
+            if (energies[milieu] <= energieMax)
+                debut = milieu + 1;
+            else
+                fin = milieu;
+        }
+        return debut;
+    }
+
+    // Sorts the prey by energy. The sort is stable, like Arrays.sort on objects, so prey of equal energy keep the
+    // order of the population and draws don't change. Short series are sorted by insertion, then merged pairwise
+    // through the buffers, which are swapped with the arrays instead of being copied back.
+    private void trier() {
+        for (int debut = 0; debut < taille; debut += TAILLE_SERIE)
+            trierParInsertion(debut, Math.min(debut + TAILLE_SERIE, taille));
+
+        for (int largeur = TAILLE_SERIE; largeur < taille; largeur *= 2) {
+            for (int debut = 0; debut < taille; debut += 2 * largeur) {
+                int milieu = Math.min(debut + largeur, taille);
+                fusionner(debut, milieu, Math.min(debut + 2 * largeur, taille));
+            }
+
+            var proiesTriees = tamponProies;
+            tamponProies = proies;
+            proies = proiesTriees;
+            var energiesTriees = tamponEnergies;
+            tamponEnergies = energies;
+            energies = energiesTriees;
+        }
+    }
+
+    private void trierParInsertion(int debut, int fin) {
+        for (int i = debut + 1; i < fin; i++) {
+            int proie = proies[i];
+            double energie = energies[i];
+            int j = i - 1;
+            while (j >= debut && Double.compare(energies[j], energie) > 0) {
+                proies[j + 1] = proies[j];
+                energies[j + 1] = energies[j];
+                j--;
+            }
+            proies[j + 1] = proie;
+            energies[j + 1] = energie;
+        }
+    }
+
+    // Merges the sorted series [debut, milieu) and [milieu, fin) of the arrays into the buffers.
+    private void fusionner(int debut, int milieu, int fin) {
+        int gauche = debut;
+        int droite = milieu;
+        for (int i = debut; i < fin; i++) {
+            if (droite >= fin || gauche < milieu && Double.compare(energies[gauche], energies[droite]) <= 0) {
+                tamponProies[i] = proies[gauche];
+                tamponEnergies[i] = energies[gauche++];
+            } else {
+                tamponProies[i] = proies[droite];
+                tamponEnergies[i] = energies[droite++];
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.IFT.SimLac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class saves the whole state of a Lac to a binary snapshot file, and restores a Lac from it.
+ *
+ * A restored lake goes on exactly like the original would have: it has the same seed, the same cycle, and every
+ * organism with its key, energy, age and state, in the same order. Files are written and read through a buffer of
+ * TAILLE_TAMPON bytes, whatever the size of the lake, with no parsing: restoring is mostly a copy of fixed-size
+ * records. The file is never mapped in memory: on Windows, a mapped file can't be replaced until the mapping is garbage
+ * collected, which would make the next save fail.
+ *
+ * Organisms of a species share their parameters through a species descriptor (see Espece). Each descriptor is stored
+ * once as a profile, and each organism record only refers to its profile. The layout is (big-endian):
+ *     header:   magic, version, seed, cycle, solar energy, number of profiles, number of organisms per category
+ *     profiles: category, species name, parameters, diet
+ *     records:  profile, key, energy, budget, age, dead flag; plants first, then herbivores and carnivores
+ */
+
+public final class Instantane {
+
+    private static final int MAGIC = 0x534c4143;  // "SLAC"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = 4 + 4 + 8 + 8 + 4 + 4 + 3 * 4;
+    private static final int TAILLE_ENREGISTREMENT = 4 + 8 + 8 + 8 + 4 + 1;
+    private static final int TAILLE_TAMPON = 1 << 20;  // Bytes written or read at once.
+
+    private static final byte PLANTE = 0;
+    private static final byte HERBIVORE = 1;
+    private static final byte CARNIVORE = 2;
+
+    private Instantane() {}
+
+
+    // Writes the state of lac to fichier. The file is written next to its destination, then moved over it, so a crash
+    // while saving leaves the previous snapshot intact.
+    public static void ecrire(Lac lac, Path fichier) throws IOException {
+        var profils = new IdentityHashMap<Espece, Integer>();
+        var descriptions = new ArrayList<byte[]>();
+        var plantes = indexer(lac.getPlantes(), profils, descriptions);
+        var herbivores = indexer(lac.getHerbivores(), profils, descriptions);
+        var carnivores = indexer(lac.getCarnivores(), profils, descriptions);
+
+        var temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (var canal = FileChannel.open(temporaire, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var ecriture = new Ecriture(canal);
+
+            var tampon = ecriture.reserver(TAILLE_ENTETE);
+            tampon.putInt(MAGIC);
+            tampon.putInt(VERSION);
+            tampon.putLong(lac.getGenerateur().getGraine());
+            tampon.putLong(lac.getCycle());
+            tampon.putInt(lac.getEnergieSolaire());
+            tampon.putInt(descriptions.size());
+            tampon.putInt(lac.getPlantes().getTaille());
+            tampon.putInt(lac.getHerbivores().getTaille());
+            tampon.putInt(lac.getCarnivores().getTaille());
+
+            for (var description : descriptions)
+                ecriture.ecrire(description);
+
+            ecrireEnregistrements(ecriture, lac.getPlantes(), plantes, lac.getCycle());
+            ecrireEnregistrements(ecriture, lac.getHerbivores(), herbivores, lac.getCycle());
+            ecrireEnregistrements(ecriture, lac.getCarnivores(), carnivores, lac.getCycle());
+
+            ecriture.vider();
+            canal.force(true);
+        }
+        deplacer(temporaire, fichier);
+    }
+
+    // Moves source over destination, atomically when the file system allows it.
+    private static void deplacer(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Restores the lake saved in fichier. It draws its random values from a generator with the saved seed.
+    public static Lac lire(Path fichier) throws IOException {
+        try (var canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            var lecture = new Lecture(canal, fichier);
+            if (canal.size() < TAILLE_ENTETE)
+                throw new IOException(fichier + " is not a snapshot of a lake");
+            var tampon = lecture.exiger(TAILLE_ENTETE);
+            if (tampon.getInt() != MAGIC)
+                throw new IOException(fichier + " is not a snapshot of a lake");
+            int version = tampon.getInt();
+            if (version != VERSION)
+                throw new IOException("unsupported snapshot version " + version);
+
+            long graine = tampon.getLong();
+            long cycle = tampon.getLong();
+            int energieSolaire = tampon.getInt();
+            int nombreProfils = tampon.getInt();
+            int nombrePlantes = tampon.getInt();
+            int nombreHerbivores = tampon.getInt();
+            int nombreCarnivores = tampon.getInt();
+
+            var especes = new Espece[nombreProfils];
+            for (int i = 0; i < nombreProfils; i++)
+                especes[i] = lireProfil(lecture);
+
+            var plantes = lireEnregistrements(lecture, nombrePlantes, especes, Plante.class, cycle);
+            var herbivores = lireEnregistrements(lecture, nombreHerbivores, especes, Herbivore.class, cycle);
+            var carnivores = lireEnregistrements(lecture, nombreCarnivores, especes, Carnivore.class, cycle);
+
+            return new Lac(energieSolaire, plantes, herbivores, carnivores, new GenerateurCompteur(graine), cycle);
+        } catch (RuntimeException e) {
+            // A truncated or corrupted file shows up as an underflow or an invalid parameter.
+            throw new IOException(fichier + " is not a valid snapshot of a lake", e);
+        }
+    }
+
+
+    // Gives each organism of population the index of its profile, describing new species as they are met.
+    private static int[] indexer(Population<? extends Organisme> population, Map<Espece, Integer> profils,
+                                 List<byte[]> descriptions) {
+        var indices = new int[population.getTaille()];
+        int i = 0;
+        for (var organisme : population) {
+            var espece = organisme.getEspece();
+            var index = profils.get(espece);
+            if (index == null) {
+                index = descriptions.size();
+                profils.put(espece, index);
+                descriptions.add(decrire(espece));
+            }
+            indices[i++] = index;
+        }
+        return indices;
+    }
+
+    private static byte[] decrire(Espece espece) {
+        var nom = espece.getNom().getBytes(StandardCharsets.UTF_8);
+        var aliments = new ArrayList<byte[]>();
+        if (espece instanceof EspeceHerbivore herbivore)
+            herbivore.getAliments().forEach(aliment -> aliments.add(aliment.getBytes(StandardCharsets.UTF_8)));
+        else if (espece instanceof EspeceCarnivore carnivore)
+            carnivore.getAliments().forEach(aliment -> aliments.add(aliment.getBytes(StandardCharsets.UTF_8)));
+
+        int taille = 1 + 4 + nom.length + 6 * 8 + 4 + 3 * 8 + 4;
+        for (var aliment : aliments)
+            taille += 4 + aliment.length;
+
+        var tampon = ByteBuffer.allocate(taille);
+        tampon.put(espece instanceof EspeceHerbivore ? HERBIVORE
+                : espece instanceof EspeceCarnivore ? CARNIVORE : PLANTE);
+        tampon.putInt(nom.length).put(nom);
+        tampon.putDouble(espece.getBesoinEnergie());
+        tampon.putDouble(espece.getEfficaciteEnergie());
+        tampon.putDouble(espece.getResilience());
+        tampon.putDouble(espece.getFertilite());
+        tampon.putInt(espece.getAgeFertilite());
+        tampon.putDouble(espece.getEnergieEnfant());
+        tampon.putDouble(espece.getTailleMaximum());
+
+        // Parameters of animals. Unused for plants.
+        if (espece instanceof EspeceHerbivore herbivore) {
+            tampon.putDouble(herbivore.getDebrouillardise());
+            tampon.putDouble(herbivore.getVoraciteMin());
+            tampon.putDouble(herbivore.getVoraciteMax());
+        } else if (espece instanceof EspeceCarnivore carnivore) {
+            tampon.putDouble(carnivore.getDebrouillardise()).putDouble(0).putDouble(0);
+        } else {
+            tampon.putDouble(0).putDouble(0).putDouble(0);
+        }
+
+        tampon.putInt(aliments.size());
+        for (var aliment : aliments)
+            tampon.putInt(aliment.length).put(aliment);
+        return tampon.array();
+    }
+
+    // Reads a profile and returns its species descriptor, shared by the individuals of that profile.
+    private static Espece lireProfil(Lecture lecture) throws IOException {
+        byte categorie = lecture.exiger(1).get();
+        var nomEspece = lireTexte(lecture);
+        var tampon = lecture.exiger(6 * 8 + 4 + 3 * 8 + 4);
+        double besoinEnergie = tampon.getDouble();
+        double efficaciteEnergie = tampon.getDouble();
+        double resilience = tampon.getDouble();
+        double fertilite = tampon.getDouble();
+        int ageFertilite = tampon.getInt();
+        double energieEnfant = tampon.getDouble();
+        double tailleMaximum = tampon.getDouble();
+        double debrouillardise = tampon.getDouble();
+        double voraciteMin = tampon.getDouble();
+        double voraciteMax = tampon.getDouble();
+
+        int nombreAliments = tampon.getInt();
+        Set<String> aliments = new LinkedHashSet<>();
+        for (int i = 0; i < nombreAliments; i++)
+            aliments.add(lireTexte(lecture));
+
+        return switch (categorie) {
+            case PLANTE -> new Espece(nomEspece, besoinEnergie, efficaciteEnergie, resilience, fertilite,
+                    ageFertilite, energieEnfant, tailleMaximum);
+            case HERBIVORE -> new EspeceHerbivore(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
+                    fertilite, ageFertilite, energieEnfant, tailleMaximum, debrouillardise, voraciteMin, voraciteMax,
+                    aliments);
+            case CARNIVORE -> new EspeceCarnivore(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
+                    fertilite, ageFertilite, energieEnfant, tailleMaximum, debrouillardise, aliments);
+            default -> throw new IOException("unknown category of organism " + categorie);
+        };
+    }
+
+    private static String lireTexte(Lecture lecture) throws IOException {
+        int longueur = lecture.exiger(4).getInt();
+        if (longueur < 0 || longueur > lecture.canal.size())
+            throw new IOException("a text is longer than the snapshot");
+        var octets = new byte[longueur];
+        lecture.lire(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // Ages are written as they are during cycle, the next cycle to simulate.
+    private static void ecrireEnregistrements(Ecriture ecriture, Population<? extends Organisme> population,
+                                              int[] profils, long cycle) throws IOException {
+        int i = 0;
+        for (var organisme : population) {
+            var tampon = ecriture.reserver(TAILLE_ENREGISTREMENT);
+            tampon.putInt(profils[i++]);
+            tampon.putLong(organisme.getCle());
+            tampon.putDouble(organisme.getEnergie());
+            tampon.putDouble(organisme.getBudgetEnergetique());
+            tampon.putInt(organisme.getAge(cycle));
+            tampon.put((byte) (organisme.isDead() ? 1 : 0));
+        }
+    }
+
+    // Builds nombre organisms of class type from their records, with the species of their profile and the state of
+    // the record.
+    private static <T extends Organisme> List<T> lireEnregistrements(Lecture lecture, int nombre,
+                                                                     Espece[] especes, Class<T> type, long cycle)
+            throws IOException {
+        var organismes = new ArrayList<T>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            var tampon = lecture.exiger(TAILLE_ENREGISTREMENT);
+            var espece = especes[tampon.getInt()];
+            long cle = tampon.getLong();
+            double energie = tampon.getDouble();
+            double budgetEnergetique = tampon.getDouble();
+            int age = tampon.getInt();
+            boolean dead = tampon.get() != 0;
+
+            Organisme organisme;
+            if (espece instanceof EspeceHerbivore herbivore)
+                organisme = new Herbivore(herbivore, energie, age);
+            else if (espece instanceof EspeceCarnivore carnivore)
+                organisme = new Carnivore(carnivore, energie, age);
+            else
+                organisme = new Plante(espece, energie, age);
+            if (!type.isInstance(organisme))
+                throw new IOException("a record refers to a profile of the wrong category");
+
+            organisme.setCle(cle);
+            organisme.setNaissance(cycle - age);
+            organisme.setBudgetEnergetique(budgetEnergetique);
+            organisme.setDead(dead);
+            organismes.add(type.cast(organisme));
+        }
+        return organismes;
+    }
+
+
+    // Writes a snapshot to canal through a buffer of TAILLE_TAMPON bytes, which is written whenever it is full.
+    private static final class Ecriture {
+        private final FileChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+
+        private Ecriture(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        // Returns the buffer, with room for at least octets bytes. octets must not exceed TAILLE_TAMPON.
+        private ByteBuffer reserver(int octets) throws IOException {
+            if (tampon.remaining() < octets)
+                vider();
+            return tampon;
+        }
+
+        // Writes octets, whatever their size.
+        private void ecrire(byte[] octets) throws IOException {
+            for (int debut = 0; debut < octets.length; ) {
+                int nombre = Math.min(reserver(1).remaining(), octets.length - debut);
+                tampon.put(octets, debut, nombre);
+                debut += nombre;
+            }
+        }
+
+        // Writes what the buffer holds to canal, and empties it.
+        private void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining())
+                canal.write(tampon);
+            tampon.clear();
+        }
+    }
+
+    // Reads a snapshot from canal through a buffer of TAILLE_TAMPON bytes, which is refilled whenever the next values
+    // go past its end.
+    private static final class Lecture {
+        private final FileChannel canal;
+        private final Path fichier;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).flip();
+
+        private Lecture(FileChannel canal, Path fichier) {
+            this.canal = canal;
+            this.fichier = fichier;
+        }
+
+        // Returns the buffer, with at least the next octets bytes of the file left to read. octets must not exceed
+        // TAILLE_TAMPON.
+        private ByteBuffer exiger(int octets) throws IOException {
+            if (tampon.remaining() < octets) {
+                tampon.compact();
+                while (tampon.position() < octets) {
+                    if (canal.read(tampon) < 0)
+                        throw new IOException(fichier + " was truncated while being read");
+                }
+                tampon.flip();
+            }
+            return tampon;
+        }
+
+        // Reads the next octets.length bytes of the file into octets, whatever their size.
+        private void lire(byte[] octets) throws IOException {
+            for (int debut = 0; debut < octets.length; ) {
+                int nombre = Math.min(exiger(1).remaining(), octets.length - debut);
+                tampon.get(octets, debut, nombre);
+                debut += nombre;
+            }
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.IFT.SimLac;
 
-import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.summarizingDouble;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Authors : Mathieu Morin & Adrian Sanchez Roy; from template by Simon Génier
@@ -19,194 +22,699 @@ import static java.util.stream.Collectors.summarizingDouble;
  * Each tick, the order in which the different categories of organisms take their turn should follow the flow of energy.
  * This flow pushes upwards the food chain :
  *     Sun (new energy injected) -> Plantes -> Herbivores -> Carnivores
+ *
+ * The lists and arrays a tick works with are kept from one tick to the next and only grow. With recycling on (see
+ * setRecyclage), dead organisms are reused for newborns too, so that once populations are stable a tick allocates
+ * close to nothing.
  */
 
-public final class Lac {
+public final class Lac implements MoteurLac {
     private final int energieSolaire;  // New energy from the sun injected into the ecosystem
-    private final List<Plante> plantes;
-    private final List<Herbivore> herbivores;
-    private final List<Carnivore> carnivores;
+    private final Population<Plante> plantes;          // Organisms are partitioned by species. See Population.
+    private final Population<Herbivore> herbivores;
+    private final Population<Carnivore> carnivores;
+    private final OrdonnanceurEspeces ordonnanceurHerbivores;  // Groups of herbivores that don't share plants.
+    private final OrdonnanceurEspeces ordonnanceurCarnivores;  // Groups of carnivores that don't share prey.
+    private final GenerateurAleatoire generateur;     // Source of all random draws. See Tirages.
+    private long cycle = 0;                           // Number of cycles simulated so far.
+    private ForkJoinPool executeur = null;            // Runs the parallel phases. null means sequential.
+    private MesuresCycle mesures;                     // What happens to each species during the current cycle.
+                                                      // null when there is no observateur.
+    private Consumer<MesuresCycle> observateur = null; // Receives the measures at the end of each cycle.
+    private boolean recyclage = false;                // Whether dead organisms are reused for newborns.
+
+    // Buffers reused from one tick to the next. Each copy of a lake has its own.
+    private final ArrayList<Plante> tableauPlantes = new ArrayList<>();
+    private final ArrayList<Herbivore> tableauHerbivores = new ArrayList<>();
+    private int[] nombresRepas = new int[0];          // Number of plants eaten by each herbivore.
+    private int[] debutsRepas = new int[1];           // Where the meals of each herbivore start in the next arrays.
+    private Plante[] plantesMangees = new Plante[0];  // Plants eaten by the herbivores, one after the other.
+    private double[] fractionsMangees = new double[0];
+    private final List<Naissances> naissancesParBloc = new ArrayList<>();
+    private final List<Tirages> tiragesParBloc = new ArrayList<>();  // Draws handed out by each block.
+    private final List<Chasse> chasses = new ArrayList<>();  // Hunt of each group of carnivores.
+    // Count the dead removed from each population. Kept so that enleverMorts allocates nothing.
+    private final Population.CompteurMorts mortsPlantes = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.PLANTE, identifiant, nombre);
+    private final Population.CompteurMorts mortsHerbivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.HERBIVORE, identifiant, nombre);
+    private final Population.CompteurMorts mortsCarnivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.CARNIVORE, identifiant, nombre);
+    // What each group does in the herbivore and carnivore phases. Kept so that the phases allocate no lambda.
+    private final ObjIntConsumer<OrdonnanceurEspeces.Groupe> repasGroupe = this::mangerRepas;
+    private final ObjIntConsumer<OrdonnanceurEspeces.Groupe> chasseGroupe = this::chasser;
+
+
+    // Constructors
+    public Lac(int energieSolaire, List<Plante> plantes, List<Herbivore> herbivores, List<Carnivore> carnivores) {
+        this(energieSolaire, plantes, herbivores, carnivores, GenerateurCompteur.sansGraine());
+    }
 
+    public Lac(int energieSolaire, List<Plante> plantes, List<Herbivore> herbivores, List<Carnivore> carnivores,
+               GenerateurAleatoire generateur) {
+        this(energieSolaire, plantes, herbivores, carnivores, generateur, 0);
 
-    // Constructor
-    public Lac(int energieSolaire, List<Plante> plantes, List<Herbivore> herbivores, List<Carnivore> carnivores) {
+        // Initial organisms are numbered in the order they were read.
+        long cle = 0;
+        for (var plante : plantes)
+            plante.setCle(cle++);
+        for (var herbivore : herbivores)
+            herbivore.setCle(cle++);
+        for (var carnivore : carnivores)
+            carnivore.setCle(cle++);
+    }
+
+    // Builds a lake whose organisms already have their keys, as if cycle cycles had already been simulated.
+    // Used to restore a snapshot. See Instantane.
+    Lac(int energieSolaire, List<Plante> plantes, List<Herbivore> herbivores, List<Carnivore> carnivores,
+        GenerateurAleatoire generateur, long cycle) {
+        this(energieSolaire, new Population<>(plantes), new Population<>(herbivores), new Population<>(carnivores),
+                generateur, cycle);
+    }
+
+    // Builds a lake from populations already filled, whose organisms already have their keys. See Scenario.
+    Lac(int energieSolaire, Population<Plante> plantes, Population<Herbivore> herbivores,
+        Population<Carnivore> carnivores, GenerateurAleatoire generateur, long cycle) {
         this.energieSolaire = energieSolaire;
+        this.generateur = generateur;
+        this.cycle = cycle;
+
         this.plantes = plantes;
         this.herbivores = herbivores;
         this.carnivores = carnivores;
+
+        this.ordonnanceurHerbivores = new OrdonnanceurEspeces(regimes(this.herbivores, Herbivore::getAliments));
+        this.ordonnanceurCarnivores = new OrdonnanceurEspeces(regimes(this.carnivores, Carnivore::getAliments));
+    }
+
+    // Returns a factory that builds a lake from a scenario. See Scenario.creer.
+    public static Scenario.UsineMoteur<Lac> usine() {
+        var plantes = new Population<Plante>();
+        var herbivores = new Population<Herbivore>();
+        var carnivores = new Population<Carnivore>();
+        return new Scenario.UsineMoteur<>() {
+            @Override
+            public void ajouterGroupe(MesuresCycle.Categorie categorie, Espece espece, int quantite, long premiereCle) {
+                double energie = espece.getEnergieEnfant();
+                switch (categorie) {
+                    case PLANTE -> plantes.ajouterGroupe(quantite, () -> new Plante(espece, energie, 0), premiereCle);
+                    case HERBIVORE -> herbivores.ajouterGroupe(quantite,
+                            () -> new Herbivore((EspeceHerbivore) espece, energie, 0), premiereCle);
+                    case CARNIVORE -> carnivores.ajouterGroupe(quantite,
+                            () -> new Carnivore((EspeceCarnivore) espece, energie, 0), premiereCle);
+                }
+            }
+
+            @Override
+            public Lac creer(int energieSolaire, GenerateurAleatoire generateur) {
+                return new Lac(energieSolaire, plantes, herbivores, carnivores, generateur, 0);
+            }
+        };
+    }
+
+    // Copy constructor. Organisms are copied with their keys, so the copy goes on exactly like the original would
+    // with the same generator. The copy runs sequentially until an executor is set.
+    private Lac(Lac autre, GenerateurAleatoire generateur) {
+        this.energieSolaire = autre.energieSolaire;
+        this.plantes = new Population<>(copier(autre.plantes));
+        this.herbivores = new Population<>(copier(autre.herbivores));
+        this.carnivores = new Population<>(copier(autre.carnivores));
+        this.ordonnanceurHerbivores = new OrdonnanceurEspeces(autre.ordonnanceurHerbivores);
+        this.ordonnanceurCarnivores = new OrdonnanceurEspeces(autre.ordonnanceurCarnivores);
+        this.generateur = generateur;
+        this.cycle = autre.cycle;
+        setRecyclage(autre.recyclage);
+    }
+
+    // Returns an independent copy of this lake, which draws its random values from generateur.
+    public Lac copier(GenerateurAleatoire generateur) {
+        return new Lac(this, generateur);
+    }
+
+
+    // Sets the pool on which parallel phases run. With null, everything runs on the calling thread.
+    // Results don't depend on this choice.
+    @Override
+    public void setExecuteur(ForkJoinPool executeur) {
+        this.executeur = executeur;
+    }
+
+
+    // Turns the recycling of dead organisms on or off. Results don't depend on this choice. See Population.
+    public void setRecyclage(boolean recyclage) {
+        this.recyclage = recyclage;
+        plantes.setRecyclage(recyclage);
+        herbivores.setRecyclage(recyclage);
+        carnivores.setRecyclage(recyclage);
+    }
+
+
+    // Sets the observer that receives the measures of each cycle once it is over. null to stop observing.
+    // The observer is called on the simulation thread; it should hand the measures over rather than write them.
+    @Override
+    public void setObservateur(Consumer<MesuresCycle> observateur) {
+        this.observateur = observateur;
     }
 
 
     // Simulates one cycle
+    // Each organism is read once, by the phase of its category: that phase marks it if it dies (see
+    // Population.marquerMort), so removing the dead doesn't go through the organisms again. Nor does aging, since
+    // ages follow from the cycle (see Organisme).
+    // The phases are package-private so that the benchmarks (see bench/) can time them one by one. They must run
+    // in this order, between debuterCycle and terminerCycle.
+    // Each phase is a JFR event (see EvenementPhase). When no recording asks for it, the event does nothing and
+    // doesn't escape, so the JIT removes it.
+    @Override
     public void tick() {
+        debuterCycle();
+
+        var evenement = EvenementPhase.debuter();
         plantsLifeCycle();
+        terminerPhase(evenement, "plantes");
+
+        evenement = EvenementPhase.debuter();
         herbivoresLifeCycle();
+        terminerPhase(evenement, "herbivores");
+
+        evenement = EvenementPhase.debuter();
         carnivoreLifeCycle();
+        terminerPhase(evenement, "carnivores");
 
+        evenement = EvenementPhase.debuter();
         enleverMorts();
-        vieillissement();
+        terminerPhase(evenement, "enleverMorts");
+
+        terminerCycle();
+    }
+
+    private void terminerPhase(EvenementPhase evenement, String phase) {
+        evenement.terminer(phase, cycle, plantes.getTaille(), herbivores.getTaille(), carnivores.getTaille());
+    }
+
+    // The measures are only taken when someone receives them.
+    void debuterCycle() {
+        if (observateur == null)
+            return;
+        mesures = new MesuresCycle(cycle);
+        ajouterEspeces(MesuresCycle.Categorie.PLANTE, plantes);
+        ajouterEspeces(MesuresCycle.Categorie.HERBIVORE, herbivores);
+        ajouterEspeces(MesuresCycle.Categorie.CARNIVORE, carnivores);
+    }
+
+    private void ajouterEspeces(MesuresCycle.Categorie categorie, Population<?> population) {
+        for (var individus : population.getEspeces().values()) {
+            var espece = individus.get(0).getEspece();
+            mesures.ajouterEspece(categorie, espece.getIdentifiant(), espece.getNom());
+        }
+    }
+
+    void terminerCycle() {
+        cycle++;
+
+        if (observateur != null && mesures != null) {
+            mesurerPopulation(MesuresCycle.Categorie.PLANTE, plantes);
+            mesurerPopulation(MesuresCycle.Categorie.HERBIVORE, herbivores);
+            mesurerPopulation(MesuresCycle.Categorie.CARNIVORE, carnivores);
+            observateur.accept(mesures);
+        }
+        mesures = null;
     }
 
     // For each plant, calculates the energy input from the sun, then goes through its life cycle.
     // i.e. verifies if it survives, have children, grows or shrinks.
-    private void plantsLifeCycle() {
+    // Plants don't interact with each other once the total energy is known, so they are processed by blocks.
+    void plantsLifeCycle() {
+        var tableau = tableauPlantes;
+        plantes.lister(tableau);
         double energieTotaleDesPlantes = calculEnergieTotaleDesPlantes();
-        var enfants = new ArrayList<Plante>();
-
-        for (var plante : plantes) {
-            plante.bilanEnergetique(energieSolaire, energieTotaleDesPlantes);
-            plante.survivalCheck();
 
-            int nombreEnfants = plante.reproductionCheck();
-            for (int i = 0; i < nombreEnfants; i++)
-                enfants.add(plante.seReproduire());
+        parBlocs(MesuresCycle.Categorie.PLANTE, tableau, plantes, (i, naissances, tirages) -> {
+            var plante = tableau.get(i);
+            plantLifeCycle(plante, energieTotaleDesPlantes, naissances, tirages);
+            marquerSiMort(plantes, plante, i);
+        });
+    }
 
-            plante.croitreDecroitre();
-        }
-        plantes.addAll(enfants);
+    private void plantLifeCycle(Plante plante, double energieTotaleDesPlantes, Naissances naissances,
+                                Tirages tirages) {
+        plante.bilanEnergetique(energieSolaire, energieTotaleDesPlantes);
+        plante.survivalCheck(tirages(tirages, plante, Tirages.Usage.SURVIE));
+        naissances.ajouter(plante,
+                plante.reproductionCheck(tirages(tirages, plante, Tirages.Usage.REPRODUCTION), cycle));
+        plante.croitreDecroitre();
     }
 
     // For each herbivore, calculates the energy input from plants eaten, then goes through its life cycle.
     // i.e. verifies if it survives, have children, grows weaker or stronger.
-    private void herbivoresLifeCycle() {
-        var enfants = new ArrayList<Herbivore>();
+    // Several herbivores may graze the same plant, so the phase is split in three steps:
+    //     1. In parallel, each herbivore picks its plants and draws how much of each it eats. Plants are only read.
+    //        Herbivores first count their meals, so that all meals can go one after the other in the same arrays.
+    //     2. Meals are applied in the herbivores' order, as if they had grazed one after the other. This only takes
+    //        a multiplication and a subtraction per meal. Herbivores that don't share plants are in different groups
+    //        (see OrdonnanceurEspeces), and groups apply their meals concurrently.
+    //     3. In parallel, each herbivore goes through the rest of its life cycle, which only touches itself.
+    void herbivoresLifeCycle() {
+        var tableau = tableauHerbivores;
+        choisirRepas();
+        ordonnanceurHerbivores.executer(executeur, repasGroupe);
+
+        parBlocs(MesuresCycle.Categorie.HERBIVORE, tableau, herbivores, (i, naissances, tirages) -> {
+            var herbivore = tableau.get(i);
+            herbivoreLifeCycle(herbivore, naissances, tirages);
+            marquerSiMort(herbivores, herbivore, i);
+        });
+    }
 
-        for (var herbivore : herbivores) {
-            var plantesMangees = listerPlantesMangees(herbivore);
+    // Step 1 of herbivoresLifeCycle: lists the herbivores, then each of them picks its plants and draws how much of
+    // each it eats, into the meal arrays. Package-private so that the benchmarks can time the foraging on its own.
+    void choisirRepas() {
+        var tableau = tableauHerbivores;
+        herbivores.lister(tableau);
+        int taille = tableau.size();
+        if (nombresRepas.length < taille) {
+            nombresRepas = new int[taille + (taille >> 3)];
+            debutsRepas = new int[nombresRepas.length + 1];
+        }
 
-            herbivore.bilanEnergetique(plantesMangees);
-            herbivore.survivalCheck();
+        preparerBlocs(ExecutionParBlocs.nombreBlocs(taille));
+        ExecutionParBlocs.pourChaqueBloc(executeur, taille, (bloc, debut, fin) -> {
+            var tirages = tiragesParBloc.get(bloc);
+            for (int i = debut; i < fin; i++)
+                nombresRepas[i] = nombrePlantesMangees(tableau.get(i), tirages);
+        });
+
+        for (int i = 0; i < taille; i++)
+            debutsRepas[i + 1] = debutsRepas[i] + nombresRepas[i];
+        int totalRepas = debutsRepas[taille];
+        if (plantesMangees.length < totalRepas) {
+            plantesMangees = new Plante[totalRepas + (totalRepas >> 3)];
+            fractionsMangees = new double[plantesMangees.length];
+        }
+
+        ExecutionParBlocs.pourChaqueBloc(executeur, taille, (bloc, debut, fin) -> {
+            var tirages = tiragesParBloc.get(bloc);
+            for (int i = debut; i < fin; i++) {
+                var herbivore = tableau.get(i);
+                choisirPlantes(herbivore, nombresRepas[i], plantesMangees, debutsRepas[i], tirages);
+                herbivore.fractionsMangees(nombresRepas[i], tirages(tirages, herbivore, Tirages.Usage.VORACITE),
+                        fractionsMangees, debutsRepas[i]);
+            }
+        });
+
+        // Species are contiguous in tableau, in the population's order.
+        if (mesures != null) {
+            for (int debut = 0, fin; debut < taille; debut = fin) {
+                int identifiant = tableau.get(debut).getEspece().getIdentifiant();
+                fin = debut + herbivores.getEspece(identifiant).size();
+                mesures.compterRepas(MesuresCycle.Categorie.HERBIVORE, identifiant,
+                        debutsRepas[fin] - debutsRepas[debut]);
+            }
+        }
+    }
 
-            int nombreEnfants = herbivore.reproductionCheck();
-            for (int i = 0; i < nombreEnfants; i++)
-                enfants.add(herbivore.seReproduire());
+    // Step 2 of herbivoresLifeCycle for the group g: its herbivores have the meals they picked, in the order of the
+    // group, which is also their order in the last list of herbivores.
+    private void mangerRepas(OrdonnanceurEspeces.Groupe groupe, int g) {
+        var tableau = tableauHerbivores;
+        for (var identifiant : groupe.getIdentifiantsConsommateurs()) {
+            int nombre = herbivores.getEspece(identifiant).size();
+            if (nombre == 0)
+                continue;
+            int premier = herbivores.getDebutListe(identifiant);
+            int fin = premier + nombre;
+            for (int i = premier; i < fin; i++)
+                tableau.get(i).bilanEnergetique(plantesMangees, fractionsMangees, debutsRepas[i], nombresRepas[i]);
+        }
+    }
+
+    private void herbivoreLifeCycle(Herbivore herbivore, Naissances naissances, Tirages tirages) {
+        herbivore.survivalCheck(tirages(tirages, herbivore, Tirages.Usage.SURVIE));
+        naissances.ajouter(herbivore,
+                herbivore.reproductionCheck(tirages(tirages, herbivore, Tirages.Usage.REPRODUCTION), cycle));
+        herbivore.croitreDecroitre();
+    }
 
-            herbivore.croitreDecroitre();
+    // Marks the organism at index of the last list of population as dead, if it is. See Population.getDebutListe.
+    private static <T extends Organisme> void marquerSiMort(Population<T> population, T organisme, int index) {
+        if (organisme.isDead()) {
+            int identifiant = organisme.getEspece().getIdentifiant();
+            population.marquerMort(identifiant, index - population.getDebutListe(identifiant));
         }
-        herbivores.addAll(enfants);
     }
 
     // For each carnivore, calculates the energy input from plants herbivores, then goes through its life cycle.
     // i.e. verifies if it survives, have children, grows weaker or stronger.
-    private void carnivoreLifeCycle() {
-        var enfants = new ArrayList<Carnivore>();
+    // Carnivores of a group hunt one after the other, since they compete for the same prey. Groups hunt different
+    // herbivore species, so they run concurrently. See OrdonnanceurEspeces.
+    void carnivoreLifeCycle() {
+        var groupes = ordonnanceurCarnivores.getGroupes();
+        while (chasses.size() < groupes.size())
+            chasses.add(new Chasse(generateur));
 
-        for (var carnivore : carnivores) {
-            var herbivoresMangees = listerHerbivoresMangees(carnivore);
+        ordonnanceurCarnivores.executer(executeur, chasseGroupe);
 
-            carnivore.bilanEnergetique(herbivoresMangees);
-            carnivore.survivalCheck();
-
-            int nombreEnfants = carnivore.reproductionCheck();
-            for (int i = 0; i < nombreEnfants; i++)
-                enfants.add(carnivore.seReproduire());
+        for (int g = 0; g < groupes.size(); g++)
+            ajouterEnfants(MesuresCycle.Categorie.CARNIVORE, carnivores, chasses.get(g).naissances);
+    }
 
-            carnivore.croitreDecroitre();
+    // The carnivores of the group g hunt one after the other, in the order of the group.
+    private void chasser(OrdonnanceurEspeces.Groupe groupe, int g) {
+        var chasse = chasses.get(g);
+        chasse.naissances.vider();
+        indexerProies(groupe, chasse);
+
+        // Each species belongs to a single group, so only this thread counts its meals.
+        for (var identifiant : groupe.getIdentifiantsConsommateurs()) {
+            long nombreRepas = 0;
+            var individus = carnivores.getEspece(identifiant);
+            for (int i = 0; i < individus.size(); i++) {
+                var carnivore = individus.get(i);
+                nombreRepas += carnivoreLifeCycle(carnivore, chasse);
+                if (carnivore.isDead())
+                    carnivores.marquerMort(identifiant, i);
+            }
+            if (nombreRepas > 0 && mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.CARNIVORE, identifiant, nombreRepas);
         }
-        carnivores.addAll(enfants);
     }
 
-    // Returns a list of all the plants an herbivore eats during a cycle
-    private List<Plante> listerPlantesMangees(Herbivore herbivore) {
-        Predicate<Plante> estMangeable = plante -> herbivore.getAliments().contains(plante.getNomEspece());
-        var plantesMangeables = plantes.stream()
-                .filter(estMangeable)
-                .collect(Collectors.toList());
+    // Returns the number of herbivores eaten.
+    private int carnivoreLifeCycle(Carnivore carnivore, Chasse chasse) {
+        var herbivoresMangees = chasse.herbivoresManges;
+        var tirages = chasse.tirages;
+        listerHerbivoresMangees(carnivore, chasse.proies, herbivoresMangees, tirages);
+
+        carnivore.bilanEnergetique(herbivoresMangees);
+        carnivore.survivalCheck(tirages(tirages, carnivore, Tirages.Usage.SURVIE));
+        chasse.naissances.ajouter(carnivore,
+                carnivore.reproductionCheck(tirages(tirages, carnivore, Tirages.Usage.REPRODUCTION), cycle));
+        carnivore.croitreDecroitre();
+        return herbivoresMangees.size();
+    }
 
-        int nombreRepas = herbivore.nombreRepas();
-        if (plantesMangeables.size() <= nombreRepas)
-            return plantesMangeables;
+    // Returns the number of plants an herbivore eats during a cycle: as many as its meals, or all the plants it can
+    // eat if there are not enough.
+    private int nombrePlantesMangees(Herbivore herbivore, Tirages tirages) {
+        int nombreMangeables = plantes.compter(herbivore.getEspece().getIdentifiantsAliments());
+        int nombreRepas = herbivore.nombreRepas(tirages(tirages, herbivore, Tirages.Usage.REPAS));
+        return Math.min(nombreMangeables, nombreRepas);
+    }
 
-        var plantesMangees = new ArrayList<Plante>();
-        for (int i = 0; i < nombreRepas; i++) {
-            int randomindex = (int) (Math.random() * plantesMangeables.size());
+    // Puts the nombre plants an herbivore eats in plantesMangees, from debut. nombre must come from
+    // nombrePlantesMangees. Only the species the herbivore can eat are looked at; plants are picked by their rank
+    // among those species. Species are looked up by identifier, see RegistreEspeces.
+    private void choisirPlantes(Herbivore herbivore, int nombre, Plante[] plantesMangees, int debut,
+                                Tirages tirages) {
+        var aliments = herbivore.getEspece().getIdentifiantsAliments();
+        int nombreMangeables = plantes.compter(aliments);
+
+        // Eats them all.
+        if (nombre == nombreMangeables) {
+            for (var espece : aliments) {
+                var individus = plantes.getEspece(espece);
+                for (int i = 0; i < individus.size(); i++)
+                    plantesMangees[debut++] = individus.get(i);
+            }
+            return;
+        }
+
+        var choix = tirages(tirages, herbivore, Tirages.Usage.CHOIX);
+        for (int i = debut; i < debut + nombre; i++) {
+            int randomindex = (int) (choix.suivant() * nombreMangeables);
             // Herbivores can't eat more than the plant's energy, nor can they kill it by eating it.
             // So they can eat the same plant twice.
-            plantesMangees.add(plantesMangeables.get(randomindex));
+            plantesMangees[i] = plantes.get(aliments, randomindex);
         }
-        return plantesMangees;
     }
 
-    // Returns a list of all the herbivores a carnivore eats during a cycle
-    private List<Herbivore> listerHerbivoresMangees(Carnivore carnivore) {
-        Predicate<Herbivore> estMangeable = herbivore ->
-                (carnivore.getAliments().contains(herbivore.getNomEspece()) &&
-                 carnivore.getEnergie() >= herbivore.getEnergie());
-
-        var herbivoresMangeables = herbivores.stream()
-                .filter(estMangeable)
-                .collect(Collectors.toList());
+    // Replaces the content of herbivoresManges with all the herbivores a carnivore eats during a cycle.
+    // Eaten prey are removed from the index, so they can't be eaten again by this carnivore nor by the next ones.
+    private void listerHerbivoresMangees(Carnivore carnivore, IndexProies[] proies,
+                                         ArrayList<Herbivore> herbivoresManges, Tirages tirages) {
+        var aliments = carnivore.getEspece().getIdentifiantsAliments();
+        double energieMax = carnivore.getEnergie();
+
+        int nombreMangeables = 0;
+        for (var espece : aliments) {
+            var index = espece < proies.length ? proies[espece] : null;
+            if (index != null)
+                nombreMangeables += index.compter(energieMax);
+        }
 
-        int nombreRepas = carnivore.nombreRepas();
-        if (herbivoresMangeables.size() <= nombreRepas)
-            return herbivoresMangeables;
+        // Carnivores can't eat more prey than there are weaker prey available.
+        int nombreRepas = Math.min(carnivore.nombreRepas(tirages(tirages, carnivore, Tirages.Usage.REPAS)),
+                nombreMangeables);
+        boolean mangeToutes = nombreRepas == nombreMangeables;
+        var choix = tirages(tirages, carnivore, Tirages.Usage.CHOIX);
 
-        var herbivoresManges = new ArrayList<Herbivore>();
+        herbivoresManges.clear();
         for (int i = 0; i < nombreRepas; i++) {
-            int randomindex = (int) (Math.random() * herbivoresMangeables.size());
-            // Carnivores kill their prey and eat them completely; i.e they can't eat the same prey twice.
-            herbivoresManges.add(herbivoresMangeables.remove(randomindex));
+            // When all the prey get eaten, no need to draw them at random.
+            int randomindex = mangeToutes ? 0 : (int) (choix.suivant() * nombreMangeables);
+            herbivoresManges.add(retirerProie(aliments, proies, energieMax, randomindex));
+            nombreMangeables--;
         }
-        return herbivoresManges;
     }
 
-    private void enleverMorts() {
-        plantes.removeIf(Plante::isDead);
-        herbivores.removeIf(Herbivore::isDead);
-        carnivores.removeIf(Carnivore::isDead);
+    // Removes from the index and returns the rang-th prey weaker than energieMax, counting species in the
+    // iteration order of aliments. The prey is marked dead in its population: it is about to be eaten.
+    private Herbivore retirerProie(int[] aliments, IndexProies[] proies, double energieMax, int rang) {
+        for (var espece : aliments) {
+            var index = espece < proies.length ? proies[espece] : null;
+            if (index == null)
+                continue;
+
+            int nombre = index.compter(energieMax);
+            if (rang < nombre) {
+                int position = index.retirer(rang);
+                herbivores.marquerMort(espece, position);
+                return herbivores.getEspece(espece).get(position);
+            }
+            rang -= nombre;
+        }
+        throw new IndexOutOfBoundsException(rang);
     }
 
-    private void vieillissement() {
-        plantes.forEach(Plante::vieillir);
-        herbivores.forEach(Herbivore::vieillir);
-        carnivores.forEach(Carnivore::vieillir);
+    // Indexes by energy the herbivore species hunted by a group of carnivores, reusing the indexes of the previous
+    // hunt. The index of a species is at its identifier (see RegistreEspeces).
+    private void indexerProies(OrdonnanceurEspeces.Groupe groupe, Chasse chasse) {
+        var aliments = groupe.getIdentifiantsAliments();
+        if (chasse.proies == null) {
+            int taille = 0;
+            for (var espece : aliments)
+                taille = Math.max(taille, espece + 1);
+            chasse.proies = new IndexProies[taille];
+            for (var espece : aliments)
+                chasse.proies[espece] = new IndexProies();
+        }
+
+        for (var espece : aliments)
+            chasse.proies[espece].indexer(herbivores.getEspece(espece));
     }
 
-    private double calculEnergieTotaleDesPlantes(){
-        double energieTotale = 0;
-        for (var plante : plantes)
-            energieTotale += plante.getEnergie();
-
-        return energieTotale;
-    }
-
-    public void imprimeRapport(PrintStream out) {
-        var especesPlantes = this.plantes.stream()
-                .collect(groupingBy(Plante::getNomEspece, summarizingDouble(Plante::getEnergie)));
-        out.println("Il reste " + especesPlantes.size() + " espèces de plantes.");
-        for (var entry : especesPlantes.entrySet()) {
-            var value = entry.getValue();
-            out.printf(
-                "%s: %d individus qui contiennent en tout %.2f unités d'énergie.%n",
-                entry.getKey(),
-                value.getCount(),
-                value.getSum());
-        }
-
-        var especesHerbivores = this.herbivores.stream().collect(groupingBy(
-                Herbivore::getNomEspece,
-                summarizingDouble(Herbivore::getEnergie)));
-        out.println("Il reste " + especesHerbivores.size() + " espèces d'herbivores.");
-        for (var entry : especesHerbivores.entrySet()) {
-            var value = entry.getValue();
-            out.printf(
-                    "%s: %d individus qui contiennent en tout %.2f unités d'énergie.%n",
-                    entry.getKey(),
-                    value.getCount(),
-                    value.getSum());
-        }
-
-        var especesCarnivores = this.carnivores.stream().collect(groupingBy(
-                Carnivore::getNomEspece,
-                summarizingDouble(Carnivore::getEnergie)));
-        out.println("Il reste " + especesCarnivores.size() + " espèces de carnivores.");
-        for (var entry : especesCarnivores.entrySet()) {
-            var value = entry.getValue();
-            out.printf(
-                    "%s: %d individus qui contiennent en tout %.2f unités d'énergie.%n",
-                    entry.getKey(),
-                    value.getCount(),
-                    value.getSum());
+    // Returns the diet of each species of a population. Species whose individuals differ get the union of their diets.
+    private static <T extends Organisme> Map<String, Set<String>> regimes(Population<T> population,
+                                                                           Function<T, Set<String>> aliments) {
+        var regimes = new LinkedHashMap<String, Set<String>>();
+        for (var entry : population.getEspeces().entrySet()) {
+            var regime = new LinkedHashSet<String>();
+            for (var organisme : entry.getValue())
+                regime.addAll(aliments.apply(organisme));
+            regimes.put(entry.getKey(), regime);
+        }
+        return regimes;
+    }
+
+    void enleverMorts() {
+        plantes.enleverMorts(mortsPlantes);
+        herbivores.enleverMorts(mortsHerbivores);
+        carnivores.enleverMorts(mortsCarnivores);
+    }
+
+    private void compterMorts(MesuresCycle.Categorie categorie, int identifiant, int nombre) {
+        if (mesures != null)
+            mesures.compterMorts(categorie, identifiant, nombre);
+    }
+
+    // Builds the newborns of each parent, adds them to their population and counts them. Newborns are built here
+    // rather than by their parent's block, so that dead organisms can be reused for them (see Population.recycler)
+    // without any synchronization. They come in the same order either way.
+    @SuppressWarnings("unchecked")
+    private <T extends Organisme> void ajouterEnfants(MesuresCycle.Categorie categorie, Population<T> population,
+                                                       Naissances naissances) {
+        for (int k = 0; k < naissances.taille; k++) {
+            var parent = (T) naissances.parents[k];
+            for (int rang = 0; rang < naissances.nombres[k]; rang++) {
+                long cle = cleEnfant(parent, rang);
+                var enfant = population.recycler(parent.getEspece());
+                if (enfant != null)
+                    enfant.renaitre(cle, cycle);
+                else {
+                    enfant = (T) parent.seReproduire();
+                    enfant.setCle(cle);
+                    enfant.setNaissance(cycle);
+                }
+                population.ajouter(enfant);
+                if (mesures != null)
+                    mesures.compterNaissances(categorie, enfant.getEspece().getIdentifiant(), 1);
+            }
+        }
+    }
+
+    private <T extends Organisme> void mesurerPopulation(MesuresCycle.Categorie categorie, Population<T> population) {
+        for (var individus : population.getEspeces().values()) {
+            int identifiant = individus.get(0).getEspece().getIdentifiant();
+            var agregat = population.getAgregat(identifiant);
+            mesures.setPopulation(categorie, identifiant, agregat.getIndividus(), agregat.getEnergie());
+        }
+    }
+
+    // Runs cycleDeVie for every index of tableau, block by block, then adds the newborns to the population.
+    // Each block keeps its births apart and they are added in block order, so the result doesn't depend on whether
+    // blocks ran in parallel.
+    private <T extends Organisme> void parBlocs(MesuresCycle.Categorie categorie, List<T> tableau,
+                                               Population<T> population, CycleDeVie cycleDeVie) {
+        int nombreBlocs = ExecutionParBlocs.nombreBlocs(tableau.size());
+        preparerBlocs(nombreBlocs);
+
+        ExecutionParBlocs.pourChaqueBloc(executeur, tableau.size(), (bloc, debut, fin) -> {
+            var naissances = naissancesParBloc.get(bloc);
+            var tirages = tiragesParBloc.get(bloc);
+            naissances.vider();
+            for (int i = debut; i < fin; i++)
+                cycleDeVie.executer(i, naissances, tirages);
+        });
+
+        for (int bloc = 0; bloc < nombreBlocs; bloc++)
+            ajouterEnfants(categorie, population, naissancesParBloc.get(bloc));
+    }
+
+    // Makes sure each of nombreBlocs blocks has its births and its draws.
+    private void preparerBlocs(int nombreBlocs) {
+        while (naissancesParBloc.size() < nombreBlocs)
+            naissancesParBloc.add(new Naissances());
+        while (tiragesParBloc.size() < nombreBlocs)
+            tiragesParBloc.add(new Tirages(generateur));
+    }
+
+    // Life cycle of the index-th organism of a block. Its births go into naissances, and its draws come from tirages.
+    @FunctionalInterface
+    private interface CycleDeVie {
+        void executer(int index, Naissances naissances, Tirages tirages);
+    }
+
+    // Births of a block or of a group: the parents in order, and how many children each of them has.
+    private static final class Naissances {
+        private Organisme[] parents = new Organisme[16];
+        private int[] nombres = new int[16];
+        private int taille = 0;
+
+        private void ajouter(Organisme parent, int nombre) {
+            if (nombre == 0)
+                return;
+            if (taille == parents.length) {
+                parents = Arrays.copyOf(parents, 2 * taille);
+                nombres = Arrays.copyOf(nombres, 2 * taille);
+            }
+            parents[taille] = parent;
+            nombres[taille++] = nombre;
+        }
+
+        private void vider() {
+            Arrays.fill(parents, 0, taille, null);
+            taille = 0;
+        }
+    }
+
+    // What a group of carnivores keeps from one hunt to the next.
+    private static final class Chasse {
+        private IndexProies[] proies = null;  // Index of each species hunted, at its identifier.
+        private final ArrayList<Herbivore> herbivoresManges = new ArrayList<>();  // Prey of the current carnivore.
+        private final Naissances naissances = new Naissances();
+        private final Tirages tirages;  // Handed to each carnivore of the group in turn.
+
+        private Chasse(GenerateurAleatoire generateur) {
+            tirages = new Tirages(generateur);
         }
     }
+
+    // Returns tirages, now giving the draws reserved to an organism for one purpose during the current cycle.
+    // Whoever held tirages before must be done with its draws. Each block or group has its own.
+    private Tirages tirages(Tirages tirages, Organisme organisme, Tirages.Usage usage) {
+        return tirages.reprendre(organisme.getCle(), cycle, usage);
+    }
+
+    // Returns the key of the rang-th child born from parent during the current cycle.
+    private long cleEnfant(Organisme parent, int rang) {
+        return generateur.bits(parent.getCle(), cycle, Tirages.Usage.NAISSANCE, rang);
+    }
+
+    // Totals are kept by species, see AgregatEspece. They are summed in fixed point, so the total doesn't depend on
+    // the order in which plants changed.
+    private double calculEnergieTotaleDesPlantes(){
+        long energieTotale = 0;
+        for (var agregat : plantes.getAgregats().values())
+            energieTotale += agregat.getEnergieFixe();
+
+        return AgregatEspece.enEnergie(energieTotale);
+    }
+
+    // Getters
+    public int getEnergieSolaire() {
+        return energieSolaire;
+    }
+
+    @Override
+    public long getCycle() {
+        return cycle;
+    }
+
+    public GenerateurAleatoire getGenerateur() {
+        return generateur;
+    }
+
+    Population<Plante> getPlantes() {
+        return plantes;
+    }
+
+    Population<Herbivore> getHerbivores() {
+        return herbivores;
+    }
+
+    Population<Carnivore> getCarnivores() {
+        return carnivores;
+    }
+
+    // Returns, for each species still alive, its number of individuals and their total energy at this point.
+    // Costs O(species): totals are kept up to date by the populations.
+    @Override
+    public Map<String, AgregatEspece> resumePlantes() {
+        return resume(plantes);
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeHerbivores() {
+        return resume(herbivores);
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeCarnivores() {
+        return resume(carnivores);
+    }
+
+    private static <T extends Organisme> Map<String, AgregatEspece> resume(Population<T> population) {
+        var especes = new LinkedHashMap<String, AgregatEspece>();
+        for (var entry : population.getAgregats().entrySet())
+            especes.put(entry.getKey(), entry.getValue().copier());
+        return especes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Organisme> List<T> copier(Population<T> population) {
+        var copies = new ArrayList<T>(population.getTaille());
+        for (var organisme : population)
+            copies.add((T) organisme.copier());
+        return copies;
+    }
 }
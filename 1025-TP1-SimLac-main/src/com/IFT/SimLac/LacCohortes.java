@@ -0,0 +1,570 @@
+package com.IFT.SimLac;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * This class simulates a lake like Lac, but keeps organisms as cohorts of identical individuals (see
+ * PopulationCohortes) instead of one by one.
+ *
+ * The checks of a cohort are applied to all its individuals at once: the survivors of a deficit are drawn from a
+ * binomial distribution, and the individuals that have each number of children from a multinomial one (see
+ * Lois.binomiale and Lois.queuesNaissances). Individuals that end up in different states are split into several rows.
+ * An individual also leaves its cohort as soon as something happens to it only: a plant when it is grazed, an animal
+ * when it has a meal, since meals are drawn one by one. Rows that became identical again are merged at the end of the
+ * cycle. A lake of tens of millions of plants thus runs in the memory and the time of its distinct cohorts.
+ *
+ * Each individual is subject to the same rules, and draws from the same distributions, as in Lac. But draws are made
+ * for a whole cohort rather than for each organism's key, so for the same seed this engine gives other results than
+ * Lac and LacColonnes, which only agree with each other in distribution. Its own results don't depend on anything but
+ * the seed.
+ *
+ * Phases run sequentially, each going through the cohorts in order: there are too few of them to be worth sharing
+ * between threads.
+ */
+
+public final class LacCohortes implements MoteurLac {
+    private final int energieSolaire;  // New energy from the sun injected into the ecosystem
+    private final PopulationCohortes plantes;
+    private final PopulationCohortes herbivores;
+    private final PopulationCohortes carnivores;
+    private final GenerateurAleatoire generateur;     // Source of all random draws. See Tirages.
+    private long cycle = 0;                           // Number of cycles simulated so far.
+    private MesuresCycle mesures;                     // What happens to each species during the current cycle.
+                                                      // null when there is no observateur.
+    private Consumer<MesuresCycle> observateur = null; // Receives the measures at the end of each cycle.
+    // Count the dead removed from each population. Kept so that enleverMorts allocates nothing.
+    private final Population.CompteurMorts mortsPlantes = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.PLANTE, identifiant, nombre);
+    private final Population.CompteurMorts mortsHerbivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.HERBIVORE, identifiant, nombre);
+    private final Population.CompteurMorts mortsCarnivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.CARNIVORE, identifiant, nombre);
+    private double[] queuesNaissances = new double[16];  // See Lois.queuesNaissances. Grows as needed.
+    // Plants and herbivores of the current phase, by identifier, up to the largest identifier of the lake's species.
+    // null for species without any individual. See paturage and indexProies.
+    private Paturage[] paturages = new Paturage[0];
+    private IndexProies[] proies = new IndexProies[0];
+
+
+    // Constructor
+    // The rows of the populations already have their keys. See usine.
+    LacCohortes(int energieSolaire, PopulationCohortes plantes, PopulationCohortes herbivores,
+                PopulationCohortes carnivores, GenerateurAleatoire generateur) {
+        this.energieSolaire = energieSolaire;
+        this.plantes = plantes;
+        this.herbivores = herbivores;
+        this.carnivores = carnivores;
+        this.generateur = generateur;
+    }
+
+    // Returns a factory that builds a lake from a scenario. See Scenario.creer.
+    public static Scenario.UsineMoteur<LacCohortes> usine() {
+        var plantes = new PopulationCohortes();
+        var herbivores = new PopulationCohortes();
+        var carnivores = new PopulationCohortes();
+        return new Scenario.UsineMoteur<>() {
+            @Override
+            public void ajouterGroupe(MesuresCycle.Categorie categorie, Espece espece, int quantite, long premiereCle) {
+                var population = switch (categorie) {
+                    case PLANTE -> plantes;
+                    case HERBIVORE -> herbivores;
+                    case CARNIVORE -> carnivores;
+                };
+                population.ajouterGroupe(espece, quantite, espece.getEnergieEnfant(), 0, premiereCle);
+            }
+
+            @Override
+            public LacCohortes creer(int energieSolaire, GenerateurAleatoire generateur) {
+                return new LacCohortes(energieSolaire, plantes, herbivores, carnivores, generateur);
+            }
+        };
+    }
+
+
+    // Phases don't run in parallel, so the pool isn't used.
+    @Override
+    public void setExecuteur(ForkJoinPool executeur) {
+    }
+
+    @Override
+    public void setObservateur(Consumer<MesuresCycle> observateur) {
+        this.observateur = observateur;
+    }
+
+
+    // Simulates one cycle, with the same phases as Lac.tick. Rows are merged along with the removal of the dead.
+    @Override
+    public void tick() {
+        debuterCycle();
+
+        var evenement = EvenementPhase.debuter();
+        plantsLifeCycle();
+        terminerPhase(evenement, "plantes");
+
+        evenement = EvenementPhase.debuter();
+        herbivoresLifeCycle();
+        terminerPhase(evenement, "herbivores");
+
+        evenement = EvenementPhase.debuter();
+        carnivoreLifeCycle();
+        terminerPhase(evenement, "carnivores");
+
+        evenement = EvenementPhase.debuter();
+        enleverMorts();
+        terminerPhase(evenement, "enleverMorts");
+
+        terminerCycle();
+    }
+
+    private void terminerPhase(EvenementPhase evenement, String phase) {
+        evenement.terminer(phase, cycle, plantes.getTaille(), herbivores.getTaille(), carnivores.getTaille());
+    }
+
+    // The measures are only taken when someone receives them.
+    private void debuterCycle() {
+        if (observateur == null)
+            return;
+        mesures = new MesuresCycle(cycle);
+        for (var cohortes : plantes.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.PLANTE, cohortes.identifiant, cohortes.nom);
+        for (var cohortes : herbivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.HERBIVORE, cohortes.identifiant, cohortes.nom);
+        for (var cohortes : carnivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.CARNIVORE, cohortes.identifiant, cohortes.nom);
+    }
+
+    private void terminerCycle() {
+        cycle++;
+
+        if (observateur != null && mesures != null) {
+            mesurerPopulation(MesuresCycle.Categorie.PLANTE, plantes);
+            mesurerPopulation(MesuresCycle.Categorie.HERBIVORE, herbivores);
+            mesurerPopulation(MesuresCycle.Categorie.CARNIVORE, carnivores);
+            observateur.accept(mesures);
+        }
+        mesures = null;
+    }
+
+    // Each plant gets its share of the sun's energy, then goes through its life cycle. See Plante.bilanEnergetique.
+    // Plants of a row have the same energy, so they get the same share.
+    private void plantsLifeCycle() {
+        long energieTotaleFixe = 0;
+        for (var cohortes : plantes.getEspeces())
+            energieTotaleFixe += cohortes.getEnergieFixe();
+        double energieTotaleDesPlantes = AgregatEspece.enEnergie(energieTotaleFixe);
+
+        for (var cohortes : plantes.getEspeces()) {
+            int taille = cohortes.taille;  // Rows split from these ones are already through their cycle.
+            for (int i = 0; i < taille; i++) {
+                var espece = plantes.getDescripteur(cohortes.espece[i]);
+                double energieRecue = energieSolaire * (cohortes.energie[i] / energieTotaleDesPlantes);
+                cohortes.budgetEnergetique[i] = energieRecue - espece.getBesoinEnergie();
+                cycleDeVie(cohortes, i, espece);
+            }
+        }
+        ajouterEnfants(MesuresCycle.Categorie.PLANTE, plantes);
+    }
+
+    // Each herbivore has its meals, then goes through the rest of its life cycle. See Lac.herbivoresLifeCycle.
+    // Herbivores graze one after the other, in order. Plants are picked among those alive or dead at the start of the
+    // phase, like in Lac; see Paturage.
+    private void herbivoresLifeCycle() {
+        int nombreIdentifiants = 0;
+        for (var cohortes : plantes.getEspeces())
+            nombreIdentifiants = Math.max(nombreIdentifiants, cohortes.identifiant + 1);
+        if (paturages.length < nombreIdentifiants)
+            paturages = new Paturage[nombreIdentifiants];
+        Arrays.fill(paturages, null);
+        for (var cohortes : plantes.getEspeces())
+            paturages[cohortes.identifiant] = new Paturage(cohortes);
+
+        for (var cohortes : herbivores.getEspeces()) {
+            long nombreRepas = 0;
+            int taille = cohortes.taille;
+            for (int i = 0; i < taille; i++)
+                nombreRepas += brouter(cohortes, i);
+            if (mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.HERBIVORE, cohortes.identifiant, nombreRepas);
+
+            taille = cohortes.taille;
+            for (int i = 0; i < taille; i++)
+                cycleDeVie(cohortes, i, herbivores.getDescripteur(cohortes.espece[i]));
+        }
+        ajouterEnfants(MesuresCycle.Categorie.HERBIVORE, herbivores);
+    }
+
+    // The herbivores of the row i have their meals and get their energetic budget. Returns the number of meals.
+    // Each of them has a meal with probability debrouillardise (see Lois.geometrique). Those that don't stay in the
+    // row; the others leave it one by one, and draw their number of meals and their plants with their own key.
+    private int brouter(PopulationCohortes.Cohortes cohortes, int i) {
+        var espece = (EspeceHerbivore) herbivores.getDescripteur(cohortes.espece[i]);
+        var aliments = espece.getIdentifiantsAliments();
+        int nombreMangeables = 0;
+        for (var aliment : aliments) {
+            var paturage = paturage(aliment);
+            if (paturage != null)
+                nombreMangeables += paturage.getNombre();
+        }
+
+        int nombreRepas = 0;
+        double debrouillardise = espece.getDebrouillardise();
+        int affames = nombreMangeables == 0 ? 0 : Lois.binomiale(uniforme(cohortes, i, Tirages.Usage.REPAS, 0),
+                cohortes.nombre[i], debrouillardise);
+        for (int k = 0; k < affames; k++) {
+            int ligne = diviser(cohortes, i, 1);
+            long cle = cohortes.cle[ligne];
+
+            // Meals beyond the first are rolled like in Lac. See Herbivore.nombreRepas.
+            int repas = Math.min(Lois.geometrique(generateur.uniforme(cle, cycle, Tirages.Usage.REPAS, 0),
+                    debrouillardise), nombreMangeables - 1) + 1;
+            double energieRecue = 0;
+            double voraciteMin = espece.getVoraciteMin();
+            double range = espece.getVoraciteMax() - voraciteMin;
+            if (repas == nombreMangeables) {
+                // Eats them all.
+                int j = 0;
+                for (var aliment : aliments) {
+                    var paturage = paturage(aliment);
+                    for (int rang = 0; paturage != null && rang < paturage.getNombre(); rang++) {
+                        double fraction = voraciteMin
+                                + generateur.uniforme(cle, cycle, Tirages.Usage.VORACITE, j++) * range;
+                        energieRecue += paturage.manger(rang, fraction);
+                    }
+                }
+            } else {
+                for (int j = 0; j < repas; j++) {
+                    int rang = (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j) * nombreMangeables);
+                    double fraction = voraciteMin
+                            + generateur.uniforme(cle, cycle, Tirages.Usage.VORACITE, j) * range;
+                    for (var aliment : aliments) {
+                        var paturage = paturage(aliment);
+                        int nombre = paturage == null ? 0 : paturage.getNombre();
+                        if (rang < nombre) {
+                            energieRecue += paturage.manger(rang, fraction);
+                            break;
+                        }
+                        rang -= nombre;
+                    }
+                }
+            }
+            cohortes.budgetEnergetique[ligne] = energieRecue - espece.getBesoinEnergie();
+            nombreRepas += repas;
+        }
+
+        cohortes.budgetEnergetique[i] = 0 - espece.getBesoinEnergie();
+        return nombreRepas;
+    }
+
+    // Each carnivore hunts, then goes through the rest of its life cycle, species after species. See
+    // Lac.carnivoreLifeCycle. Prey are picked among the herbivores alive or dead at the start of the phase, like in
+    // Lac, and each herbivore can be eaten once.
+    private void carnivoreLifeCycle() {
+        int nombreIdentifiants = 0;
+        for (var cohortes : herbivores.getEspeces())
+            nombreIdentifiants = Math.max(nombreIdentifiants, cohortes.identifiant + 1);
+        if (proies.length < nombreIdentifiants)
+            proies = new IndexProies[nombreIdentifiants];
+        Arrays.fill(proies, null);
+        for (var cohortes : herbivores.getEspeces()) {
+            proies[cohortes.identifiant] = new IndexProies();
+            proies[cohortes.identifiant].indexer(cohortes.energie, cohortes.nombre, cohortes.taille);
+        }
+
+        for (var cohortes : carnivores.getEspeces()) {
+            long nombreRepas = 0;
+            int taille = cohortes.taille;
+            for (int i = 0; i < taille; i++)
+                nombreRepas += chasser(cohortes, i);
+            if (nombreRepas > 0 && mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.CARNIVORE, cohortes.identifiant, nombreRepas);
+
+            taille = cohortes.taille;
+            for (int i = 0; i < taille; i++)
+                cycleDeVie(cohortes, i, carnivores.getDescripteur(cohortes.espece[i]));
+        }
+        ajouterEnfants(MesuresCycle.Categorie.CARNIVORE, carnivores);
+    }
+
+    // The carnivores of the row i hunt and get their energetic budget. Returns the number of herbivores eaten.
+    // Like herbivores, each of them hunts with probability debrouillardise, and those that do leave the row one by one.
+    // Carnivores can't eat more prey than there are weaker prey available. See Lac.listerHerbivoresMangees.
+    private int chasser(PopulationCohortes.Cohortes cohortes, int i) {
+        var espece = (EspeceCarnivore) carnivores.getDescripteur(cohortes.espece[i]);
+        var aliments = espece.getIdentifiantsAliments();
+        double energieMax = cohortes.energie[i];
+        double debrouillardise = espece.getDebrouillardise();
+
+        int nombreRepas = 0;
+        int chasseurs = Lois.binomiale(uniforme(cohortes, i, Tirages.Usage.REPAS, 0), cohortes.nombre[i],
+                debrouillardise);
+        for (int k = 0; k < chasseurs; k++) {
+            int nombreMangeables = 0;
+            for (var aliment : aliments) {
+                var index = indexProies(aliment);
+                if (index != null)
+                    nombreMangeables += index.compter(energieMax);
+            }
+            if (nombreMangeables == 0)
+                break;  // The others won't find anything either: they stay in the row.
+
+            int ligne = diviser(cohortes, i, 1);
+            long cle = cohortes.cle[ligne];
+            int repas = Math.min(Lois.geometrique(generateur.uniforme(cle, cycle, Tirages.Usage.REPAS, 0),
+                    debrouillardise), nombreMangeables - 1) + 1;
+            boolean mangeToutes = repas == nombreMangeables;
+
+            double energieRecue = 0;
+            for (int j = 0; j < repas; j++) {
+                // When all the prey get eaten, no need to draw them at random.
+                int rang = mangeToutes ? 0 : (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j)
+                        * nombreMangeables);
+                energieRecue += retirerProie(aliments, energieMax, rang);
+                nombreMangeables--;
+            }
+            cohortes.budgetEnergetique[ligne] = energieRecue - espece.getBesoinEnergie();
+            nombreRepas += repas;
+        }
+
+        cohortes.budgetEnergetique[i] = 0 - espece.getBesoinEnergie();
+        return nombreRepas;
+    }
+
+    // Removes from the index the rang-th prey weaker than energieMax, counting species in the order of aliments,
+    // and returns its energy. A living prey leaves its row for a row of its own, marked dead.
+    private double retirerProie(int[] aliments, double energieMax, int rang) {
+        for (var aliment : aliments) {
+            var index = indexProies(aliment);
+            if (index == null)
+                continue;
+
+            int nombre = index.compter(energieMax);
+            if (rang < nombre) {
+                var cohortes = herbivores.getEspece(aliment);
+                int ligne = index.retirer(rang);
+                if (!cohortes.estMort(ligne))
+                    cohortes.marquerMort(cohortes.nombre[ligne] == 1 ? ligne : diviser(cohortes, ligne, 1));
+                return cohortes.energie[ligne];
+            }
+            rang -= nombre;
+        }
+        throw new IndexOutOfBoundsException(rang);
+    }
+
+    // Returns the plants of the species identifiant that herbivores graze during this phase, or null if there are none.
+    // Diets may name species that are not in the lake, beyond the end of paturages.
+    private Paturage paturage(int identifiant) {
+        return identifiant < paturages.length ? paturages[identifiant] : null;
+    }
+
+    // Returns the index of the herbivores of the species identifiant, or null if there are none. See paturage.
+    private IndexProies indexProies(int identifiant) {
+        return identifiant < proies.length ? proies[identifiant] : null;
+    }
+
+    // Life cycle of the organisms of the row i once their energetic budget is known: some may die, have children,
+    // and they grow or shrink. Same rules as Organisme.survivalCheck, reproductionCheck and croitreDecroitre, in that
+    // order. Rows marked dead only grow or shrink, like dead organisms. Children are only counted, see ajouterEnfants.
+    private void cycleDeVie(PopulationCohortes.Cohortes cohortes, int i, Espece espece) {
+        double budgetEnergetique = cohortes.budgetEnergetique[i];
+        if (cohortes.estMort(i) || cohortes.nombre[i] == 0) {
+            croitreDecroitre(cohortes, i, espece);
+        } else if (budgetEnergetique < 0) {
+            double survivalChance = Organisme.chanceSurvie(espece.getResilience(), budgetEnergetique);
+            int survivants = Lois.binomiale(uniforme(cohortes, i, Tirages.Usage.SURVIE, 0), cohortes.nombre[i],
+                    survivalChance);
+            if (survivants == 0)
+                cohortes.marquerMort(i);
+            else if (survivants < cohortes.nombre[i]) {
+                int morts = diviser(cohortes, i, cohortes.nombre[i] - survivants);
+                cohortes.marquerMort(morts);
+                croitreDecroitre(cohortes, morts, espece);
+            }
+            croitreDecroitre(cohortes, i, espece);
+        } else if (Organisme.age(cohortes.naissance[i], cycle) >= espece.getAgeFertilite()) {
+            reproduire(cohortes, i, espece);
+        } else {
+            croitreDecroitre(cohortes, i, espece);
+        }
+    }
+
+    // The organisms of the row i, which have a surplus and are old enough, may have children. See
+    // Organisme.reproductionCheck. They all have the same chances, so the number of them that have each number of
+    // children is drawn from k = 0 up: among those left, the ones that have exactly k children have the probability
+    // P(N = k | N >= k). Each of these groups but the last leaves the row, then grows with what its children left.
+    private void reproduire(PopulationCohortes.Cohortes cohortes, int i, Espece espece) {
+        double budgetEnergetique = cohortes.budgetEnergetique[i];
+        double energieEnfant = espece.getEnergieEnfant();
+        int naissancesPossibles = Organisme.naissancesPossibles(energieEnfant, cohortes.energie[i], budgetEnergetique);
+        if (queuesNaissances.length <= naissancesPossibles)
+            queuesNaissances = new double[naissancesPossibles + 1];
+        var queues = queuesNaissances;
+        int maximum = Lois.queuesNaissances((int) budgetEnergetique, Organisme.coutNaissance(energieEnfant),
+                naissancesPossibles, espece.getFertilite(), queues);
+
+        var tirages = new Tirages(generateur, cohortes.cle[i], cycle, Tirages.Usage.REPRODUCTION);
+        int reste = cohortes.nombre[i];
+        for (int enfants = 0; reste > 0; enfants++) {
+            int nombre = enfants == maximum ? reste
+                    : reste - Lois.binomiale(tirages.suivant(), reste, queues[enfants + 1] / queues[enfants]);
+            if (nombre == 0)
+                continue;
+
+            int ligne = nombre == reste ? i : diviser(cohortes, i, nombre);
+            cohortes.enfants[ligne] = enfants * nombre;
+            cohortes.budgetEnergetique[ligne] = budgetEnergetique - enfants * energieEnfant;
+            croitreDecroitre(cohortes, ligne, espece);
+            reste -= nombre;
+        }
+    }
+
+    // Makes the organisms of the row i grow stronger or weaker. If after shrinking their energy < 0, they die.
+    // See Organisme.croitreDecroitre.
+    private void croitreDecroitre(PopulationCohortes.Cohortes cohortes, int i, Espece espece) {
+        double energie = Organisme.energieApres(espece.getEfficaciteEnergie(), espece.getTailleMaximum(),
+                cohortes.energie[i], cohortes.budgetEnergetique[i]);
+        cohortes.energie[i] = energie;
+        if (energie < 0)
+            cohortes.marquerMort(i);
+    }
+
+    // Adds the children counted by the last phase, one row per parent row after the rows of their species, and
+    // counts them. Newborns are 0 years old during this cycle; rows born from the same descriptor are merged at the
+    // end of the cycle.
+    private void ajouterEnfants(MesuresCycle.Categorie categorie, PopulationCohortes population) {
+        for (var cohortes : population.getEspeces()) {
+            int taille = cohortes.taille;  // Newborns are not parents.
+            for (int i = 0; i < taille; i++) {
+                int nombre = cohortes.enfants[i];
+                if (nombre == 0)
+                    continue;
+                cohortes.enfants[i] = 0;
+
+                int espece = cohortes.espece[i];
+                double energieEnfant = population.getDescripteur(espece).getEnergieEnfant();
+                long cle = generateur.bits(cohortes.cle[i], cycle, Tirages.Usage.NAISSANCE, 0);
+                population.ajouter(cohortes, espece, nombre, energieEnfant, cycle, cle);
+                if (mesures != null)
+                    mesures.compterNaissances(categorie, cohortes.identifiant, nombre);
+            }
+        }
+    }
+
+    private void enleverMorts() {
+        plantes.enleverMorts(mortsPlantes);
+        herbivores.enleverMorts(mortsHerbivores);
+        carnivores.enleverMorts(mortsCarnivores);
+
+        plantes.fusionner(cycle + 1);
+        herbivores.fusionner(cycle + 1);
+        carnivores.fusionner(cycle + 1);
+    }
+
+    private void compterMorts(MesuresCycle.Categorie categorie, int identifiant, int nombre) {
+        if (mesures != null)
+            mesures.compterMorts(categorie, identifiant, nombre);
+    }
+
+    private void mesurerPopulation(MesuresCycle.Categorie categorie, PopulationCohortes population) {
+        for (var cohortes : population.getEspeces())
+            mesures.setPopulation(categorie, cohortes.identifiant, cohortes.getIndividus(),
+                    AgregatEspece.enEnergie(cohortes.getEnergieFixe()));
+    }
+
+    // Moves nombre organisms of the row i to a new row, whose key is drawn from the key of the row i.
+    private int diviser(PopulationCohortes.Cohortes cohortes, int i, int nombre) {
+        long cle = generateur.bits(cohortes.cle[i], cycle, Tirages.Usage.DIVISION, cohortes.divisions[i]);
+        return cohortes.diviser(i, nombre, cle);
+    }
+
+    private double uniforme(PopulationCohortes.Cohortes cohortes, int i, Tirages.Usage usage, int rang) {
+        return generateur.uniforme(cohortes.cle[i], cycle, usage, rang);
+    }
+
+
+    // The plants of a species that herbivores can graze during a phase: the organisms of its rows at the start of the
+    // phase, numbered row after row. The first time a plant is grazed, it leaves its row for a row of its own, so that
+    // it can be found again by the same number. Which plant of the row leaves doesn't matter, they are identical: the
+    // plants of a row that left it take the first numbers of the row.
+    private final class Paturage {
+        private final PopulationCohortes.Cohortes cohortes;
+        private final int[] debuts;       // Number of the first plant of each row, then the total.
+        private final int[] nombres;      // Plants of each row that left it.
+        private final int[][] lignes;     // Rows of the plants that left each row, in the order they left.
+
+        private Paturage(PopulationCohortes.Cohortes cohortes) {
+            this.cohortes = cohortes;
+            int taille = cohortes.taille;
+            this.debuts = new int[taille + 1];
+            for (int i = 0; i < taille; i++)
+                debuts[i + 1] = debuts[i] + cohortes.nombre[i];
+            this.nombres = new int[taille];
+            this.lignes = new int[taille][];
+        }
+
+        private int getNombre() {
+            return debuts[debuts.length - 1];
+        }
+
+        // The plant numero loses fraction of its energy. Returns the energy eaten. See Plante.estMange.
+        private double manger(int numero, double fraction) {
+            int ligne = ligne(numero);
+            double energieMangee = cohortes.energie[ligne] * fraction;
+            cohortes.energie[ligne] -= energieMangee;
+            if (cohortes.energie[ligne] < 0)
+                cohortes.marquerMort(ligne);
+            return energieMangee;
+        }
+
+        // Returns the row of its own of the plant numero, splitting it from its row the first time.
+        private int ligne(int numero) {
+            int ligne = Arrays.binarySearch(debuts, numero);
+            if (ligne < 0)
+                ligne = -ligne - 2;
+            while (debuts[ligne + 1] == numero)
+                ligne++;  // Skips the empty rows.
+
+            int rang = numero - debuts[ligne];
+            int nombre = nombres[ligne];
+            if (rang < nombre)
+                return lignes[ligne][rang];
+
+            // rang is uniform among the plants still in the row, so the one that leaves now stands for it.
+            if (lignes[ligne] == null)
+                lignes[ligne] = new int[Math.min(4, debuts[ligne + 1] - debuts[ligne])];
+            else if (lignes[ligne].length == nombre)
+                lignes[ligne] = Arrays.copyOf(lignes[ligne], 2 * nombre);
+            lignes[ligne][nombre] = diviser(cohortes, ligne, 1);
+            return lignes[ligne][nombres[ligne]++];
+        }
+    }
+
+
+    // Getters
+    public int getEnergieSolaire() {
+        return energieSolaire;
+    }
+
+    @Override
+    public long getCycle() {
+        return cycle;
+    }
+
+    // Goes through every row, like LacColonnes.
+    @Override
+    public Map<String, AgregatEspece> resumePlantes() {
+        return plantes.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeHerbivores() {
+        return herbivores.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeCarnivores() {
+        return carnivores.resume();
+    }
+}
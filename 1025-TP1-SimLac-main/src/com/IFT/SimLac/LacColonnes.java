@@ -0,0 +1,553 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * This class simulates a lake like Lac, but keeps each category of organisms as columns of primitive arrays (see
+ * PopulationColonnes) instead of objects.
+ *
+ * Each phase goes through the rows of each species in order, reading and writing a few arrays, so it streams through
+ * memory instead of chasing a reference per organism. This suits lakes of millions of organisms. The rules are the
+ * ones of Organisme and its subclasses, applied to the columns, and the phases, draws and orders are the ones of Lac:
+ * with the same generator, both engines give the same results.
+ *
+ * Children are counted in a column while a phase runs, and added after it in the order of their parents, so rows
+ * can be processed by blocks in parallel, like in Lac.
+ *
+ * The arithmetic of the plant phase goes through a NoyauPlantes, which processes several plants per instruction when
+ * the Vector API is available.
+ */
+
+public final class LacColonnes implements MoteurLac {
+    private static final double[] AUCUNE_ENERGIE = new double[0];  // Energies of a species without any individual.
+
+    private final int energieSolaire;  // New energy from the sun injected into the ecosystem
+    private final PopulationColonnes plantes;
+    private final PopulationColonnes herbivores;
+    private final PopulationColonnes carnivores;
+    private final OrdonnanceurEspeces ordonnanceurHerbivores;  // Groups of herbivores that don't share plants.
+    private final OrdonnanceurEspeces ordonnanceurCarnivores;  // Groups of carnivores that don't share prey.
+    private final GenerateurAleatoire generateur;     // Source of all random draws. See Tirages.
+    private long cycle = 0;                           // Number of cycles simulated so far.
+    private ForkJoinPool executeur = null;            // Runs the parallel phases. null means sequential.
+    private MesuresCycle mesures;                     // What happens to each species during the current cycle.
+                                                      // null when there is no observateur.
+    private Consumer<MesuresCycle> observateur = null; // Receives the measures at the end of each cycle.
+    // Count the dead removed from each population. Kept so that enleverMorts allocates nothing.
+    private final Population.CompteurMorts mortsPlantes = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.PLANTE, identifiant, nombre);
+    private final Population.CompteurMorts mortsHerbivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.HERBIVORE, identifiant, nombre);
+    private final Population.CompteurMorts mortsCarnivores = (identifiant, nombre) ->
+            compterMorts(MesuresCycle.Categorie.CARNIVORE, identifiant, nombre);
+    private final NoyauPlantes noyauPlantes = NoyauPlantes.charger();
+
+    // Buffers reused from one tick to the next. Herbivores are numbered species after species.
+    private int[] nombresRepas = new int[0];          // Number of plants eaten by each herbivore.
+    private int[] debutsRepas = new int[1];           // Where the meals of each herbivore start in the next arrays.
+    private int[] debutsEspeces = new int[0];         // Number of the first herbivore of each species, by identifier.
+    private int[] especesMangees = new int[0];        // Species of each plant eaten, by identifier.
+    private int[] rangsMangees = new int[0];          // Row of each plant eaten in its species.
+    private double[] fractionsMangees = new double[0];
+    private final List<IndexProies[]> proies = new ArrayList<>();  // Prey of each group of carnivores, by identifier.
+    private final ThreadLocal<double[]> tiragesPlantes =            // Draws of the block of plants of each thread.
+            ThreadLocal.withInitial(() -> new double[ExecutionParBlocs.TAILLE_BLOC]);
+
+
+    // Constructor
+    // The organisms of the populations already have their keys. See usine.
+    LacColonnes(int energieSolaire, PopulationColonnes plantes, PopulationColonnes herbivores,
+                PopulationColonnes carnivores, GenerateurAleatoire generateur) {
+        this.energieSolaire = energieSolaire;
+        this.plantes = plantes;
+        this.herbivores = herbivores;
+        this.carnivores = carnivores;
+        this.generateur = generateur;
+
+        this.ordonnanceurHerbivores = new OrdonnanceurEspeces(
+                regimes(herbivores, espece -> ((EspeceHerbivore) espece).getAliments()));
+        this.ordonnanceurCarnivores = new OrdonnanceurEspeces(
+                regimes(carnivores, espece -> ((EspeceCarnivore) espece).getAliments()));
+    }
+
+    // Returns a factory that builds a lake from a scenario. See Scenario.creer.
+    public static Scenario.UsineMoteur<LacColonnes> usine() {
+        var plantes = new PopulationColonnes();
+        var herbivores = new PopulationColonnes();
+        var carnivores = new PopulationColonnes();
+        return new Scenario.UsineMoteur<>() {
+            @Override
+            public void ajouterGroupe(MesuresCycle.Categorie categorie, Espece espece, int quantite, long premiereCle) {
+                var population = switch (categorie) {
+                    case PLANTE -> plantes;
+                    case HERBIVORE -> herbivores;
+                    case CARNIVORE -> carnivores;
+                };
+                population.ajouterGroupe(espece, quantite, espece.getEnergieEnfant(), 0, premiereCle);
+            }
+
+            @Override
+            public LacColonnes creer(int energieSolaire, GenerateurAleatoire generateur) {
+                return new LacColonnes(energieSolaire, plantes, herbivores, carnivores, generateur);
+            }
+        };
+    }
+
+
+    @Override
+    public void setExecuteur(ForkJoinPool executeur) {
+        this.executeur = executeur;
+    }
+
+    @Override
+    public void setObservateur(Consumer<MesuresCycle> observateur) {
+        this.observateur = observateur;
+    }
+
+
+    // Simulates one cycle, with the same phases as Lac.tick.
+    @Override
+    public void tick() {
+        debuterCycle();
+
+        var evenement = EvenementPhase.debuter();
+        plantsLifeCycle();
+        terminerPhase(evenement, "plantes");
+
+        evenement = EvenementPhase.debuter();
+        herbivoresLifeCycle();
+        terminerPhase(evenement, "herbivores");
+
+        evenement = EvenementPhase.debuter();
+        carnivoreLifeCycle();
+        terminerPhase(evenement, "carnivores");
+
+        evenement = EvenementPhase.debuter();
+        enleverMorts();
+        terminerPhase(evenement, "enleverMorts");
+
+        terminerCycle();
+    }
+
+    private void terminerPhase(EvenementPhase evenement, String phase) {
+        evenement.terminer(phase, cycle, plantes.getTaille(), herbivores.getTaille(), carnivores.getTaille());
+    }
+
+    // The measures are only taken when someone receives them.
+    private void debuterCycle() {
+        if (observateur == null)
+            return;
+        mesures = new MesuresCycle(cycle);
+        for (var colonnes : plantes.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.PLANTE, colonnes.identifiant, colonnes.nom);
+        for (var colonnes : herbivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.HERBIVORE, colonnes.identifiant, colonnes.nom);
+        for (var colonnes : carnivores.getEspeces())
+            mesures.ajouterEspece(MesuresCycle.Categorie.CARNIVORE, colonnes.identifiant, colonnes.nom);
+    }
+
+    private void terminerCycle() {
+        cycle++;
+
+        if (observateur != null && mesures != null) {
+            mesurerPopulation(MesuresCycle.Categorie.PLANTE, plantes);
+            mesurerPopulation(MesuresCycle.Categorie.HERBIVORE, herbivores);
+            mesurerPopulation(MesuresCycle.Categorie.CARNIVORE, carnivores);
+            observateur.accept(mesures);
+        }
+        mesures = null;
+    }
+
+    // Each plant gets its share of the sun's energy, then goes through its life cycle. See Plante.bilanEnergetique.
+    // Only the checks that depend on a draw are done one plant at a time; the rest is done by noyauPlantes, on each
+    // series of rows of the same descriptor. Rows of a block usually all share one.
+    private void plantsLifeCycle() {
+        long energieTotaleFixe = 0;
+        for (var colonnes : plantes.getEspeces())
+            energieTotaleFixe += colonnes.getEnergieFixe();
+        double energieTotaleDesPlantes = AgregatEspece.enEnergie(energieTotaleFixe);
+
+        for (var colonnes : plantes.getEspeces()) {
+            ExecutionParBlocs.pourChaqueBloc(executeur, colonnes.taille, (bloc, debut, fin) -> {
+                var tirages = tiragesPlantes.get();
+                for (int debutSerie = debut, finSerie; debutSerie < fin; debutSerie = finSerie) {
+                    int numero = colonnes.espece[debutSerie];
+                    finSerie = debutSerie + 1;
+                    while (finSerie < fin && colonnes.espece[finSerie] == numero)
+                        finSerie++;
+                    plantsLifeCycle(colonnes, plantes.getDescripteur(numero), energieTotaleDesPlantes, tirages,
+                            debutSerie, finSerie);
+                }
+            });
+        }
+        ajouterEnfants(MesuresCycle.Categorie.PLANTE, plantes);
+    }
+
+    // Life cycle of the plants from debut to fin, which all have the descriptor espece.
+    private void plantsLifeCycle(PopulationColonnes.Colonnes colonnes, Espece espece, double energieTotaleDesPlantes,
+                                 double[] tirages, int debut, int fin) {
+        noyauPlantes.bilanEnergetique(energieSolaire, energieTotaleDesPlantes, espece.getBesoinEnergie(),
+                colonnes.energie, colonnes.budgetEnergetique, debut, fin);
+        noyauPlantes.tirer(generateur, cycle, colonnes.cle, colonnes.budgetEnergetique, tirages, debut, fin);
+        for (int i = debut; i < fin; i++)
+            survivreOuReproduire(colonnes, i, espece, tirages[i - debut]);
+        noyauPlantes.croitreDecroitre(espece.getEfficaciteEnergie(), espece.getTailleMaximum(), colonnes.energie,
+                colonnes.budgetEnergetique, colonnes.morts, debut, fin);
+    }
+
+    // Same steps as Lac.herbivoresLifeCycle: meals are counted and drawn by blocks, applied group by group in the
+    // herbivores' order, then each herbivore goes through the rest of its life cycle.
+    private void herbivoresLifeCycle() {
+        var especes = herbivores.getEspeces();
+        int taille = herbivores.getTaille();
+        if (nombresRepas.length < taille) {
+            nombresRepas = new int[taille + (taille >> 3)];
+            debutsRepas = new int[nombresRepas.length + 1];
+        }
+        int nombreIdentifiants = 0;
+        for (var colonnes : especes)
+            nombreIdentifiants = Math.max(nombreIdentifiants, colonnes.identifiant + 1);
+        if (debutsEspeces.length < nombreIdentifiants)
+            debutsEspeces = new int[nombreIdentifiants];
+        var debutsEspeces = this.debutsEspeces;
+        int debut = 0;
+        for (var colonnes : especes) {
+            debutsEspeces[colonnes.identifiant] = debut;
+            debut += colonnes.taille;
+        }
+
+        for (var colonnes : especes) {
+            int premier = debutsEspeces[colonnes.identifiant];
+            ExecutionParBlocs.pourChaqueBloc(executeur, colonnes.taille, (bloc, d, f) -> {
+                for (int i = d; i < f; i++)
+                    nombresRepas[premier + i] = nombrePlantesMangees(colonnes, i);
+            });
+        }
+
+        for (int i = 0; i < taille; i++)
+            debutsRepas[i + 1] = debutsRepas[i] + nombresRepas[i];
+        int totalRepas = debutsRepas[taille];
+        if (especesMangees.length < totalRepas) {
+            int capacite = totalRepas + (totalRepas >> 3);
+            especesMangees = new int[capacite];
+            rangsMangees = new int[capacite];
+            fractionsMangees = new double[capacite];
+        }
+
+        for (var colonnes : especes) {
+            int premier = debutsEspeces[colonnes.identifiant];
+            ExecutionParBlocs.pourChaqueBloc(executeur, colonnes.taille, (bloc, d, f) -> {
+                for (int i = d; i < f; i++)
+                    choisirPlantes(colonnes, i, nombresRepas[premier + i], debutsRepas[premier + i]);
+            });
+            if (mesures != null)
+                mesures.compterRepas(MesuresCycle.Categorie.HERBIVORE, colonnes.identifiant,
+                        debutsRepas[premier + colonnes.taille] - debutsRepas[premier]);
+        }
+
+        ordonnanceurHerbivores.executer(executeur, (groupe, g) -> {
+            for (var identifiant : groupe.getIdentifiantsConsommateurs()) {
+                var colonnes = herbivores.getEspece(identifiant);
+                if (colonnes == null)
+                    continue;
+                int premier = debutsEspeces[colonnes.identifiant];
+                for (int i = 0; i < colonnes.taille; i++)
+                    manger(colonnes, i, debutsRepas[premier + i], nombresRepas[premier + i]);
+            }
+        });
+
+        for (var colonnes : especes) {
+            ExecutionParBlocs.pourChaqueBloc(executeur, colonnes.taille, (bloc, d, f) -> {
+                for (int i = d; i < f; i++)
+                    cycleDeVie(colonnes, i, herbivores.getDescripteur(colonnes.espece[i]));
+            });
+        }
+        ajouterEnfants(MesuresCycle.Categorie.HERBIVORE, herbivores);
+    }
+
+    // Returns the number of plants the herbivore at row i eats: as many as its meals, or all the plants it can eat if
+    // there are not enough. See Lac.
+    private int nombrePlantesMangees(PopulationColonnes.Colonnes colonnes, int i) {
+        var espece = (EspeceHerbivore) herbivores.getDescripteur(colonnes.espece[i]);
+        int nombreMangeables = plantes.compter(espece.getIdentifiantsAliments());
+        int nombreRepas = Lois.geometrique(generateur.uniforme(colonnes.cle[i], cycle, Tirages.Usage.REPAS, 0),
+                espece.getDebrouillardise());
+        return Math.min(nombreMangeables, nombreRepas);
+    }
+
+    // Puts the nombre plants the herbivore at row i eats, and the fraction of each it eats, in the meal arrays from
+    // debut. Plants are picked by their rank among the species the herbivore can eat, in the order of its diet.
+    private void choisirPlantes(PopulationColonnes.Colonnes colonnes, int i, int nombre, int debut) {
+        var espece = (EspeceHerbivore) herbivores.getDescripteur(colonnes.espece[i]);
+        var aliments = espece.getIdentifiantsAliments();
+        int nombreMangeables = plantes.compter(aliments);
+        long cle = colonnes.cle[i];
+
+        if (nombre == nombreMangeables) {
+            // Eats them all.
+            int k = debut;
+            for (var aliment : aliments) {
+                var proies = plantes.getEspece(aliment);
+                for (int rang = 0; proies != null && rang < proies.taille; rang++) {
+                    especesMangees[k] = aliment;
+                    rangsMangees[k++] = rang;
+                }
+            }
+        } else {
+            for (int j = 0; j < nombre; j++) {
+                int rang = (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j) * nombreMangeables);
+                for (var aliment : aliments) {
+                    var proies = plantes.getEspece(aliment);
+                    int nombreEspece = proies == null ? 0 : proies.taille;
+                    if (rang < nombreEspece) {
+                        especesMangees[debut + j] = aliment;
+                        rangsMangees[debut + j] = rang;
+                        break;
+                    }
+                    rang -= nombreEspece;
+                }
+            }
+        }
+
+        double voraciteMin = espece.getVoraciteMin();
+        double range = espece.getVoraciteMax() - voraciteMin;
+        for (int j = 0; j < nombre; j++)
+            fractionsMangees[debut + j] = voraciteMin + generateur.uniforme(cle, cycle, Tirages.Usage.VORACITE, j) * range;
+    }
+
+    // The herbivore at row i eats its nombre meals from debut. See Herbivore.bilanEnergetique.
+    private void manger(PopulationColonnes.Colonnes colonnes, int i, int debut, int nombre) {
+        double energieRecue = 0;
+        for (int k = debut; k < debut + nombre; k++) {
+            var plante = plantes.getEspece(especesMangees[k]);
+            int rang = rangsMangees[k];
+            double energieMangee = plante.energie[rang] * fractionsMangees[k];
+
+            energieRecue += energieMangee;
+            plante.energie[rang] -= energieMangee;
+            if (plante.energie[rang] < 0)
+                plante.marquerMort(rang);
+        }
+        colonnes.budgetEnergetique[i] = energieRecue - herbivores.getDescripteur(colonnes.espece[i]).getBesoinEnergie();
+    }
+
+    // Carnivores of a group hunt one after the other; groups hunt concurrently. See Lac.carnivoreLifeCycle.
+    private void carnivoreLifeCycle() {
+        var groupes = ordonnanceurCarnivores.getGroupes();
+        while (proies.size() < groupes.size())
+            proies.add(null);
+
+        ordonnanceurCarnivores.executer(executeur, (groupe, g) -> {
+            var index = indexerProies(groupe, g);
+
+            // Each species belongs to a single group, so only this thread counts its meals.
+            for (var identifiant : groupe.getIdentifiantsConsommateurs()) {
+                var colonnes = carnivores.getEspece(identifiant);
+                if (colonnes == null)
+                    continue;
+                long nombreRepas = 0;
+                for (int i = 0; i < colonnes.taille; i++)
+                    nombreRepas += chasser(colonnes, i, index);
+                if (nombreRepas > 0 && mesures != null)
+                    mesures.compterRepas(MesuresCycle.Categorie.CARNIVORE, identifiant, nombreRepas);
+            }
+        });
+        ajouterEnfants(MesuresCycle.Categorie.CARNIVORE, carnivores);
+    }
+
+    // The carnivore at row i hunts, then goes through the rest of its life cycle. Returns the number of herbivores
+    // eaten. Eaten prey are removed from the index and marked dead. See Lac.listerHerbivoresMangees.
+    private int chasser(PopulationColonnes.Colonnes colonnes, int i, IndexProies[] proies) {
+        var espece = (EspeceCarnivore) carnivores.getDescripteur(colonnes.espece[i]);
+        var aliments = espece.getIdentifiantsAliments();
+        long cle = colonnes.cle[i];
+        double energieMax = colonnes.energie[i];
+
+        int nombreMangeables = 0;
+        for (var aliment : aliments) {
+            var index = aliment < proies.length ? proies[aliment] : null;
+            if (index != null)
+                nombreMangeables += index.compter(energieMax);
+        }
+
+        // Carnivores can't eat more prey than there are weaker prey available.
+        int nombreRepas = Math.min(Lois.geometrique(generateur.uniforme(cle, cycle, Tirages.Usage.REPAS, 0),
+                espece.getDebrouillardise()), nombreMangeables);
+        boolean mangeToutes = nombreRepas == nombreMangeables;
+
+        double energieRecue = 0;
+        for (int j = 0; j < nombreRepas; j++) {
+            // When all the prey get eaten, no need to draw them at random.
+            int rang = mangeToutes ? 0 : (int) (generateur.uniforme(cle, cycle, Tirages.Usage.CHOIX, j)
+                    * nombreMangeables);
+            energieRecue += retirerProie(aliments, proies, energieMax, rang);
+            nombreMangeables--;
+        }
+        colonnes.budgetEnergetique[i] = energieRecue - espece.getBesoinEnergie();
+
+        cycleDeVie(colonnes, i, espece);
+        return nombreRepas;
+    }
+
+    // Removes from the index the rang-th prey weaker than energieMax, counting species in the order of aliments,
+    // marks it dead and returns its energy.
+    private double retirerProie(int[] aliments, IndexProies[] proies, double energieMax, int rang) {
+        for (var aliment : aliments) {
+            var index = aliment < proies.length ? proies[aliment] : null;
+            if (index == null)
+                continue;
+
+            int nombre = index.compter(energieMax);
+            if (rang < nombre) {
+                var colonnes = herbivores.getEspece(aliment);
+                int position = index.retirer(rang);
+                colonnes.marquerMort(position);
+                return colonnes.energie[position];
+            }
+            rang -= nombre;
+        }
+        throw new IndexOutOfBoundsException(rang);
+    }
+
+    // Indexes by energy the herbivore species hunted by the group g, reusing the indexes of the previous hunt.
+    private IndexProies[] indexerProies(OrdonnanceurEspeces.Groupe groupe, int g) {
+        var aliments = groupe.getIdentifiantsAliments();
+        var index = proies.get(g);
+        if (index == null) {
+            int taille = 0;
+            for (var aliment : aliments)
+                taille = Math.max(taille, aliment + 1);
+            index = new IndexProies[taille];
+            for (var aliment : aliments)
+                index[aliment] = new IndexProies();
+            proies.set(g, index);
+        }
+
+        for (var aliment : aliments) {
+            var colonnes = herbivores.getEspece(aliment);
+            if (colonnes == null)
+                index[aliment].indexer(AUCUNE_ENERGIE, 0);
+            else
+                index[aliment].indexer(colonnes.energie, colonnes.taille);
+        }
+        return index;
+    }
+
+    // Life cycle of the organism at row i once its energetic budget is known: it may die, have children and grows or
+    // shrinks. Same rules as Organisme.survivalCheck, reproductionCheck and croitreDecroitre, in that order.
+    // Children are only counted, see ajouterEnfants.
+    private void cycleDeVie(PopulationColonnes.Colonnes colonnes, int i, Espece espece) {
+        var usage = colonnes.budgetEnergetique[i] < 0 ? Tirages.Usage.SURVIE : Tirages.Usage.REPRODUCTION;
+        survivreOuReproduire(colonnes, i, espece, generateur.uniforme(colonnes.cle[i], cycle, usage, 0));
+
+        double energie = Organisme.energieApres(espece.getEfficaciteEnergie(), espece.getTailleMaximum(),
+                colonnes.energie[i], colonnes.budgetEnergetique[i]);
+        colonnes.energie[i] = energie;
+        if (energie < 0)
+            colonnes.marquerMort(i);
+    }
+
+    // The organism at row i dies with a deficit, or may have children with a surplus. tirage is its uniform draw
+    // for the check it goes through: SURVIE with a deficit, REPRODUCTION otherwise. See Organisme.survivalCheck and
+    // reproductionCheck.
+    private void survivreOuReproduire(PopulationColonnes.Colonnes colonnes, int i, Espece espece, double tirage) {
+        double budgetEnergetique = colonnes.budgetEnergetique[i];
+        colonnes.enfants[i] = 0;
+
+        if (budgetEnergetique < 0) {
+            if (tirage > Organisme.chanceSurvie(espece.getResilience(), budgetEnergetique))
+                colonnes.marquerMort(i);
+        } else if (Organisme.age(colonnes.naissance[i], cycle) >= espece.getAgeFertilite()) {
+            int enfants = Organisme.naissances(tirage, espece.getFertilite(), espece.getEnergieEnfant(),
+                    colonnes.energie[i], budgetEnergetique);
+            colonnes.enfants[i] = enfants;
+            colonnes.budgetEnergetique[i] = budgetEnergetique - enfants * espece.getEnergieEnfant();
+        }
+    }
+
+    // Adds the children counted by the last phase after the rows of their species, in the order of their parents,
+    // and counts them. Newborns are 0 years old during this cycle and their keys are drawn like in Lac.
+    private void ajouterEnfants(MesuresCycle.Categorie categorie, PopulationColonnes population) {
+        for (var colonnes : population.getEspeces()) {
+            int taille = colonnes.taille;  // Newborns are not parents.
+            for (int i = 0; i < taille; i++) {
+                int nombre = colonnes.enfants[i];
+                if (nombre == 0)
+                    continue;
+                colonnes.enfants[i] = 0;
+
+                int espece = colonnes.espece[i];
+                double energieEnfant = population.getDescripteur(espece).getEnergieEnfant();
+                for (int rang = 0; rang < nombre; rang++) {
+                    long cle = generateur.bits(colonnes.cle[i], cycle, Tirages.Usage.NAISSANCE, rang);
+                    population.ajouter(colonnes, espece, energieEnfant, cycle, cle);
+                }
+                if (mesures != null)
+                    mesures.compterNaissances(categorie, colonnes.identifiant, nombre);
+            }
+        }
+    }
+
+    private void enleverMorts() {
+        plantes.enleverMorts(mortsPlantes);
+        herbivores.enleverMorts(mortsHerbivores);
+        carnivores.enleverMorts(mortsCarnivores);
+    }
+
+    private void compterMorts(MesuresCycle.Categorie categorie, int identifiant, int nombre) {
+        if (mesures != null)
+            mesures.compterMorts(categorie, identifiant, nombre);
+    }
+
+    private void mesurerPopulation(MesuresCycle.Categorie categorie, PopulationColonnes population) {
+        for (var colonnes : population.getEspeces())
+            mesures.setPopulation(categorie, colonnes.identifiant, colonnes.taille,
+                    AgregatEspece.enEnergie(colonnes.getEnergieFixe()));
+    }
+
+    // Returns the diet of each species of a population: the union of the diets of its descriptors.
+    private static Map<String, Set<String>> regimes(PopulationColonnes population,
+                                                    Function<Espece, Set<String>> aliments) {
+        var regimes = new LinkedHashMap<String, Set<String>>();
+        for (var colonnes : population.getEspeces())
+            regimes.put(colonnes.nom, new LinkedHashSet<>());
+        for (var espece : population.getDescripteurs())
+            regimes.get(espece.getNom()).addAll(aliments.apply(espece));
+        return regimes;
+    }
+
+
+    // Getters
+    public int getEnergieSolaire() {
+        return energieSolaire;
+    }
+
+    @Override
+    public long getCycle() {
+        return cycle;
+    }
+
+    // Goes through every organism, unlike Lac which keeps its totals up to date.
+    @Override
+    public Map<String, AgregatEspece> resumePlantes() {
+        return plantes.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeHerbivores() {
+        return herbivores.resume();
+    }
+
+    @Override
+    public Map<String, AgregatEspece> resumeCarnivores() {
+        return carnivores.resume();
+    }
+}
@@ -0,0 +1,232 @@
+package com.IFT.SimLac;
+
+/**
+ * This class samples the random quantities of an organism's life cycle directly from their distribution, with a
+ * single uniform draw, instead of rolling until a roll fails.
+ *
+ * Each sampler is distributionally equivalent to the loop it replaces, which is described in its comment.
+ *
+ * binomiale and queuesNaissances apply such a roll to a whole cohort of identical organisms at once. See LacCohortes.
+ */
+
+public final class Lois {
+
+    // Coefficients of the Lanczos approximation of the gamma function (g = 7, n = 9).
+    private static final double[] LANCZOS = {
+            0.99999999999980993, 676.5203681218851, -1259.1392167224028, 771.32342877765313,
+            -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6,
+            1.5056327351493116e-7
+    };
+
+    private static final int ITERATIONS_MAX = 300;  // Limit of the continued fraction of the incomplete beta.
+    private static final double EPSILON = 1e-15;
+    private static final double MINIMUM = 1e-300;   // Keeps the continued fraction away from divisions by 0.
+
+    // Coefficients of the series of the error of Stirling's formula, in 1 / n^2.
+    private static final double[] STIRLING = {1.0 / 12, 1.0 / 360, 1.0 / 1260, 1.0 / 1680, 1.0 / 1188};
+
+    private Lois() {}
+
+
+    // Number of rolls in a row lesser or equal to p, i.e. rolling until a roll is greater than p.
+    // Geometric distribution: P(N >= k) = p^k. u is uniform in [0, 1).
+    public static int geometrique(double u, double p) {
+        if (p <= 0)
+            return 0;
+        if (p >= 1)
+            return Integer.MAX_VALUE;  // Every roll succeeds.
+
+        // 1 - u is uniform in (0, 1], so the logarithm is finite. P(N >= k) = P(1 - u <= p^k) = p^k.
+        double n = Math.floor(Math.log1p(-u) / Math.log(p));
+        return n >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n;
+    }
+
+    // Number of births given by the following loop, where each roll succeeds with probability p:
+    //     while (essais > 0 && naissances < maximum)
+    //         if (roll succeeds) { naissances++; essais -= cout; } else essais--;
+    // The k-th birth happens when at most essais - (k - 1) * cout - 1 rolls failed before it, which is the
+    // probability that Bin(essais - (k - 1) * (cout - 1), p) >= k. u is uniform in [0, 1).
+    public static int naissances(double u, int essais, int cout, int maximum, double p) {
+        int naissances = 0;
+        while (naissances < maximum) {
+            int n = essais - naissances * (cout - 1);  // Rolls that could lead to the next birth.
+            if (n < naissances + 1 || u >= queueBinomiale(n, naissances + 1, p))
+                break;
+            naissances++;
+        }
+        return naissances;
+    }
+
+    // Returns P(Bin(n, p) >= k), for 1 <= k <= n.
+    public static double queueBinomiale(int n, int k, double p) {
+        return betaIncomplete(p, k, n - k + 1.0);
+    }
+
+    // Fills queues[k] with the probability that naissances(u, essais, cout, maximum, p) returns k or more, for u
+    // uniform in [0, 1) and k from 0 to the returned value; beyond it, the probability is 0. queues must hold
+    // maximum + 1 values.
+    // naissances returns k or more when u is below the tail of every birth up to the k-th, hence the running minimum.
+    public static int queuesNaissances(int essais, int cout, int maximum, double p, double[] queues) {
+        queues[0] = 1;
+        int naissances = 0;
+        while (naissances < maximum) {
+            int n = essais - naissances * (cout - 1);
+            if (n < naissances + 1)
+                break;
+            double queue = Math.min(queues[naissances], queueBinomiale(n, naissances + 1, p));
+            if (queue <= 0)
+                break;
+            queues[++naissances] = queue;
+        }
+        return naissances;
+    }
+
+    // Number of rolls that succeed among n, where each roll succeeds with probability p: Bin(n, p). u is uniform in
+    // [0, 1). Drawn by inversion, visiting the outcomes from the mode outwards, alternately above and below it, so
+    // that it takes O(sqrt(n p (1 - p))) steps whatever n.
+    public static int binomiale(double u, int n, double p) {
+        if (n <= 0 || p <= 0)
+            return 0;
+        if (p >= 1)
+            return n;
+
+        int mode = (int) Math.min((n + 1) * p, n);
+        double masseHaut = masseBinomiale(mode, n, p);
+        double masseBas = masseHaut;
+        double reste = u - masseHaut;
+        double rapport = p / (1 - p);  // P(k + 1) / P(k) = (n - k) / (k + 1) * rapport.
+        int haut = mode;
+        int bas = mode;
+        while (reste >= 0) {
+            boolean monte = haut < n && masseHaut > 0;
+            boolean descend = bas > 0 && masseBas > 0;
+            if (!monte && !descend)
+                return mode;  // Rounding left a little mass out of the outcomes.
+
+            if (monte) {
+                masseHaut *= (double) (n - haut) / (haut + 1) * rapport;
+                haut++;
+                reste -= masseHaut;
+                if (reste < 0)
+                    return haut;
+            }
+            if (descend) {
+                masseBas *= bas / ((n - bas + 1) * rapport);
+                bas--;
+                reste -= masseBas;
+            }
+        }
+        return bas;
+    }
+
+
+    // Regularized incomplete beta function I_x(a, b), evaluated with its continued fraction.
+    private static double betaIncomplete(double x, double a, double b) {
+        if (x <= 0)
+            return 0;
+        if (x >= 1)
+            return 1;
+
+        double facteur = Math.exp(lnGamma(a + b) - lnGamma(a) - lnGamma(b) + a * Math.log(x) + b * Math.log1p(-x));
+        // The continued fraction converges quickly on this side; otherwise use I_x(a, b) = 1 - I_(1-x)(b, a).
+        if (x < (a + 1) / (a + b + 2))
+            return facteur * fractionContinue(x, a, b) / a;
+        return 1 - facteur * fractionContinue(1 - x, b, a) / b;
+    }
+
+    // Continued fraction of the incomplete beta function, evaluated with the modified Lentz method.
+    private static double fractionContinue(double x, double a, double b) {
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        if (Math.abs(d) < MINIMUM)
+            d = MINIMUM;
+        d = 1 / d;
+        double resultat = d;
+
+        for (int m = 1; m <= ITERATIONS_MAX; m++) {
+            int m2 = 2 * m;
+
+            // Even step
+            double coefficient = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + coefficient * d;
+            if (Math.abs(d) < MINIMUM)
+                d = MINIMUM;
+            c = 1 + coefficient / c;
+            if (Math.abs(c) < MINIMUM)
+                c = MINIMUM;
+            d = 1 / d;
+            resultat *= d * c;
+
+            // Odd step
+            coefficient = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + coefficient * d;
+            if (Math.abs(d) < MINIMUM)
+                d = MINIMUM;
+            c = 1 + coefficient / c;
+            if (Math.abs(c) < MINIMUM)
+                c = MINIMUM;
+            d = 1 / d;
+            double delta = d * c;
+            resultat *= delta;
+
+            if (Math.abs(delta - 1) < EPSILON)
+                break;
+        }
+        return resultat;
+    }
+
+    // P(Bin(n, p) = k), for 0 <= k <= n and 0 < p < 1. Evaluated with Loader's saddle point expansion, which keeps its
+    // relative accuracy for large n, where the logarithms of factorials would cancel each other out.
+    private static double masseBinomiale(int k, int n, double p) {
+        if (k == 0)
+            return Math.exp(n * Math.log1p(-p));
+        if (k == n)
+            return Math.exp(n * Math.log(p));
+
+        double logarithme = erreurStirling(n) - erreurStirling(k) - erreurStirling(n - k)
+                - ecartDeviance(k, n * p) - ecartDeviance(n - k, n * (1 - p));
+        return Math.exp(logarithme) * Math.sqrt(n / (2 * Math.PI * k * (double) (n - k)));
+    }
+
+    // ln(n!) - ln(sqrt(2 pi n) (n / e)^n): the error of Stirling's formula, for n >= 1.
+    private static double erreurStirling(int n) {
+        if (n <= 15)
+            return lnGamma(n + 1.0) - (n + 0.5) * Math.log(n) + n - 0.5 * Math.log(2 * Math.PI);
+
+        double inverseCarre = 1.0 / ((double) n * n);
+        double serie = STIRLING[4];
+        for (int i = 3; i >= 0; i--)
+            serie = STIRLING[i] - serie * inverseCarre;
+        return serie / n;
+    }
+
+    // x ln(x / moyenne) + moyenne - x, without the cancellation when x is close to moyenne.
+    private static double ecartDeviance(double x, double moyenne) {
+        if (Math.abs(x - moyenne) >= 0.1 * (x + moyenne))
+            return x * Math.log(x / moyenne) + moyenne - x;
+
+        double v = (x - moyenne) / (x + moyenne);
+        double somme = (x - moyenne) * v;
+        double terme = 2 * x * v;
+        for (int j = 1; ; j++) {
+            terme *= v * v;
+            double suivante = somme + terme / (2 * j + 1);
+            if (suivante == somme)
+                return somme;
+            somme = suivante;
+        }
+    }
+
+    // Logarithm of the gamma function, for x > 0 (Lanczos approximation).
+    private static double lnGamma(double x) {
+        if (x < 0.5)  // Reflection formula
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - lnGamma(1 - x);
+
+        x -= 1;
+        double somme = LANCZOS[0];
+        double t = x + 7.5;
+        for (int i = 1; i < LANCZOS.length; i++)
+            somme += LANCZOS[i] / (x + i);
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(somme);
+    }
+}
@@ -0,0 +1,168 @@
+package com.IFT.SimLac;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * This class simulates a batch of lakes, read one after the other from XML files or from a single stream, and writes
+ * the report of each lake in reading order.
+ *
+ * Work goes through three stages, so that thousands of small lakes run in one JVM with parsing overlapped with compute:
+ * a parser thread reads the lakes (see ConditionsInitiales.hasNext) and hands each one over to a fixed pool of workers,
+ * which simulate them; the calling thread writes their reports as they come out, in the order the lakes were read.
+ * The parser gets only a few lakes ahead of the writer, so memory stays bounded however large the batch is.
+ *
+ * Every lake draws its random values from a generator with the same seed, so the report of a lake is the one it would
+ * get if it was simulated alone with that seed. A lake that can't be read or simulated gets an error in its report,
+ * and the batch goes on with the next file.
+ */
+
+public final class Lot {
+
+    private static final Future<String> FIN = CompletableFuture.completedFuture(null);  // No lake left.
+
+    private final List<Path> fichiers;  // Files to read, in order. Ignored when there is an entree.
+    private final InputStream entree;   // Stream to read instead of fichiers. null to read fichiers.
+    private int nombreErreurs = 0;
+
+
+    // Constructors
+    private Lot(List<Path> fichiers, InputStream entree) {
+        this.fichiers = List.copyOf(fichiers);
+        this.entree = entree;
+    }
+
+    // Reads the lakes of the file chemin, or of every .xml file of the directory chemin in the order of their names.
+    // A directory without any .xml file gives an empty batch.
+    public static Lot depuis(Path chemin) throws IOException {
+        if (!Files.isDirectory(chemin))
+            return new Lot(List.of(chemin), null);
+
+        try (var contenu = Files.list(chemin)) {
+            var fichiers = contenu.filter(fichier -> fichier.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            return new Lot(fichiers, null);
+        }
+    }
+
+    // Reads the lakes of the stream entree.
+    public static Lot depuis(InputStream entree) {
+        return new Lot(List.of(), entree);
+    }
+
+
+    // Simulates every lake for nombreCycles cycles on parallelisme threads and writes their reports to out.
+    public void executer(int nombreCycles, int parallelisme, long graine, boolean recyclage, PrintStream out)
+            throws InterruptedException {
+        ExecutorService executeur = Executors.newFixedThreadPool(Math.max(1, parallelisme));
+        BlockingQueue<Future<String>> rapports = new ArrayBlockingQueue<>(2 * Math.max(1, parallelisme));
+        var lecteur = new Thread(() -> lire(executeur, rapports, nombreCycles, graine, recyclage), "Lot");
+        lecteur.setDaemon(true);
+        lecteur.start();
+
+        try {
+            while (true) {
+                var rapport = rapports.take();
+                if (rapport == FIN)
+                    break;
+                try {
+                    out.print(rapport.get());
+                } catch (ExecutionException e) {
+                    nombreErreurs++;
+                    out.println("erreur: " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            lecteur.interrupt();
+            executeur.shutdownNow();
+        }
+    }
+
+    // Returns the number of lakes that couldn't be read or simulated by the last run.
+    public int getNombreErreurs() {
+        return nombreErreurs;
+    }
+
+
+    // Parser stage: submits each lake to executeur as soon as it is read, and queues the reports in reading order.
+    private void lire(ExecutorService executeur, BlockingQueue<Future<String>> rapports, int nombreCycles, long graine,
+                      boolean recyclage) {
+        var xmlInputFactory = XMLInputFactory.newInstance();
+        int numero = 0;
+        try {
+            if (entree != null) {
+                lireSource(xmlInputFactory, entree, null, numero, executeur, rapports, nombreCycles, graine, recyclage);
+            } else {
+                for (var fichier : fichiers) {
+                    try (var source = Files.newInputStream(fichier)) {
+                        numero = lireSource(xmlInputFactory, source, fichier.getFileName().toString(), numero,
+                                executeur, rapports, nombreCycles, graine, recyclage);
+                    } catch (IOException e) {
+                        rapports.put(CompletableFuture.failedFuture(
+                                new IOException("je ne peux pas lire " + fichier, e)));
+                    }
+                }
+            }
+            rapports.put(FIN);
+        } catch (InterruptedException e) {
+            // The writer stopped; nobody is waiting for the next lakes.
+        }
+    }
+
+    // Reads every lake of source and returns the number of the last one, counting from numero.
+    private int lireSource(XMLInputFactory xmlInputFactory, InputStream source, String nom, int numero,
+                           ExecutorService executeur, BlockingQueue<Future<String>> rapports, int nombreCycles,
+                           long graine, boolean recyclage) throws InterruptedException {
+        var prefixe = nom == null ? "" : nom + ": ";
+        try {
+            var conditionsInitiales = new ConditionsInitiales(xmlInputFactory.createXMLStreamReader(source));
+            while (conditionsInitiales.hasNext()) {
+                var scenario = conditionsInitiales.nextScenario();
+                var titre = "Lac " + ++numero + (nom == null ? "" : " (" + nom + ")");
+                rapports.put(executeur.submit(() -> simuler(scenario, titre, nombreCycles, graine, recyclage)));
+            }
+        } catch (XMLStreamException | ConditionsInitialesInvalides | RuntimeException e) {
+            // The cursor may be anywhere in the document, so the rest of it is skipped.
+            rapports.put(CompletableFuture.failedFuture(new ConditionsInitialesInvalides(
+                    prefixe + "les conditions initiales sont invalides: " + e.getMessage(), e)));
+        }
+        return numero;
+    }
+
+    // Worker stage: simulates one lake and returns its report.
+    private static String simuler(Scenario scenario, String titre, int nombreCycles, long graine, boolean recyclage) {
+        Lac lac;
+        try {
+            lac = scenario.creerLac(new GenerateurCompteur(graine));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException(titre + ": les conditions initiales sont invalides: " + e.getMessage(), e);
+        }
+        lac.setRecyclage(recyclage);
+        for (int i = 0; i < nombreCycles; i++)
+            lac.tick();
+
+        var rapport = new ByteArrayOutputStream();
+        try (var out = new PrintStream(rapport, false, StandardCharsets.UTF_8)) {
+            out.println(titre + ", après " + lac.getCycle() + " cycles :");
+            lac.imprimeRapport(out);
+        }
+        return rapport.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,119 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds what happened to each species during one cycle of a Lac: how many individuals were born, died and
+ * had a meal, and how many individuals and how much energy are left at the end of the cycle.
+ *
+ * Lac fills it while the cycle runs, then hands it to its observer. It is not modified afterwards, so it can be
+ * passed to another thread, see EcrivainMesures.
+ */
+
+public final class MesuresCycle {
+
+    public enum Categorie {PLANTE, HERBIVORE, CARNIVORE}
+
+    // Measures of one species during the cycle.
+    public static final class Espece {
+        private final Categorie categorie;
+        private final String nom;
+        private int individus = 0;    // Number of individuals alive at the end of the cycle.
+        private double energie = 0;   // Total energy of those individuals.
+        private int naissances = 0;
+        private int morts = 0;        // Including herbivores eaten.
+        private long repas = 0;       // Plants grazed or herbivores eaten. A plant grazed twice counts twice.
+
+        private Espece(Categorie categorie, String nom) {
+            this.categorie = categorie;
+            this.nom = nom;
+        }
+
+        // Getters
+        public Categorie getCategorie() {
+            return categorie;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public int getIndividus() {
+            return individus;
+        }
+
+        public double getEnergie() {
+            return energie;
+        }
+
+        public int getNaissances() {
+            return naissances;
+        }
+
+        public int getMorts() {
+            return morts;
+        }
+
+        public long getRepas() {
+            return repas;
+        }
+    }
+
+
+    private final long cycle;
+    private final List<Espece> especes = new ArrayList<>();  // In the order they were added.
+    // Same species by category, then by identifier (see RegistreEspeces): a plant and an animal may share a name.
+    private final Espece[][] parIdentifiant = new Espece[Categorie.values().length][0];
+
+
+    // Constructor
+    MesuresCycle(long cycle) {
+        this.cycle = cycle;
+    }
+
+
+    // Species must be added before the cycle starts: the phases only update existing entries, which is safe from
+    // several threads as long as each species is updated by one thread at a time.
+    void ajouterEspece(Categorie categorie, int identifiant, String nom) {
+        var espece = new Espece(categorie, nom);
+        especes.add(espece);
+
+        var index = parIdentifiant[categorie.ordinal()];
+        if (index.length <= identifiant)
+            parIdentifiant[categorie.ordinal()] = index = Arrays.copyOf(index, identifiant + 1);
+        index[identifiant] = espece;
+    }
+
+    void compterNaissances(Categorie categorie, int identifiant, int nombre) {
+        parIdentifiant[categorie.ordinal()][identifiant].naissances += nombre;
+    }
+
+    void compterMorts(Categorie categorie, int identifiant, int nombre) {
+        parIdentifiant[categorie.ordinal()][identifiant].morts += nombre;
+    }
+
+    void compterRepas(Categorie categorie, int identifiant, long nombre) {
+        parIdentifiant[categorie.ordinal()][identifiant].repas += nombre;
+    }
+
+    void setPopulation(Categorie categorie, int identifiant, int individus, double energie) {
+        var espece = parIdentifiant[categorie.ordinal()][identifiant];
+        espece.individus = individus;
+        espece.energie = energie;
+    }
+
+
+    // Getters
+    public long getCycle() {
+        return cycle;
+    }
+
+    // Species alive at the start of the cycle: plants, then herbivores and carnivores.
+    public Collection<Espece> getEspeces() {
+        return Collections.unmodifiableCollection(especes);
+    }
+}
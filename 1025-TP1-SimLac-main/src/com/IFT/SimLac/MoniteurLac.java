@@ -0,0 +1,113 @@
+package com.IFT.SimLac;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+/**
+ * Exposes the progress of a running Lac through JMX, under the name com.IFT.SimLac:type=Lac.
+ *
+ * It is an observer of the lake (see Lac.setObservateur): at the end of each cycle, it keeps the totals of the
+ * measures. The simulation thread writes them and JMX threads read them, so they are volatile; each value is
+ * consistent on its own, but two values may come from consecutive cycles.
+ */
+
+public final class MoniteurLac implements MoniteurLacMXBean, Consumer<MesuresCycle> {
+
+    public static final String NOM = "com.IFT.SimLac:type=Lac";
+    private static final double LISSAGE = 0.1;  // Weight of the last cycle in the average duration of a cycle.
+
+    private volatile long cycle = 0;
+    private volatile double ticksParSeconde = 0;
+    private volatile int plantes = 0;
+    private volatile int herbivores = 0;
+    private volatile int carnivores = 0;
+    private volatile int naissances = 0;
+    private volatile int morts = 0;
+
+    // Only used by the simulation thread. The rate is known from the second cycle observed on.
+    private boolean premierCycle = true;
+    private long finPrecedente;                      // End of the previous cycle.
+    private double dureeMoyenne = Double.NaN;        // In nanoseconds.
+
+
+    // Registers this monitor on the platform MBean server.
+    public void enregistrer() throws JMException {
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        var nom = new ObjectName(NOM);
+        try {
+            serveur.registerMBean(this, nom);
+        } catch (InstanceAlreadyExistsException e) {
+            serveur.unregisterMBean(nom);
+            serveur.registerMBean(this, nom);
+        }
+    }
+
+    @Override
+    public void accept(MesuresCycle mesures) {
+        long fin = System.nanoTime();
+        if (!premierCycle) {
+            double duree = fin - finPrecedente;
+            dureeMoyenne = Double.isNaN(dureeMoyenne) ? duree : (1 - LISSAGE) * dureeMoyenne + LISSAGE * duree;
+            this.ticksParSeconde = 1e9 / dureeMoyenne;
+        }
+        premierCycle = false;
+        finPrecedente = fin;
+
+        int[] individus = new int[MesuresCycle.Categorie.values().length];
+        int naissances = 0;
+        int morts = 0;
+        for (var espece : mesures.getEspeces()) {
+            individus[espece.getCategorie().ordinal()] += espece.getIndividus();
+            naissances += espece.getNaissances();
+            morts += espece.getMorts();
+        }
+
+        this.cycle = mesures.getCycle() + 1;
+        this.plantes = individus[MesuresCycle.Categorie.PLANTE.ordinal()];
+        this.herbivores = individus[MesuresCycle.Categorie.HERBIVORE.ordinal()];
+        this.carnivores = individus[MesuresCycle.Categorie.CARNIVORE.ordinal()];
+        this.naissances = naissances;
+        this.morts = morts;
+    }
+
+
+    // Getters
+    @Override
+    public long getCycle() {
+        return cycle;
+    }
+
+    @Override
+    public double getTicksParSeconde() {
+        return ticksParSeconde;
+    }
+
+    @Override
+    public int getPlantes() {
+        return plantes;
+    }
+
+    @Override
+    public int getHerbivores() {
+        return herbivores;
+    }
+
+    @Override
+    public int getCarnivores() {
+        return carnivores;
+    }
+
+    @Override
+    public int getNaissances() {
+        return naissances;
+    }
+
+    @Override
+    public int getMorts() {
+        return morts;
+    }
+}
@@ -0,0 +1,26 @@
+package com.IFT.SimLac;
+
+/**
+ * Management interface of a running Lac. See MoniteurLac.
+ */
+
+public interface MoniteurLacMXBean {
+
+    // Number of cycles simulated so far.
+    long getCycle();
+
+    // Cycles per second, averaged over the last cycles.
+    double getTicksParSeconde();
+
+    // Organisms alive at the end of the last cycle.
+    int getPlantes();
+
+    int getHerbivores();
+
+    int getCarnivores();
+
+    // Births and deaths during the last cycle, all species together.
+    int getNaissances();
+
+    int getMorts();
+}
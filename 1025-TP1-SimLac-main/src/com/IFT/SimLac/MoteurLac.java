@@ -0,0 +1,71 @@
+package com.IFT.SimLac;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * This interface is what Simulation needs from an engine that simulates a lake cycle by cycle.
+ *
+ * Lac keeps each organism as an object (see Organisme). LacColonnes keeps each category of organisms as columns of
+ * primitive arrays, and LacEnregistrements as records outside of the heap. All three apply the same rules and draw the
+ * same random values, so with the same generator they give the same results. LacCohortes draws for whole cohorts of
+ * identical organisms, so its results only follow the same laws.
+ *
+ * LacEnregistrements needs the incubator module jdk.incubator.foreign, so it lives in the optional source root
+ * incubator/ and Simulation only loads it by name. Engines are closed once simulated: see close.
+ */
+
+public interface MoteurLac extends AutoCloseable {
+
+    // Simulates one cycle.
+    void tick();
+
+    // Returns the number of cycles simulated so far.
+    long getCycle();
+
+    // Sets the pool on which parallel phases run. With null, everything runs on the calling thread.
+    // Results don't depend on this choice.
+    void setExecuteur(ForkJoinPool executeur);
+
+    // Sets the observer that receives the measures of each cycle once it is over. null to stop observing.
+    void setObservateur(Consumer<MesuresCycle> observateur);
+
+    // Frees what the engine keeps outside of the heap. The engine can't be used afterwards. Does nothing by default.
+    @Override
+    default void close() {}
+
+    // Returns, for each species still alive, its number of individuals and their total energy at this point.
+    Map<String, AgregatEspece> resumePlantes();
+
+    Map<String, AgregatEspece> resumeHerbivores();
+
+    Map<String, AgregatEspece> resumeCarnivores();
+
+
+    default void imprimeRapport(PrintStream out) {
+        var especesPlantes = resumePlantes();
+        out.println("Il reste " + especesPlantes.size() + " espèces de plantes.");
+        imprimeEspeces(out, especesPlantes);
+
+        var especesHerbivores = resumeHerbivores();
+        out.println("Il reste " + especesHerbivores.size() + " espèces d'herbivores.");
+        imprimeEspeces(out, especesHerbivores);
+
+        var especesCarnivores = resumeCarnivores();
+        out.println("Il reste " + especesCarnivores.size() + " espèces de carnivores.");
+        imprimeEspeces(out, especesCarnivores);
+    }
+
+    private static void imprimeEspeces(PrintStream out, Map<String, AgregatEspece> especes) {
+        for (var entry : especes.entrySet()) {
+            var value = entry.getValue();
+            out.printf(
+                    "%s: %d individus qui contiennent en tout %.2f unités d'énergie.%n",
+                    entry.getKey(),
+                    value.getIndividus(),
+                    value.getEnergie());
+        }
+    }
+}
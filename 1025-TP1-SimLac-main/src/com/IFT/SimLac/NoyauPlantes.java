@@ -0,0 +1,50 @@
+package com.IFT.SimLac;
+
+/**
+ * This interface is the arithmetic of the plant phase of LacColonnes, applied to the rows [debut, fin) of a species
+ * that share the same descriptor (see PopulationColonnes), so that its parameters are the same for every row.
+ *
+ * For each such range of plants, LacColonnes computes the energetic budgets with bilanEnergetique, draws one uniform
+ * value per plant with tirer, applies survivalCheck and reproductionCheck plant by plant with those values, then makes
+ * the plants grow or shrink with croitreDecroitre.
+ *
+ * Kernels only do arithmetic whose rounding doesn't depend on how many plants are processed at once, never fused
+ * operations, so all of them give the same results as Organisme and Plante.
+ *
+ * NoyauPlantesVectoriel processes several plants per instruction with the Vector API. That API is an incubator module
+ * of the JDK, so the class lives in the optional source root incubator/, and is only used when it was compiled and the
+ * JVM is started with --add-modules jdk.incubator.vector; otherwise charger falls back on NoyauPlantesScalaire.
+ */
+
+public interface NoyauPlantes {
+
+    // budget[i] = energieSolaire * (energie[i] / energieTotale) - besoin. See Plante.bilanEnergetique.
+    void bilanEnergetique(double energieSolaire, double energieTotale, double besoin, double[] energie,
+                          double[] budget, int debut, int fin);
+
+    // tirages[i - debut] = generateur.uniforme(cle[i], cycle, usage, 0), where usage is SURVIE if budget[i] < 0 and
+    // REPRODUCTION otherwise: a plant draws for one check at most. See Organisme.survivalCheck and reproductionCheck.
+    void tirer(GenerateurAleatoire generateur, long cycle, long[] cle, double[] budget, double[] tirages, int debut,
+               int fin);
+
+    // Grows or shrinks each plant by its budget and marks in morts the plants whose energy went below 0. See
+    // Organisme.croitreDecroitre. Words of morts are updated without synchronization: ranges that share a word must
+    // be processed by the same thread.
+    void croitreDecroitre(double efficacite, double tailleMaximum, double[] energie, double[] budget, long[] morts,
+                          int debut, int fin);
+
+
+    // Returns the vector kernel if the Vector API is available, the scalar one otherwise.
+    static NoyauPlantes charger() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            // Loaded by name, so that the class isn't even resolved when the module is missing.
+            try {
+                return (NoyauPlantes) Class.forName("com.IFT.SimLac.NoyauPlantesVectoriel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Falls back on the scalar kernel.
+            }
+        }
+        return new NoyauPlantesScalaire();
+    }
+}
@@ -0,0 +1,36 @@
+package com.IFT.SimLac;
+
+/**
+ * Implementation of NoyauPlantes that processes one plant at a time. Used when the Vector API isn't available.
+ */
+
+public final class NoyauPlantesScalaire implements NoyauPlantes {
+
+    @Override
+    public void bilanEnergetique(double energieSolaire, double energieTotale, double besoin, double[] energie,
+                                 double[] budget, int debut, int fin) {
+        for (int i = debut; i < fin; i++)
+            budget[i] = energieSolaire * (energie[i] / energieTotale) - besoin;
+    }
+
+    @Override
+    public void tirer(GenerateurAleatoire generateur, long cycle, long[] cle, double[] budget, double[] tirages,
+                      int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+            var usage = budget[i] < 0 ? Tirages.Usage.SURVIE : Tirages.Usage.REPRODUCTION;
+            tirages[i - debut] = generateur.uniforme(cle[i], cycle, usage, 0);
+        }
+    }
+
+    @Override
+    public void croitreDecroitre(double efficacite, double tailleMaximum, double[] energie, double[] budget,
+                                 long[] morts, int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+            double nouvelleEnergie = Organisme.energieApres(efficacite, tailleMaximum, energie[i], budget[i]);
+            energie[i] = nouvelleEnergie;
+
+            if (nouvelleEnergie < 0)
+                morts[i >> 6] |= 1L << i;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * This class groups consumer species (herbivores or carnivores) according to the food web.
+ *
+ * Two consumer species are in the same group when they share a food species, directly or through other consumers.
+ * Consumers of different groups never touch the same organisms, so groups can be processed concurrently without any
+ * synchronization. Within a group, consumers must still be processed one after the other.
+ *
+ * The groups are built once from the diets, when the Lac is built. An ordonnanceur runs one executer at a time; copies
+ * share the groups but not the tasks that run them, so that each lake can have its own.
+ */
+
+public final class OrdonnanceurEspeces {
+
+    // Consumer species sharing food, and all the food species they eat.
+    public static final class Groupe {
+        private final List<String> consommateurs = new ArrayList<>();
+        private final Set<String> aliments = new LinkedHashSet<>();
+        private int[] identifiantsConsommateurs;  // Identifiers of consommateurs, in the same order.
+        private int[] identifiantsAliments;       // Identifiers of aliments, in the same order. See RegistreEspeces.
+
+        // Getters
+        public List<String> getConsommateurs() {
+            return Collections.unmodifiableList(consommateurs);
+        }
+
+        public Set<String> getAliments() {
+            return Collections.unmodifiableSet(aliments);
+        }
+
+        // Must not be modified.
+        int[] getIdentifiantsConsommateurs() {
+            return identifiantsConsommateurs;
+        }
+
+        // Must not be modified.
+        int[] getIdentifiantsAliments() {
+            return identifiantsAliments;
+        }
+    }
+
+    private final List<Groupe> groupes;
+    private final TacheGroupe[] taches;             // One per group, reused by every executer. See TacheGroupe.
+    private final TacheGroupes tacheGroupes = new TacheGroupes();
+    private ObjIntConsumer<Groupe> action;          // Action of the executer running. null between them.
+
+
+    // Constructor
+    // regimes associates each consumer species with the species it eats. Groups and the consumers in each group
+    // keep the iteration order of regimes.
+    public OrdonnanceurEspeces(Map<String, Set<String>> regimes) {
+        groupes = new ArrayList<>();
+        var consommateurs = new ArrayList<>(regimes.keySet());
+
+        // Union-find over consumer species: consumers eating the same food species are merged.
+        var parents = new int[consommateurs.size()];
+        for (int i = 0; i < parents.length; i++)
+            parents[i] = i;
+
+        var premierConsommateur = new HashMap<String, Integer>();  // First consumer seen eating each food species.
+        for (int i = 0; i < consommateurs.size(); i++) {
+            for (var aliment : regimes.get(consommateurs.get(i))) {
+                var premier = premierConsommateur.putIfAbsent(aliment, i);
+                if (premier != null)
+                    unir(parents, premier, i);
+            }
+        }
+
+        var groupeParRacine = new LinkedHashMap<Integer, Groupe>();
+        for (int i = 0; i < consommateurs.size(); i++) {
+            var groupe = groupeParRacine.computeIfAbsent(racine(parents, i), racine -> new Groupe());
+            groupe.consommateurs.add(consommateurs.get(i));
+            groupe.aliments.addAll(regimes.get(consommateurs.get(i)));
+        }
+        groupes.addAll(groupeParRacine.values());
+        for (var groupe : groupes) {
+            groupe.identifiantsConsommateurs = RegistreEspeces.identifiants(groupe.consommateurs);
+            groupe.identifiantsAliments = RegistreEspeces.identifiants(groupe.aliments);
+        }
+        taches = taches(groupes.size());
+    }
+
+    // Copy constructor. Groups never change, so they are shared.
+    public OrdonnanceurEspeces(OrdonnanceurEspeces autre) {
+        groupes = autre.groupes;
+        taches = taches(groupes.size());
+    }
+
+
+    // Runs action on every group, along with the group's index. Groups run concurrently on pool, or in order when
+    // pool is null. Allocates nothing: the tasks are those of the previous call.
+    public void executer(ForkJoinPool pool, ObjIntConsumer<Groupe> action) {
+        if (pool == null || groupes.size() <= 1) {
+            for (int i = 0; i < groupes.size(); i++)
+                action.accept(groupes.get(i), i);
+            return;
+        }
+
+        this.action = action;
+        try {
+            for (var tache : taches)
+                tache.reinitialize();
+            tacheGroupes.reinitialize();
+            pool.invoke(tacheGroupes);
+        } finally {
+            this.action = null;
+        }
+    }
+
+
+    // Getters
+    public List<Groupe> getGroupes() {
+        return Collections.unmodifiableList(groupes);
+    }
+
+
+    private TacheGroupe[] taches(int nombre) {
+        var taches = new TacheGroupe[nombre];
+        for (int i = 0; i < nombre; i++)
+            taches[i] = new TacheGroupe(i);
+        return taches;
+    }
+
+    // Runs the action of executer on the group index.
+    private final class TacheGroupe extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        private TacheGroupe(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            action.accept(groupes.get(index), index);
+        }
+    }
+
+    // Forks the task of every group and waits for them.
+    private final class TacheGroupes extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            invokeAll(taches);
+        }
+    }
+
+
+    private static int racine(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];  // Path halving
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private static void unir(int[] parents, int a, int b) {
+        int racineA = racine(parents, a);
+        int racineB = racine(parents, b);
+        // The smallest index becomes the root, so groups are ordered by their first consumer.
+        if (racineA < racineB)
+            parents[racineB] = racineA;
+        else
+            parents[racineA] = racineB;
+    }
+}
@@ -6,58 +6,57 @@ package com.IFT.SimLac;
  *
  * This abstract class implements attributes and methods common to all living organisms.
  * Plante, Herbivore and Carnivore classes inherit from this class.
+ *
+ * Organisms don't count their age: they keep the cycle of the lake at which they were 0 years old, and their age is
+ * the number of cycles since then. Aging a whole lake is only a matter of incrementing its cycle.
  */
 
 public abstract class Organisme {
 
     // attributes
-    protected final String nomEspece;          // Name of the organism species
-    protected final double besoinEnergie;      // Energy needed each cycle to survive.
-    protected final double efficaciteEnergie;  // The ratio at which any remaining energy is metabolised.
-    protected final double resilience;         // Determines the chance of survival when not enough energy is received.
-    protected final double fertilite;          // Determines the chance of having a baby
-    protected final int ageFertilite;          // Minimum age required to have babies
-    protected final double energieEnfant;      // Starting energy at birth
+    protected final Espece espece;             // Parameters shared by all the individuals of the species.
     protected double energie;                  // Actual energy at the start of a cycle. Updated each cycle.
-    private int age;                           // Actual age of an organism. Incremented each cycle.
-    protected double tailleMaximum;            // Maximum energy an organism can have. Limits growth.
+    private long naissance;                    // Cycle of the lake at which the organism was 0 years old.
 
     protected boolean dead = false;
     protected double budgetEnergetique = 0;    // Energy that can be spent during a cycle. Can be < 0.
+    protected long cle = 0;                    // Identifies the organism's random draws. Assigned by Lac.
+    private AgregatEspece agregat = null;      // Totals of the organism's species. Set by its Population.
+    private long energieComptee;               // Energy counted in agregat, in fixed point.
 
 
     // Constructor
-    public Organisme(String nomEspece, double energie, int age, double besoinEnergie, double efficaciteEnergie,
-                     double resilience, double fertilite, int ageFertilite, double energieEnfant,
-                     double tailleMaximum) {
-
-        this.nomEspece = nomEspece;
+    // age is the age of the organism at cycle 0 of its lake. See setNaissance for organisms born later.
+    public Organisme(Espece espece, double energie, int age) {
+        this.espece = espece;
         this.energie = energie;
-        this.age = age;
-        this.besoinEnergie = besoinEnergie;
-        this.efficaciteEnergie = efficaciteEnergie;
-        this.resilience = resilience;
-        this.fertilite = fertilite;
-        this.ageFertilite = ageFertilite;
-        this.energieEnfant = energieEnfant;
-        this.tailleMaximum = tailleMaximum;
+        this.naissance = -age;
+        this.energieComptee = AgregatEspece.enFixe(energie);
+    }
+
+    // Copy constructor: the copy is in the same state as the original, and shares its species.
+    protected Organisme(Organisme autre) {
+        this(autre.espece, autre.energie, 0);
+        this.naissance = autre.naissance;
+        this.dead = autre.dead;
+        this.budgetEnergetique = autre.budgetEnergetique;
+        this.cle = autre.cle;
     }
 
     public abstract Organisme seReproduire();
 
+    // Returns an independent copy of this organism.
+    public abstract Organisme copier();
+
 
     // Determines if an organism lives or dies.
     // Note : Any fraction of a energy unit missing is considered as a whole energy unit.
     //     Ex.: budgetEnergetique == -1.02 is considered a 2 energy unit deficit.
-    public void survivalCheck(){
+    public void survivalCheck(Tirages tirages){
         if (budgetEnergetique >= 0)
             return;  // Automatic success
 
-        // Makes deficitUniteEnergie a positive integer as per description above.
-        int  deficitUniteEnergie = (int) Math.ceil(Math.abs(budgetEnergetique));
-        double survivalChance = Math.pow(resilience, deficitUniteEnergie);
-
-        if (Math.random() > survivalChance)
+        if (tirages.suivant() > chanceSurvie(espece.getResilience(), budgetEnergetique))
             dead = true;
     }
 
@@ -66,22 +65,17 @@ public abstract class Organisme {
     // Returns the number of children born.
     // Note: Whole energy unit needed for a roll.
     //     Ex.: budgetEnergetique == 1.02 gives only 1 roll.
-    public int reproductionCheck(){
-        if (budgetEnergetique < 0 || age < ageFertilite)
+    // Each roll succeeds with a probability of fertilite. A failed roll uses 1 roll, a birth uses energieEnfant rolls
+    // (rounded up) and energieEnfant units of the budget. The organism must have enough energy to potentially give
+    // birth to roll. The number of births is drawn at once, see Lois.naissances.
+    // cycle is the cycle of the lake being simulated, which gives the age of the organism.
+    public int reproductionCheck(Tirages tirages, long cycle){
+        if (budgetEnergetique < 0 || getAge(cycle) < espece.getAgeFertilite())
             return 0;  // Automatic fail
 
-        int nombreEnfantsProduits = 0;
-        int reproductionRolls = (int) budgetEnergetique;  // Truncates decimal parts
-
-        // The organism must have enough energy to potentially give birth to roll
-        while (reproductionRolls > 0 && energie + budgetEnergetique >= energieEnfant) {
-            if (Math.random() <= fertilite) {
-                nombreEnfantsProduits++;
-                budgetEnergetique -= energieEnfant;
-                reproductionRolls -= energieEnfant;
-            } else
-                reproductionRolls--;
-        }
+        int nombreEnfantsProduits = naissances(tirages.suivant(), espece.getFertilite(), espece.getEnergieEnfant(),
+                energie, budgetEnergetique);
+        budgetEnergetique -= nombreEnfantsProduits * espece.getEnergieEnfant();
         return nombreEnfantsProduits;
     }
 
@@ -89,30 +83,129 @@ public abstract class Organisme {
     // If after shrinking its energy < 0, it dies.
     // Note: a plant may already be dead at this point.
     public void croitreDecroitre(){
-        if (budgetEnergetique > 0) {  // grows
-            energie =  Math.min(energie + efficaciteEnergie * budgetEnergetique, tailleMaximum);
-        } else  // shrinks
-            energie += budgetEnergetique;
+        energie = energieApres(espece.getEfficaciteEnergie(), espece.getTailleMaximum(), energie, budgetEnergetique);
+        reporterEnergie();
 
         if (energie < 0)
             dead = true;
     }
 
+    // The rules above, on the values they use, so that the engines that don't keep organisms as objects apply the
+    // very same ones. See LacColonnes, LacCohortes, LacEnregistrements and NoyauPlantes.
+
+    // Returns the chance to survive a cycle that ends with budgetEnergetique < 0. Any fraction of an energy unit
+    // missing is considered as a whole energy unit.
+    static double chanceSurvie(double resilience, double budgetEnergetique) {
+        int deficitUniteEnergie = (int) Math.ceil(Math.abs(budgetEnergetique));
+        return Math.pow(resilience, deficitUniteEnergie);
+    }
+
+    // Returns the number of births an organism can afford at most, with whole rolls from budgetEnergetique >= 0 and
+    // energieEnfant taken from energie + budgetEnergetique for each.
+    static int naissancesPossibles(double energieEnfant, double energie, double budgetEnergetique) {
+        return (int) Math.min((energie + budgetEnergetique) / energieEnfant, (int) budgetEnergetique);
+    }
+
+    // Returns the number of rolls a birth uses.
+    static int coutNaissance(double energieEnfant) {
+        return (int) Math.ceil(energieEnfant);
+    }
+
+    // Returns the number of children of an organism old enough, with budgetEnergetique >= 0, given its uniform draw.
+    static int naissances(double tirage, double fertilite, double energieEnfant, double energie,
+                          double budgetEnergetique) {
+        return Lois.naissances(tirage, (int) budgetEnergetique, coutNaissance(energieEnfant),
+                naissancesPossibles(energieEnfant, energie, budgetEnergetique), fertilite);
+    }
+
+    // Returns the energy of an organism once it grew or shrank by its budget. It is dead if that is < 0.
+    static double energieApres(double efficacite, double tailleMaximum, double energie, double budgetEnergetique) {
+        if (budgetEnergetique > 0)  // grows
+            return Math.min(energie + efficacite * budgetEnergetique, tailleMaximum);
+        return energie + budgetEnergetique;  // shrinks
+    }
+
+    // Returns the age during cycle of an organism that was 0 years old at the cycle naissance.
+    static int age(long naissance, long cycle) {
+        return (int) (cycle - naissance);
+    }
 
-    public void vieillir(){
-        age++;
+    // Reports the change of energie to the totals of the species. Must be called after each change of energie.
+    protected void reporterEnergie() {
+        long energieFixe = AgregatEspece.enFixe(energie);
+        if (agregat != null)
+            agregat.varier(energieFixe - energieComptee);
+        energieComptee = energieFixe;
     }
 
+
     // Getters
+    public Espece getEspece() {
+        return espece;
+    }
+
     public String getNomEspece() {
-        return nomEspece;
+        return espece.getNom();
     }
 
     public double getEnergie() {
         return energie;
     }
 
+    // Returns the age of the organism while its lake simulates cycle. It was 0 during the cycle it was born.
+    public int getAge(long cycle) {
+        return age(naissance, cycle);
+    }
+
+    public double getBudgetEnergetique() {
+        return budgetEnergetique;
+    }
+
     public boolean isDead() {
         return dead;
     }
+
+    public long getCle() {
+        return cle;
+    }
+
+    // Setters
+    void setCle(long cle) {
+        this.cle = cle;
+    }
+
+    // Counts this organism in agregat from now on, or in nothing with null. Used by Population.
+    void setAgregat(AgregatEspece agregat) {
+        if (this.agregat != null)
+            this.agregat.retirer(energieComptee);
+        this.agregat = agregat;
+        if (agregat != null)
+            agregat.ajouter(energieComptee);
+    }
+
+    // The organism is 0 years old during the cycle naissance of its lake.
+    void setNaissance(long naissance) {
+        this.naissance = naissance;
+    }
+
+    // Brings a dead organism back as a newborn of its species with the key cle, born during the cycle naissance, as
+    // if it had been built by seReproduire. It must have left its Population. Used to recycle organisms, see
+    // Population.
+    void renaitre(long cle, long naissance) {
+        this.energie = espece.getEnergieEnfant();
+        this.naissance = naissance;
+        this.dead = false;
+        this.budgetEnergetique = 0;
+        this.cle = cle;
+        this.energieComptee = AgregatEspece.enFixe(energie);
+    }
+
+    // Used when restoring an organism from a snapshot. See Instantane.
+    void setDead(boolean dead) {
+        this.dead = dead;
+    }
+
+    void setBudgetEnergetique(double budgetEnergetique) {
+        this.budgetEnergetique = budgetEnergetique;
+    }
 }
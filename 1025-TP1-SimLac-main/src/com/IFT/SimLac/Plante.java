@@ -11,34 +11,39 @@ package com.IFT.SimLac;
 
 public final class Plante extends Organisme {
 
-    // All attributes inherited from Organisme
+    // All attributes inherited from Organisme. Plants are described by Espece itself.
 
     // Constructor
-    public Plante(String nomEspece, double energie, int age, double besoinEnergie, double efficaciteEnergie,
-                  double resilience, double fertilite, int ageFertilite, double energieEnfant, double tailleMaximum) {
+    public Plante(Espece espece, double energie, int age) {
+        super(espece, energie, age);
+    }
+
+    private Plante(Plante autre) {
+        super(autre);
+    }
 
-        super(nomEspece, energie, age, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
-                energieEnfant, tailleMaximum);
+    @Override
+    public Plante copier() {
+        return new Plante(this);
     }
 
     @Override
     public Plante seReproduire(){
-        return new Plante(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience,
-                fertilite, ageFertilite, energieEnfant, tailleMaximum);
+        return new Plante(espece, espece.getEnergieEnfant(), 0);
     }
 
 
     // Updates the energetic budget of this plant.
     public void bilanEnergetique(int energieSolaire, double energieTotaleDesPlantes) {
         double energieRecue = energieSolaire * (energie / energieTotaleDesPlantes);
-        budgetEnergetique = energieRecue - besoinEnergie;
+        budgetEnergetique = energieRecue - espece.getBesoinEnergie();
     }
 
 
-    // Plants loose the amount of energy the herbivore eats.
+    // Plants loose the amount of energy the herbivore eats. Herbivores eat a fraction of the energy left, at most 1
+    // (see UsineHerbivore), so a plant never dies from it.
     public void estMange(double energieMangee) {
         energie -= energieMangee;
-        if (energie < 0)
-            dead = true;
+        reporterEnergie();
     }
 }
@@ -0,0 +1,297 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class holds all the organisms of one category (plants, herbivores or carnivores) living in a Lac.
+ * Organisms are partitioned by species so that a consumer only has to look at the species it can eat, instead of
+ * going through the whole category.
+ *
+ * Species are kept in the order they first appeared. Iterating over a population goes through each species in turn.
+ * They are also indexed by identifier (see RegistreEspeces), so that the simulation finds them without hashing names.
+ *
+ * Organisms that die are marked at their position in their species (see marquerMort) by the phase that kills them,
+ * while that phase holds them anyway. Removing the dead then only goes through the marks and the lists of references,
+ * without reading every organism again.
+ *
+ * With recycling on, dead organisms removed from the population are kept in a free list of their species, and
+ * newborns of that species reuse them instead of being allocated (see recycler). Once populations are stable, births
+ * and deaths then allocate nothing.
+ */
+
+public final class Population<T extends Organisme> implements Iterable<T> {
+
+    // Receives the number of organisms removed from the species identifiant. See enleverMorts.
+    @FunctionalInterface
+    public interface CompteurMorts {
+        void compter(int identifiant, int nombre);
+    }
+
+    private final Map<String, List<T>> parEspece = new LinkedHashMap<>();
+    private final Map<String, AgregatEspece> agregats = new LinkedHashMap<>();  // Totals of each species.
+    private final List<List<T>> parIdentifiant = new ArrayList<>();  // Same lists, by species identifier. null if none.
+    private final List<AgregatEspece> agregatsParIdentifiant = new ArrayList<>();
+    private final List<boolean[]> mortsParIdentifiant = new ArrayList<>();  // Dead marks, at the positions of the list.
+    private int[] debutsListe = new int[0];  // Index of each species in the last list filled by lister(ArrayList).
+    private final List<List<T>> recycles = new ArrayList<>();  // Dead organisms of each species, by identifier.
+    private boolean recyclage = false;
+    private int taille = 0;
+
+
+    // Constructors
+    public Population() {}
+
+    public Population(Collection<T> organismes) {
+        ajouterTous(organismes);
+    }
+
+
+    // Names are only hashed the first time a species appears.
+    public void ajouter(T organisme) {
+        int identifiant = organisme.getEspece().getIdentifiant();
+        var individus = identifiant < parIdentifiant.size() ? parIdentifiant.get(identifiant) : null;
+        if (individus == null) {
+            individus = parEspece.computeIfAbsent(organisme.getNomEspece(), nom -> new ArrayList<>());
+            while (parIdentifiant.size() <= identifiant) {
+                parIdentifiant.add(null);
+                agregatsParIdentifiant.add(null);
+                mortsParIdentifiant.add(null);
+            }
+            parIdentifiant.set(identifiant, individus);
+            agregatsParIdentifiant.set(identifiant,
+                    agregats.computeIfAbsent(organisme.getNomEspece(), nom -> new AgregatEspece()));
+            mortsParIdentifiant.set(identifiant, new boolean[16]);
+        }
+        individus.add(organisme);
+        organisme.setAgregat(agregatsParIdentifiant.get(identifiant));
+        taille++;
+
+        var morts = mortsParIdentifiant.get(identifiant);
+        if (morts.length < individus.size()) {
+            morts = Arrays.copyOf(morts, 2 * individus.size());
+            mortsParIdentifiant.set(identifiant, morts);
+        }
+        if (organisme.isDead())
+            morts[individus.size() - 1] = true;
+    }
+
+    public void ajouterTous(Collection<T> organismes) {
+        for (var organisme : organismes)
+            ajouter(organisme);
+    }
+
+    // Adds quantite organisms built by creer, which must all be alive and of the same species, and gives them the keys
+    // premiereCle, premiereCle + 1, ... in the order they are built. Used to fill a lake with the blocks of a Scenario.
+    // The species is looked up and its lists grown once for the whole group, not once per organism.
+    public void ajouterGroupe(int quantite, Supplier<T> creer, long premiereCle) {
+        if (quantite <= 0)
+            return;
+
+        var premier = creer.get();
+        premier.setCle(premiereCle);
+        ajouter(premier);
+
+        int identifiant = premier.getEspece().getIdentifiant();
+        var individus = parIdentifiant.get(identifiant);
+        int total = individus.size() + quantite - 1;
+        if (individus instanceof ArrayList<T> liste)
+            liste.ensureCapacity(total);
+        if (mortsParIdentifiant.get(identifiant).length < total)
+            mortsParIdentifiant.set(identifiant, Arrays.copyOf(mortsParIdentifiant.get(identifiant), total));
+
+        var agregat = agregatsParIdentifiant.get(identifiant);
+        for (int i = 1; i < quantite; i++) {
+            var organisme = creer.get();
+            organisme.setCle(premiereCle + i);
+            individus.add(organisme);
+            organisme.setAgregat(agregat);
+        }
+        taille += quantite - 1;
+    }
+
+    // Marks the organism at position in the list of the species identifiant as dead, to be removed by enleverMorts.
+    // Every organism that dies must be marked. Organisms of different species can be marked concurrently.
+    public void marquerMort(int identifiant, int position) {
+        mortsParIdentifiant.get(identifiant)[position] = true;
+    }
+
+    // Removes the organisms marked dead. Species left without any individual are forgotten.
+    // Gives morts the number of organisms removed from each species that lost some, in the population's order.
+    // Survivors are moved down over the dead in place, so nothing is allocated, and only the dead are read.
+    // A species has individuals until it is forgotten, so its identifier is read from the first one.
+    public void enleverMorts(CompteurMorts morts) {
+        var iterator = parEspece.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            var individus = entry.getValue();
+            int avant = individus.size();
+            int identifiant = individus.get(0).getEspece().getIdentifiant();
+            var marques = mortsParIdentifiant.get(identifiant);
+
+            int vivants = 0;
+            for (int i = 0; i < avant; i++) {
+                if (marques[i]) {
+                    var organisme = individus.get(i);
+                    organisme.setAgregat(null);
+                    if (recyclage)
+                        recycles(identifiant).add(organisme);
+                } else {
+                    if (vivants < i)
+                        individus.set(vivants, individus.get(i));
+                    vivants++;
+                }
+            }
+            Arrays.fill(marques, 0, avant, false);
+            if (vivants < avant) {
+                individus.subList(vivants, avant).clear();
+                morts.compter(identifiant, avant - vivants);
+                taille -= avant - vivants;
+            }
+
+            if (individus.isEmpty()) {
+                iterator.remove();
+                parIdentifiant.set(identifiant, null);
+                agregatsParIdentifiant.set(identifiant, null);
+                mortsParIdentifiant.set(identifiant, null);
+                agregats.remove(entry.getKey());
+                // An extinct species never comes back, so its dead are no longer needed.
+                if (identifiant < recycles.size())
+                    recycles.set(identifiant, null);
+            }
+        }
+    }
+
+    // Returns a dead organism of the species espece, taken out of the free list, or null if there is none.
+    // The organism must be brought back with Organisme.renaitre before being added again.
+    public T recycler(Espece espece) {
+        int identifiant = espece.getIdentifiant();
+        var libres = identifiant < recycles.size() ? recycles.get(identifiant) : null;
+        if (libres == null || libres.isEmpty())
+            return null;
+        // Species of the same name may differ in their parameters; a newborn must get its parent's.
+        if (libres.get(libres.size() - 1).getEspece() != espece)
+            return null;
+        return libres.remove(libres.size() - 1);
+    }
+
+    // Turns recycling on or off. Turning it off drops the free lists.
+    public void setRecyclage(boolean recyclage) {
+        this.recyclage = recyclage;
+        if (!recyclage)
+            recycles.clear();
+    }
+
+    private List<T> recycles(int identifiant) {
+        while (recycles.size() <= identifiant)
+            recycles.add(null);
+        var libres = recycles.get(identifiant);
+        if (libres == null) {
+            libres = new ArrayList<>();
+            recycles.set(identifiant, libres);
+        }
+        return libres;
+    }
+
+    // Returns the number of organisms belonging to one of the given species, given by identifier.
+    public int compter(int[] especes) {
+        int nombre = 0;
+        for (var espece : especes)
+            nombre += getEspece(espece).size();
+        return nombre;
+    }
+
+    // Returns the index-th organism belonging to one of the given species, counting species in the order of especes.
+    // The index must be smaller than compter(especes).
+    public T get(int[] especes, int index) {
+        for (var espece : especes) {
+            var individus = getEspece(espece);
+            if (index < individus.size())
+                return individus.get(index);
+            index -= individus.size();
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    // Returns a new list of all organisms, in iteration order.
+    public List<T> lister() {
+        var organismes = new ArrayList<T>(taille);
+        lister(organismes);
+        return organismes;
+    }
+
+    // Replaces the content of organismes with all organisms, in iteration order. Lets callers reuse a list.
+    // The position of an organism of the list in its species is then given by getDebutListe.
+    public void lister(ArrayList<T> organismes) {
+        if (debutsListe.length < parIdentifiant.size())
+            debutsListe = new int[parIdentifiant.size()];
+
+        organismes.clear();
+        organismes.ensureCapacity(taille);
+        for (var individus : parEspece.values()) {
+            if (!individus.isEmpty())
+                debutsListe[individus.get(0).getEspece().getIdentifiant()] = organismes.size();
+            for (int i = 0; i < individus.size(); i++)
+                organismes.add(individus.get(i));
+        }
+    }
+
+
+    // Getters
+    public List<T> getEspece(String nomEspece) {
+        return parEspece.getOrDefault(nomEspece, Collections.emptyList());
+    }
+
+    // Returns the individuals of the species identifiant. See RegistreEspeces.
+    public List<T> getEspece(int identifiant) {
+        List<T> individus = identifiant < parIdentifiant.size() ? parIdentifiant.get(identifiant) : null;
+        return individus != null ? individus : Collections.emptyList();
+    }
+
+    // Returns the index of the first organism of the species identifiant in the last list filled by
+    // lister(ArrayList). The organism at index i of that list is at position i - getDebutListe(identifiant) in its
+    // species, until organisms are added or removed.
+    public int getDebutListe(int identifiant) {
+        return debutsListe[identifiant];
+    }
+
+    // Returns the totals of the species identifiant, or null if it has no individual.
+    public AgregatEspece getAgregat(int identifiant) {
+        return identifiant < agregatsParIdentifiant.size() ? agregatsParIdentifiant.get(identifiant) : null;
+    }
+
+    public Map<String, List<T>> getEspeces() {
+        return Collections.unmodifiableMap(parEspece);
+    }
+
+    // Returns the totals of each species, kept up to date as organisms come, go and change. See AgregatEspece.
+    public Map<String, AgregatEspece> getAgregats() {
+        return Collections.unmodifiableMap(agregats);
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    // Goes through the lists directly, unlike iterator.
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (var individus : parEspece.values()) {
+            for (int i = 0; i < individus.size(); i++)
+                action.accept(individus.get(i));
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return parEspece.values().stream().flatMap(List::stream).iterator();
+    }
+}
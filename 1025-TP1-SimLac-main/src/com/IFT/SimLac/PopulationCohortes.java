@@ -0,0 +1,281 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds all the organisms of one category (plants, herbivores or carnivores) of a LacCohortes as cohorts:
+ * rows that each stand for a number of identical organisms.
+ *
+ * Rows are kept as columns, like in PopulationColonnes, and partitioned by species in the order they first appeared.
+ * Row i of a species stands for nombre[i] organisms of the descriptor espece[i] that all have the energy energie[i]
+ * and were 0 years old during the cycle naissance[i]. All the organisms of a row are alive, or all of them died during
+ * the current cycle: a check that kills some of them moves those to a row of their own first (see diviser).
+ *
+ * Organisms only differ by their descriptor, their energy and whether they can have children yet, so fusionner merges
+ * the rows that no longer differ by any of these. Memory and time then grow with the number of distinct rows, not with
+ * the number of organisms.
+ */
+
+public final class PopulationCohortes {
+
+    private static final int CAPACITE_INITIALE = 16;
+
+    // The cohorts of one species, one array per attribute. Rows from taille on are free.
+    static final class Cohortes {
+        final String nom;
+        final int identifiant;         // Interned name. See RegistreEspeces.
+        int taille = 0;                // Number of rows.
+        int[] nombre;                  // Organisms of each row.
+        double[] energie;
+        long[] naissance;
+        double[] budgetEnergetique;
+        long[] cle;                    // Identifies the draws of the row. See Tirages.
+        int[] espece;                  // Number of the descriptor of each row. See getDescripteur.
+        int[] enfants;                 // Children born during the current phase, not added yet.
+        int[] divisions;               // Rows split from this one during the current cycle. See diviser.
+        long[] morts;                  // Bitset of the rows that died during the current cycle.
+
+        private Cohortes(String nom, int identifiant) {
+            this.nom = nom;
+            this.identifiant = identifiant;
+            this.nombre = new int[CAPACITE_INITIALE];
+            this.energie = new double[CAPACITE_INITIALE];
+            this.naissance = new long[CAPACITE_INITIALE];
+            this.budgetEnergetique = new double[CAPACITE_INITIALE];
+            this.cle = new long[CAPACITE_INITIALE];
+            this.espece = new int[CAPACITE_INITIALE];
+            this.enfants = new int[CAPACITE_INITIALE];
+            this.divisions = new int[CAPACITE_INITIALE];
+            this.morts = new long[(CAPACITE_INITIALE + 63) >> 6];
+        }
+
+        boolean estMort(int rang) {
+            return (morts[rang >> 6] & 1L << rang) != 0;
+        }
+
+        void marquerMort(int rang) {
+            morts[rang >> 6] |= 1L << rang;
+        }
+
+        // Returns the total energy of the living organisms of the species, in fixed point. See AgregatEspece.
+        long getEnergieFixe() {
+            long energieFixe = 0;
+            for (int i = 0; i < taille; i++) {
+                if (!estMort(i))
+                    energieFixe += nombre[i] * AgregatEspece.enFixe(energie[i]);
+            }
+            return energieFixe;
+        }
+
+        // Returns the number of organisms of the species, dead or alive.
+        int getIndividus() {
+            int individus = 0;
+            for (int i = 0; i < taille; i++)
+                individus += nombre[i];
+            return individus;
+        }
+
+        // Moves nombre organisms of the row i to a new row with the key cle, in the same state, and returns it.
+        int diviser(int i, int nombre, long cle) {
+            int ligne = ajouter(espece[i], nombre, energie[i], naissance[i], cle);
+            budgetEnergetique[ligne] = budgetEnergetique[i];
+            if (estMort(i))
+                marquerMort(ligne);
+            this.nombre[i] -= nombre;
+            divisions[i]++;
+            return ligne;
+        }
+
+        private int ajouter(int espece, int nombre, double energie, long naissance, long cle) {
+            reserver(taille + 1);
+            this.nombre[taille] = nombre;
+            this.energie[taille] = energie;
+            this.naissance[taille] = naissance;
+            this.budgetEnergetique[taille] = 0;
+            this.cle[taille] = cle;
+            this.espece[taille] = espece;
+            this.enfants[taille] = 0;
+            this.divisions[taille] = 0;
+            return taille++;
+        }
+
+        // Grows the columns so that they hold at least capacite rows.
+        private void reserver(int capacite) {
+            if (capacite <= energie.length)
+                return;
+            capacite = Math.max(capacite, energie.length + (energie.length >> 1));
+            nombre = Arrays.copyOf(nombre, capacite);
+            energie = Arrays.copyOf(energie, capacite);
+            naissance = Arrays.copyOf(naissance, capacite);
+            budgetEnergetique = Arrays.copyOf(budgetEnergetique, capacite);
+            cle = Arrays.copyOf(cle, capacite);
+            espece = Arrays.copyOf(espece, capacite);
+            enfants = Arrays.copyOf(enfants, capacite);
+            divisions = Arrays.copyOf(divisions, capacite);
+            morts = Arrays.copyOf(morts, (capacite + 63) >> 6);
+        }
+
+        // Removes the rows marked dead and the rows left empty by diviser. Survivors are moved down in order.
+        // Returns the number of organisms removed.
+        private int enleverMorts() {
+            int nombreMorts = 0;
+            int vivants = 0;
+            for (int i = 0; i < taille; i++) {
+                if (estMort(i)) {
+                    nombreMorts += nombre[i];
+                    continue;
+                }
+                if (nombre[i] == 0)
+                    continue;
+                deplacer(i, vivants++);
+            }
+            Arrays.fill(morts, 0, (taille + 63) >> 6, 0);
+            taille = vivants;
+            return nombreMorts;
+        }
+
+        // Merges the rows of the same descriptor, energy and birth into the first of them, keeping its key.
+        // Rows born at or before fertile have the same age for every purpose, see Organisme.reproductionCheck: they
+        // are all moved to fertile first. fertiles[numero] is that cycle for the descriptor numero.
+        private void fusionner(long[] fertiles) {
+            var premieres = new HashMap<Signature, Integer>();
+            int lignes = 0;
+            for (int i = 0; i < taille; i++) {
+                long naissanceFusion = Math.max(naissance[i], fertiles[espece[i]]);
+                var signature = new Signature(espece[i], naissanceFusion, Double.doubleToLongBits(energie[i]));
+                var premiere = premieres.putIfAbsent(signature, lignes);
+                if (premiere != null) {
+                    nombre[premiere] += nombre[i];
+                    continue;
+                }
+                deplacer(i, lignes);
+                naissance[lignes] = naissanceFusion;
+                divisions[lignes++] = 0;
+            }
+            taille = lignes;
+        }
+
+        private void deplacer(int de, int vers) {
+            nombre[vers] = nombre[de];
+            energie[vers] = energie[de];
+            naissance[vers] = naissance[de];
+            budgetEnergetique[vers] = budgetEnergetique[de];
+            cle[vers] = cle[de];
+            espece[vers] = espece[de];
+            enfants[vers] = enfants[de];
+            divisions[vers] = divisions[de];
+        }
+
+        // What rows must share to be merged.
+        private record Signature(int espece, long naissance, long energie) {}
+    }
+
+    private final List<Cohortes> especes = new ArrayList<>();          // In the order they first appeared.
+    private final List<Cohortes> parIdentifiant = new ArrayList<>();   // Same species by identifier. null if none.
+    private final List<Espece> descripteurs = new ArrayList<>();
+    private final Map<Espece, Integer> numeros = new IdentityHashMap<>();  // Number of each descriptor.
+
+
+    // Adds a row of nombre organisms of the species espece, all with the energy energie and born during the cycle
+    // naissance, whose draws use the key cle.
+    public void ajouterGroupe(Espece espece, int nombre, double energie, long naissance, long cle) {
+        if (nombre <= 0)
+            return;
+        cohortes(espece).ajouter(numero(espece), nombre, energie, naissance, cle);
+    }
+
+    // Adds a row to the species cohortes, whose descriptor has the number espece.
+    void ajouter(Cohortes cohortes, int espece, int nombre, double energie, long naissance, long cle) {
+        cohortes.ajouter(espece, nombre, energie, naissance, cle);
+    }
+
+    // Removes the organisms marked dead. Species left without any individual are forgotten.
+    // Gives morts the number of organisms removed from each species that lost some, in the population's order.
+    public void enleverMorts(Population.CompteurMorts morts) {
+        var iterator = especes.iterator();
+        while (iterator.hasNext()) {
+            var cohortes = iterator.next();
+            int nombre = cohortes.enleverMorts();
+            if (nombre > 0)
+                morts.compter(cohortes.identifiant, nombre);
+            if (cohortes.taille == 0) {
+                iterator.remove();
+                parIdentifiant.set(cohortes.identifiant, null);
+            }
+        }
+    }
+
+    // Merges the rows that became identical, once the dead are removed. prochainCycle is the next cycle the lake will
+    // simulate.
+    void fusionner(long prochainCycle) {
+        var fertiles = new long[descripteurs.size()];
+        for (int numero = 0; numero < fertiles.length; numero++)
+            fertiles[numero] = prochainCycle - descripteurs.get(numero).getAgeFertilite();
+        for (var cohortes : especes)
+            cohortes.fusionner(fertiles);
+    }
+
+    // Returns, for each species, its number of individuals and their total energy. Goes through every row.
+    public Map<String, AgregatEspece> resume() {
+        var resume = new LinkedHashMap<String, AgregatEspece>();
+        for (var cohortes : especes) {
+            var agregat = new AgregatEspece();
+            agregat.ajouter(cohortes.getIndividus(), cohortes.getEnergieFixe());
+            resume.put(cohortes.nom, agregat);
+        }
+        return resume;
+    }
+
+
+    // Getters
+    // Species in the order they first appeared.
+    List<Cohortes> getEspeces() {
+        return Collections.unmodifiableList(especes);
+    }
+
+    // Returns the species identifiant, or null if it has no individual. See RegistreEspeces.
+    Cohortes getEspece(int identifiant) {
+        return identifiant < parIdentifiant.size() ? parIdentifiant.get(identifiant) : null;
+    }
+
+    // Returns the descriptor number numero.
+    Espece getDescripteur(int numero) {
+        return descripteurs.get(numero);
+    }
+
+    // Returns the number of organisms, dead or alive. Goes through every row.
+    public int getTaille() {
+        int taille = 0;
+        for (var cohortes : especes)
+            taille += cohortes.getIndividus();
+        return taille;
+    }
+
+
+    private Cohortes cohortes(Espece espece) {
+        int identifiant = espece.getIdentifiant();
+        var cohortes = getEspece(identifiant);
+        if (cohortes == null) {
+            cohortes = new Cohortes(espece.getNom(), identifiant);
+            especes.add(cohortes);
+            while (parIdentifiant.size() <= identifiant)
+                parIdentifiant.add(null);
+            parIdentifiant.set(identifiant, cohortes);
+        }
+        return cohortes;
+    }
+
+    private int numero(Espece espece) {
+        return numeros.computeIfAbsent(espece, e -> {
+            descripteurs.add(e);
+            return descripteurs.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,237 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds all the organisms of one category (plants, herbivores or carnivores) of a LacColonnes, as columns
+ * of primitive arrays instead of objects.
+ *
+ * Like in Population, organisms are partitioned by species, and species are kept in the order they first appeared.
+ * The organisms of a species are the rows of its Colonnes: the i-th one has the energy energie[i], was 0 years old
+ * during the cycle naissance[i], and so on, with the same meaning as the fields of Organisme. A phase going through a
+ * species reads each column from start to end, without following any reference.
+ *
+ * The parameters of an organism are those of its species descriptor (see Espece). The descriptors of a population are
+ * numbered, and each row keeps the number of its own, since species of the same name may differ in their parameters.
+ */
+
+public final class PopulationColonnes {
+
+    private static final int CAPACITE_INITIALE = 16;
+
+    // The organisms of one species, one array per attribute. Rows from taille on are free.
+    static final class Colonnes {
+        final String nom;
+        final int identifiant;         // Interned name. See RegistreEspeces.
+        int taille = 0;
+        double[] energie;
+        long[] naissance;
+        double[] budgetEnergetique;
+        long[] cle;
+        int[] espece;                  // Number of the descriptor of each row. See getDescripteur.
+        int[] enfants;                 // Children born during the current phase, not added yet.
+        long[] morts;                  // Bitset of the rows that died during the current cycle.
+
+        private Colonnes(String nom, int identifiant) {
+            this.nom = nom;
+            this.identifiant = identifiant;
+            this.energie = new double[CAPACITE_INITIALE];
+            this.naissance = new long[CAPACITE_INITIALE];
+            this.budgetEnergetique = new double[CAPACITE_INITIALE];
+            this.cle = new long[CAPACITE_INITIALE];
+            this.espece = new int[CAPACITE_INITIALE];
+            this.enfants = new int[CAPACITE_INITIALE];
+            this.morts = new long[(CAPACITE_INITIALE + 63) >> 6];
+        }
+
+        boolean estMort(int rang) {
+            return (morts[rang >> 6] & 1L << rang) != 0;
+        }
+
+        // Rows of different words can be marked concurrently. The blocks of ExecutionParBlocs are made of whole words.
+        void marquerMort(int rang) {
+            morts[rang >> 6] |= 1L << rang;
+        }
+
+        // Returns the total energy of the species, in fixed point. See AgregatEspece.
+        long getEnergieFixe() {
+            long energieFixe = 0;
+            for (int i = 0; i < taille; i++)
+                energieFixe += AgregatEspece.enFixe(energie[i]);
+            return energieFixe;
+        }
+
+        private void ajouter(int espece, double energie, long naissance, long cle) {
+            reserver(taille + 1);
+            this.energie[taille] = energie;
+            this.naissance[taille] = naissance;
+            this.budgetEnergetique[taille] = 0;
+            this.cle[taille] = cle;
+            this.espece[taille] = espece;
+            this.enfants[taille] = 0;
+            taille++;
+        }
+
+        // Grows the columns so that they hold at least capacite rows.
+        private void reserver(int capacite) {
+            if (capacite <= energie.length)
+                return;
+            capacite = Math.max(capacite, energie.length + (energie.length >> 1));
+            energie = Arrays.copyOf(energie, capacite);
+            naissance = Arrays.copyOf(naissance, capacite);
+            budgetEnergetique = Arrays.copyOf(budgetEnergetique, capacite);
+            cle = Arrays.copyOf(cle, capacite);
+            espece = Arrays.copyOf(espece, capacite);
+            enfants = Arrays.copyOf(enfants, capacite);
+            morts = Arrays.copyOf(morts, (capacite + 63) >> 6);
+        }
+
+        // Removes the rows marked dead. Survivors are moved down in order, column by column.
+        // Returns the number of rows removed.
+        private int enleverMorts() {
+            int mots = (taille + 63) >> 6;
+            int premier = 0;
+            while (premier < mots && morts[premier] == 0)
+                premier++;
+            if (premier == mots)
+                return 0;
+
+            int vivants = premier << 6;
+            for (int i = vivants; i < taille; i++) {
+                if (estMort(i))
+                    continue;
+                energie[vivants] = energie[i];
+                naissance[vivants] = naissance[i];
+                budgetEnergetique[vivants] = budgetEnergetique[i];
+                cle[vivants] = cle[i];
+                espece[vivants] = espece[i];
+                vivants++;
+            }
+            Arrays.fill(morts, 0, mots, 0);
+
+            int nombreMorts = taille - vivants;
+            taille = vivants;
+            return nombreMorts;
+        }
+    }
+
+    private final List<Colonnes> especes = new ArrayList<>();          // In the order they first appeared.
+    private final List<Colonnes> parIdentifiant = new ArrayList<>();   // Same species by identifier. null if none.
+    private final List<Espece> descripteurs = new ArrayList<>();
+    private final Map<Espece, Integer> numeros = new IdentityHashMap<>();  // Number of each descriptor.
+    private int taille = 0;
+
+
+    // Adds quantite organisms of the species espece, all with the energy energie and born during the cycle naissance,
+    // with the keys premiereCle, premiereCle + 1, ... The columns are grown once for the whole group.
+    public void ajouterGroupe(Espece espece, int quantite, double energie, long naissance, long premiereCle) {
+        if (quantite <= 0)
+            return;
+
+        var colonnes = colonnes(espece);
+        int numero = numero(espece);
+        colonnes.reserver(colonnes.taille + quantite);
+        for (int i = 0; i < quantite; i++)
+            colonnes.ajouter(numero, energie, naissance, premiereCle + i);
+        taille += quantite;
+    }
+
+    // Adds an organism to the species colonnes, whose descriptor has the number espece.
+    void ajouter(Colonnes colonnes, int espece, double energie, long naissance, long cle) {
+        colonnes.ajouter(espece, energie, naissance, cle);
+        taille++;
+    }
+
+    // Removes the organisms marked dead. Species left without any individual are forgotten.
+    // Gives morts the number of organisms removed from each species that lost some, in the population's order.
+    public void enleverMorts(Population.CompteurMorts morts) {
+        var iterator = especes.iterator();
+        while (iterator.hasNext()) {
+            var colonnes = iterator.next();
+            int nombre = colonnes.enleverMorts();
+            if (nombre > 0) {
+                morts.compter(colonnes.identifiant, nombre);
+                taille -= nombre;
+            }
+            if (colonnes.taille == 0) {
+                iterator.remove();
+                parIdentifiant.set(colonnes.identifiant, null);
+            }
+        }
+    }
+
+    // Returns the number of organisms belonging to one of the given species, given by identifier.
+    public int compter(int[] identifiants) {
+        int nombre = 0;
+        for (var identifiant : identifiants) {
+            var colonnes = getEspece(identifiant);
+            if (colonnes != null)
+                nombre += colonnes.taille;
+        }
+        return nombre;
+    }
+
+    // Returns, for each species, its number of individuals and their total energy. Goes through every organism.
+    public Map<String, AgregatEspece> resume() {
+        var resume = new LinkedHashMap<String, AgregatEspece>();
+        for (var colonnes : especes) {
+            var agregat = new AgregatEspece();
+            agregat.ajouter(colonnes.taille, colonnes.getEnergieFixe());
+            resume.put(colonnes.nom, agregat);
+        }
+        return resume;
+    }
+
+
+    // Getters
+    // Species in the order they first appeared.
+    List<Colonnes> getEspeces() {
+        return Collections.unmodifiableList(especes);
+    }
+
+    // Returns the species identifiant, or null if it has no individual. See RegistreEspeces.
+    Colonnes getEspece(int identifiant) {
+        return identifiant < parIdentifiant.size() ? parIdentifiant.get(identifiant) : null;
+    }
+
+    // Returns the descriptor number numero.
+    Espece getDescripteur(int numero) {
+        return descripteurs.get(numero);
+    }
+
+    // Descriptors in the order of their numbers.
+    List<Espece> getDescripteurs() {
+        return Collections.unmodifiableList(descripteurs);
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+
+    private Colonnes colonnes(Espece espece) {
+        int identifiant = espece.getIdentifiant();
+        var colonnes = getEspece(identifiant);
+        if (colonnes == null) {
+            colonnes = new Colonnes(espece.getNom(), identifiant);
+            especes.add(colonnes);
+            while (parIdentifiant.size() <= identifiant)
+                parIdentifiant.add(null);
+            parIdentifiant.set(identifiant, colonnes);
+        }
+        return colonnes;
+    }
+
+    private int numero(Espece espece) {
+        return numeros.computeIfAbsent(espece, e -> {
+            descripteurs.add(e);
+            return descripteurs.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class interns species names into dense integer identifiers: 0, 1, 2, ... in the order names are first met.
+ *
+ * Descriptors (see Espece) get their identifier when they are built, and diets are kept as arrays of identifiers, so
+ * that the simulation looks species up by index, without hashing names.
+ * The same name always gets the same identifier, for every lake of the process. Names are never forgotten, so
+ * identifiers keep growing with the names a batch of scenarios brings in: a lake sizes what it indexes by identifier
+ * after the largest identifier of its own species, not after taille.
+ */
+
+public final class RegistreEspeces {
+
+    private static final ConcurrentHashMap<String, Integer> identifiants = new ConcurrentHashMap<>();
+    private static final List<String> noms = new ArrayList<>();
+
+    private RegistreEspeces() {}
+
+
+    // Returns the identifier of the species nom, giving it the next one if it is new.
+    public static int identifiant(String nom) {
+        var identifiant = identifiants.get(nom);
+        if (identifiant != null)
+            return identifiant;
+
+        synchronized (noms) {
+            return identifiants.computeIfAbsent(nom, n -> {
+                noms.add(n);
+                return noms.size() - 1;
+            });
+        }
+    }
+
+    // Returns the identifiers of the given species, in iteration order.
+    public static int[] identifiants(Collection<String> noms) {
+        var identifiants = new int[noms.size()];
+        int i = 0;
+        for (var nom : noms)
+            identifiants[i++] = identifiant(nom);
+        return identifiants;
+    }
+
+    // Returns the name of the species identifiant.
+    public static String nom(int identifiant) {
+        synchronized (noms) {
+            return noms.get(identifiant);
+        }
+    }
+
+    // Returns the number of species interned so far. Identifiers are smaller than this number.
+    public static int taille() {
+        synchronized (noms) {
+            return noms.size();
+        }
+    }
+}
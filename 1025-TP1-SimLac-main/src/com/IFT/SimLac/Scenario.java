@@ -0,0 +1,156 @@
+package com.IFT.SimLac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The initial conditions of a Lac, as read by ConditionsInitiales, before any organism is built.
+ *
+ * A scenario holds one configured factory per group of identical organisms, along with their number. It can build
+ * as many lakes as needed, and variants of itself with other parameters, without reading the XML file again.
+ * Scenarios are immutable: a variant copies the factories it changes.
+ */
+
+public final class Scenario {
+
+    // A group of identical organisms: the factory that builds them and their number.
+    public static final class Bloc<U extends UsineOrganisme> {
+        private final U usine;
+        private final int quantite;
+
+        public Bloc(U usine, int quantite) {
+            if (quantite < 0)
+                throw new IllegalArgumentException("quantite must be greater or equal to 0");
+            this.usine = usine;
+            this.quantite = quantite;
+        }
+
+        // Getters
+        public U getUsine() {
+            return usine;
+        }
+
+        public int getQuantite() {
+            return quantite;
+        }
+    }
+
+    // Builds the engine of one lake for creer. It receives the groups of the scenario, then returns the engine.
+    // A factory builds a single engine. Each engine has its own, see Lac.usine and LacColonnes.usine.
+    public interface UsineMoteur<M extends MoteurLac> {
+
+        // Adds quantite organisms of espece to the population of categorie, with the energy of a newborn and born at
+        // cycle 0. Their keys start at premiereCle.
+        void ajouterGroupe(MesuresCycle.Categorie categorie, Espece espece, int quantite, long premiereCle);
+
+        // Returns the engine, once every group has been added.
+        M creer(int energieSolaire, GenerateurAleatoire generateur);
+    }
+
+    private final int energieSolaire;
+    private final List<Bloc<UsinePlante>> plantes;
+    private final List<Bloc<UsineHerbivore>> herbivores;
+    private final List<Bloc<UsineCarnivore>> carnivores;
+
+
+    // Constructor
+    public Scenario(int energieSolaire, List<Bloc<UsinePlante>> plantes, List<Bloc<UsineHerbivore>> herbivores,
+                    List<Bloc<UsineCarnivore>> carnivores) {
+        this.energieSolaire = energieSolaire;
+        this.plantes = List.copyOf(plantes);
+        this.herbivores = List.copyOf(herbivores);
+        this.carnivores = List.copyOf(carnivores);
+    }
+
+
+    // Builds a new lake from this scenario, with the engine that keeps organisms as objects. See creer and Lac.
+    public Lac creerLac(GenerateurAleatoire generateur) {
+        return creer(Lac.usine(), generateur);
+    }
+
+    // Builds a new lake from this scenario with the engine of usine. All the individuals of a block share one species
+    // descriptor and are added to their population at once. Organisms are numbered in the order they were read.
+    public <M extends MoteurLac> M creer(UsineMoteur<M> usine, GenerateurAleatoire generateur) {
+        long cle = 0;
+        for (var bloc : plantes) {
+            usine.ajouterGroupe(MesuresCycle.Categorie.PLANTE, bloc.usine.creerEspece(), bloc.quantite, cle);
+            cle += bloc.quantite;
+        }
+        for (var bloc : herbivores) {
+            usine.ajouterGroupe(MesuresCycle.Categorie.HERBIVORE, bloc.usine.creerEspece(), bloc.quantite, cle);
+            cle += bloc.quantite;
+        }
+        for (var bloc : carnivores) {
+            usine.ajouterGroupe(MesuresCycle.Categorie.CARNIVORE, bloc.usine.creerEspece(), bloc.quantite, cle);
+            cle += bloc.quantite;
+        }
+        return usine.creer(energieSolaire, generateur);
+    }
+
+    // Returns a copy of this scenario where the parameter nom of the species nomEspece is set to valeur.
+    // The solar energy is set with nomEspece == null and nom == "energieSolaire".
+    // Throws IllegalArgumentException if no species is named nomEspece or if the value is invalid.
+    public Scenario avecParametre(String nomEspece, String nom, double valeur) {
+        if (nomEspece == null) {
+            if (!nom.equals("energieSolaire"))
+                throw new IllegalArgumentException(nom + " is not a parameter of the lake");
+            return new Scenario((int) Math.round(valeur), plantes, herbivores, carnivores);
+        }
+
+        if (!getEspeces().contains(nomEspece))
+            throw new IllegalArgumentException("no species is named " + nomEspece);
+
+        var variantePlantes = new ArrayList<Bloc<UsinePlante>>();
+        for (var bloc : plantes)
+            variantePlantes.add(bloc.usine.getNomEspece().equals(nomEspece)
+                    ? new Bloc<>(varier(bloc.usine.copier(), nom, valeur), bloc.quantite) : bloc);
+
+        var varianteHerbivores = new ArrayList<Bloc<UsineHerbivore>>();
+        for (var bloc : herbivores)
+            varianteHerbivores.add(bloc.usine.getNomEspece().equals(nomEspece)
+                    ? new Bloc<>(varier(bloc.usine.copier(), nom, valeur), bloc.quantite) : bloc);
+
+        var varianteCarnivores = new ArrayList<Bloc<UsineCarnivore>>();
+        for (var bloc : carnivores)
+            varianteCarnivores.add(bloc.usine.getNomEspece().equals(nomEspece)
+                    ? new Bloc<>(varier(bloc.usine.copier(), nom, valeur), bloc.quantite) : bloc);
+
+        return new Scenario(energieSolaire, variantePlantes, varianteHerbivores, varianteCarnivores);
+    }
+
+
+    // Getters
+    public int getEnergieSolaire() {
+        return energieSolaire;
+    }
+
+    public List<Bloc<UsinePlante>> getPlantes() {
+        return plantes;
+    }
+
+    public List<Bloc<UsineHerbivore>> getHerbivores() {
+        return herbivores;
+    }
+
+    public List<Bloc<UsineCarnivore>> getCarnivores() {
+        return carnivores;
+    }
+
+    // Returns the name of every species, plants first, then herbivores and carnivores.
+    public Set<String> getEspeces() {
+        var especes = new LinkedHashSet<String>();
+        plantes.forEach(bloc -> especes.add(bloc.usine.getNomEspece()));
+        herbivores.forEach(bloc -> especes.add(bloc.usine.getNomEspece()));
+        carnivores.forEach(bloc -> especes.add(bloc.usine.getNomEspece()));
+        return Collections.unmodifiableSet(especes);
+    }
+
+
+    private static <U extends UsineOrganisme> U varier(U usine, String nom, double valeur) {
+        usine.setParametre(nom, valeur);
+        return usine;
+    }
+}
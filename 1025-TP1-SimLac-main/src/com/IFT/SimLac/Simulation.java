@@ -1,22 +1,137 @@
 package com.IFT.SimLac;
 
+import javax.management.JMException;
 import javax.xml.stream.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Le point d'entré du programme. Il reconnait l'option --nombre-cycles qui spécifie la durée de la simulation et lit
  * les conditions initiales sur l'entrée standard du processus.
+ *
+ * L'option --graine fixe la graine du générateur aléatoire: deux simulations avec la même graine et les mêmes
+ * conditions initiales donnent le même résultat. Sans elle, une graine arbitraire est choisie.
+ *
+ * L'option --parallelisme fixe le nombre de fils d'exécution des phases parallèles (1 pour tout exécuter sur le fil
+ * principal). Par défaut, tous les coeurs sont utilisés. Le résultat ne dépend pas de ce choix.
+ *
+ * L'option --replicas N simule N copies indépendantes du lac, chacune avec sa propre graine dérivée de --graine, et
+ * rapporte pour chaque espèce la moyenne, la variance et des percentiles sur l'ensemble des réplicas. Elle ne se
+ * combine pas avec --mesures, --jmx ni --sauvegarde.
+ *
+ * L'option --parametre Espece.parametre=min:max:pas, répétable, balaie les valeurs d'un paramètre numérique d'une
+ * espèce (energieSolaire=min:max:pas pour le lac). Une simulation est faite pour chaque combinaison de valeurs et
+ * le résultat est écrit en CSV, une ligne par simulation. Avec --plan-aleatoire N, N combinaisons sont plutôt tirées
+ * uniformément dans les intervalles des paramètres. Elle ne se combine pas avec --replicas, --mesures, --jmx ni
+ * --sauvegarde.
+ *
+ * L'option --sauvegarde fichier écrit l'état complet du lac dans un instantané binaire à la fin de la simulation, et
+ * aussi à tous les N cycles avec --intervalle-sauvegarde N. L'option --reprise fichier repart d'un instantané au lieu
+ * de lire les conditions initiales; la suite est la même que si la simulation n'avait pas été interrompue. Voir
+ * Instantane.
+ *
+ * L'option --mesures fichier écrit, pour chaque cycle et chaque espèce, le nombre d'individus, leur énergie totale,
+ * les naissances, les morts et les repas du cycle, en CSV. L'écriture se fait sur un fil d'exécution séparé.
+ *
+ * L'option --jmx publie l'avancement de la simulation par JMX (voir MoniteurLac). Les phases de chaque cycle sont aussi
+ * des événements JFR, enregistrés avec -XX:StartFlightRecording (voir EvenementPhase).
+ *
+ * L'option --recyclage réutilise les organismes morts pour les nouveau-nés au lieu d'en créer de nouveaux, ce qui
+ * allège le ramasse-miettes quand les populations sont grandes. Le résultat ne dépend pas de ce choix.
+ *
+ * L'option --lot chemin simule tous les lacs du fichier chemin (un tag lacs qui contient plusieurs tags lac), ou de
+ * tous les fichiers .xml du répertoire chemin, et écrit le rapport de chacun dans l'ordre de lecture. Avec - comme
+ * chemin, les lacs sont lus sur l'entrée standard. La lecture se fait pendant que les lacs déjà lus sont simulés sur
+ * --parallelisme fils d'exécution. Voir Lot.
+ *
+ * L'option --moteur choisit comment les organismes sont gardés en mémoire: objets (par défaut) crée un objet par
+ * organisme (voir Lac), colonnes range chaque catégorie dans des tableaux de types primitifs, parcourus d'un bout à
+ * l'autre à chaque phase (voir LacColonnes). Le moteur colonnes convient aux lacs de millions d'organismes; il ne se
+ * combine pas avec les instantanés, les réplicas, les balayages, les lots ni le recyclage. Les deux moteurs donnent le
+ * même résultat.
+ *
+ * Le moteur cohortes regroupe les organismes identiques en cohortes, tirées au sort d'un bloc (voir LacCohortes): un
+ * lac de dizaines de millions de plantes ne coûte que le nombre de ses cohortes. Il a les mêmes restrictions que le
+ * moteur colonnes. Ses résultats suivent les mêmes lois que ceux des deux autres moteurs, mais ne sont pas les mêmes
+ * pour une même graine.
+ *
+ * Le moteur enregistrements garde chaque organisme dans un enregistrement de taille fixe hors du tas Java (voir
+ * LacEnregistrements): le tas ne grandit plus avec les populations. Avec --projection dossier, les enregistrements sont
+ * projetés en mémoire depuis des fichiers créés dans dossier, que le système garde en mémoire au besoin; sinon, leur
+ * taille est limitée par -XX:MaxDirectMemorySize. Il n'existe que si la racine incubator/ a été compilée, avec javac
+ * --add-modules jdk.incubator.foreign, et demande de lancer java avec la même option. Il a les mêmes restrictions que
+ * le moteur colonnes. Il donne le même résultat que les moteurs objets et colonnes.
+ *
+ * Compilé avec la racine incubator/ et lancé avec java --add-modules jdk.incubator.vector, le moteur colonnes traite
+ * plusieurs plantes par instruction (voir NoyauPlantes). Le résultat ne change pas; le gain n'apparaît qu'une fois
+ * le code compilé, sur de longues simulations.
  */
 public final class Simulation {
+    private static final int TAILLE_FILE_MESURES = 1024;  // Cycles whose measures can wait to be written.
+
     public static void main(String[] args) {
         int nombreCycles = 50;
+        int nombreReplicas = 0;
+        GenerateurAleatoire generateur = GenerateurCompteur.sansGraine();
+        int parallelisme = Runtime.getRuntime().availableProcessors();
+        boolean parallelismeFixe = false;  // Without --parallelisme, the phases run on the common pool.
+        List<Balayage.Parametre> parametres = new ArrayList<>();
+        int nombreTirages = 0;
+        Path sauvegarde = null;
+        int intervalleSauvegarde = 0;
+        Path reprise = null;
+        Path fichierMesures = null;
+        boolean jmx = false;
+        boolean recyclage = false;
+        String lot = null;
+        String moteur = "objets";
+        Path projection = null;
 
         Iterator<String> argsIterator = Arrays.stream(args).iterator();
         while (argsIterator.hasNext()) {
             var next = argsIterator.next();
             switch (next) {
                 case "--nombre-cycles" -> nombreCycles = Integer.parseInt(argsIterator.next());
+                case "--graine" -> generateur = new GenerateurCompteur(Long.parseLong(argsIterator.next()));
+                case "--replicas" -> nombreReplicas = Integer.parseInt(argsIterator.next());
+                case "--parallelisme" -> {
+                    parallelisme = Integer.parseInt(argsIterator.next());
+                    parallelismeFixe = true;
+                }
+                case "--parametre" -> {
+                    try {
+                        parametres.add(Balayage.Parametre.lire(argsIterator.next()));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("erreur: paramètre invalide: " + e.getMessage());
+                        return;
+                    }
+                }
+                case "--plan-aleatoire" -> nombreTirages = Integer.parseInt(argsIterator.next());
+                case "--sauvegarde" -> sauvegarde = Path.of(argsIterator.next());
+                case "--intervalle-sauvegarde" -> intervalleSauvegarde = Integer.parseInt(argsIterator.next());
+                case "--reprise" -> reprise = Path.of(argsIterator.next());
+                case "--mesures" -> fichierMesures = Path.of(argsIterator.next());
+                case "--jmx" -> jmx = true;
+                case "--recyclage" -> recyclage = true;
+                case "--lot" -> lot = argsIterator.next();
+                case "--moteur" -> {
+                    moteur = argsIterator.next();
+                    if (!moteur.equals("objets") && !moteur.equals("colonnes") && !moteur.equals("cohortes")
+                            && !moteur.equals("enregistrements")) {
+                        System.out.println("erreur: moteur inconnu \"" + moteur + "\"");
+                        return;
+                    }
+                }
+                case "--projection" -> projection = Path.of(argsIterator.next());
                 default -> {
                     System.out.println("erreur: option inconnue \"" + next + "\"");
                     return;
@@ -24,31 +139,232 @@ public final class Simulation {
             }
         }
 
-        var xmlInputFactory = XMLInputFactory.newInstance();
-        XMLEventReader reader;
-        try {
-            reader = xmlInputFactory.createXMLEventReader(System.in);
-        } catch (XMLStreamException e) {
-            System.out.println("erreur: je ne peux pas lire les conditions initiales");
-            e.printStackTrace();
+        if (!moteur.equals("objets") && (reprise != null || !parametres.isEmpty() || nombreReplicas > 0
+                || sauvegarde != null || lot != null || recyclage)) {
+            System.out.println("erreur: --moteur " + moteur + " ne se combine pas avec --reprise, --parametre, "
+                    + "--replicas, --sauvegarde, --lot ni --recyclage");
+            return;
+        }
+
+        if (nombreReplicas > 0 && (fichierMesures != null || jmx || sauvegarde != null || intervalleSauvegarde > 0)) {
+            System.out.println("erreur: --replicas ne se combine pas avec --mesures, --jmx, --sauvegarde ni "
+                    + "--intervalle-sauvegarde");
             return;
         }
 
-        var conditionsInitiales = new ConditionsInitiales(reader);
-        Lac lac;
+        if (!parametres.isEmpty() && (nombreReplicas > 0 || fichierMesures != null || jmx || sauvegarde != null
+                || intervalleSauvegarde > 0)) {
+            System.out.println("erreur: --parametre ne se combine pas avec --replicas, --mesures, --jmx, --sauvegarde "
+                    + "ni --intervalle-sauvegarde");
+            return;
+        }
+
+        if (projection != null && !moteur.equals("enregistrements")) {
+            System.out.println("erreur: --projection ne se combine qu'avec --moteur enregistrements");
+            return;
+        }
+        Scenario.UsineMoteur<?> usineEnregistrements = null;
+        if (moteur.equals("enregistrements")) {
+            if (ModuleLayer.boot().findModule("jdk.incubator.foreign").isEmpty()) {
+                System.out.println("erreur: --moteur enregistrements demande java --add-modules jdk.incubator.foreign");
+                return;
+            }
+            usineEnregistrements = usineEnregistrements(projection);
+            if (usineEnregistrements == null) {
+                System.out.println("erreur: --moteur enregistrements demande de compiler la racine incubator/");
+                return;
+            }
+        }
+
+        if (lot != null) {
+            if (reprise != null || !parametres.isEmpty() || nombreReplicas > 0 || sauvegarde != null
+                    || fichierMesures != null || jmx) {
+                System.out.println("erreur: --lot ne se combine qu'avec --nombre-cycles, --graine, --parallelisme "
+                        + "et --recyclage");
+                return;
+            }
+            executerLot(lot, nombreCycles, parallelisme, generateur.getGraine(), recyclage);
+            return;
+        }
+
+        ForkJoinPool executeur = !parallelismeFixe ? ForkJoinPool.commonPool()
+                : parallelisme > 1 ? new ForkJoinPool(parallelisme) : null;
+
+        Lac lac = null;
+        MoteurLac moteurLac;
+        if (reprise != null) {
+            if (!parametres.isEmpty()) {
+                System.out.println("erreur: un balayage ne peut pas repartir d'un instantané");
+                return;
+            }
+            try {
+                lac = Instantane.lire(reprise);
+            } catch (IOException e) {
+                System.out.println("erreur: je ne peux pas lire l'instantané " + reprise);
+                e.printStackTrace();
+                return;
+            }
+            moteurLac = lac;
+        } else {
+            var xmlInputFactory = XMLInputFactory.newInstance();
+            XMLStreamReader reader;
+            try {
+                reader = xmlInputFactory.createXMLStreamReader(System.in);
+            } catch (XMLStreamException e) {
+                System.out.println("erreur: je ne peux pas lire les conditions initiales");
+                e.printStackTrace();
+                return;
+            }
+
+            var conditionsInitiales = new ConditionsInitiales(reader, generateur);
+            Scenario scenario;
+            try {
+                scenario = conditionsInitiales.nextScenario();
+            } catch (ConditionsInitialesInvalides e) {
+                System.out.println("erreur: les conditions initiales sont invalides");
+                e.printStackTrace();
+                return;
+            }
+
+            if (!parametres.isEmpty()) {
+                Balayage balayage;
+                try {
+                    balayage = new Balayage(scenario, parametres, nombreTirages, generateur.getGraine());
+                } catch (IllegalArgumentException e) {
+                    System.out.println("erreur: paramètre invalide: " + e.getMessage());
+                    return;
+                }
+                try {
+                    balayage.executer(nombreCycles, parallelisme, recyclage, System.out);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+
+            try {
+                moteurLac = switch (moteur) {
+                    case "colonnes" -> scenario.creer(LacColonnes.usine(), generateur);
+                    case "cohortes" -> scenario.creer(LacCohortes.usine(), generateur);
+                    case "enregistrements" -> scenario.creer(usineEnregistrements, generateur);
+                    default -> lac = scenario.creerLac(generateur);
+                };
+            } catch (UncheckedIOException e) {
+                System.out.println("erreur: je ne peux pas créer les enregistrements dans " + projection);
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        if (lac != null) {
+            lac.setRecyclage(recyclage);
+
+            if (nombreReplicas > 0) {
+                var ensemble = new Ensemble(lac, nombreReplicas, lac.getGenerateur().getGraine());
+                ensemble.executer(nombreCycles, executeur);
+
+                System.out.println("Après " + (lac.getCycle() + nombreCycles) + " cycles :");
+                ensemble.imprimeRapport(System.out);
+                return;
+            }
+        }
+
+        // Closed whichever way the simulation ends, to free the records of LacEnregistrements.
+        try (moteurLac) {
+            moteurLac.setExecuteur(executeur);
+            Consumer<MesuresCycle> observateur = null;
+            if (jmx) {
+                var moniteur = new MoniteurLac();
+                try {
+                    moniteur.enregistrer();
+                } catch (JMException e) {
+                    System.out.println("erreur: je ne peux pas publier le moniteur JMX");
+                    e.printStackTrace();
+                    return;
+                }
+                observateur = moniteur;
+            }
+
+            EcrivainMesures mesures = null;
+            try {
+                if (fichierMesures != null) {
+                    mesures = new EcrivainMesures(Files.newBufferedWriter(fichierMesures, StandardCharsets.UTF_8),
+                            TAILLE_FILE_MESURES);
+                    observateur = observateur == null ? mesures : observateur.andThen(mesures);
+                }
+                moteurLac.setObservateur(observateur);
+
+                for (int i = 0; i < nombreCycles; i += 1) {
+                    moteurLac.tick();
+                    if (sauvegarde != null && intervalleSauvegarde > 0 && (i + 1) % intervalleSauvegarde == 0
+                            && !sauvegarder(lac, sauvegarde))
+                        return;
+                }
+                if (sauvegarde != null && !sauvegarder(lac, sauvegarde))
+                    return;
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("erreur: je ne peux pas écrire les mesures dans " + fichierMesures);
+                e.printStackTrace();
+                return;
+            } finally {
+                if (mesures != null)
+                    fermer(mesures, fichierMesures);
+            }
+
+            System.out.println("Après " + moteurLac.getCycle() + " cycles :");
+            moteurLac.imprimeRapport(System.out);
+        }
+    }
+
+    // Returns the factory of LacEnregistrements, or null if it wasn't compiled. The class lives in the optional source
+    // root incubator/, so it is loaded by name, like NoyauPlantesVectoriel. See NoyauPlantes.charger.
+    private static Scenario.UsineMoteur<?> usineEnregistrements(Path projection) {
         try {
-            lac = conditionsInitiales.nextLac();
-        } catch (ConditionsInitialesInvalides e) {
-            System.out.println("erreur: les conditions initiales sont invalides");
+            return (Scenario.UsineMoteur<?>) Class.forName("com.IFT.SimLac.LacEnregistrements")
+                    .getMethod("usine", Path.class).invoke(null, projection);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static void executerLot(String chemin, int nombreCycles, int parallelisme, long graine,
+                                    boolean recyclage) {
+        Lot lot;
+        try {
+            lot = chemin.equals("-") ? Lot.depuis(System.in) : Lot.depuis(Path.of(chemin));
+        } catch (IOException e) {
+            System.out.println("erreur: je ne peux pas lire " + chemin);
             e.printStackTrace();
             return;
         }
 
-        for (int i = 0; i < nombreCycles; i += 1) {
-            lac.tick();
+        try {
+            lot.executer(nombreCycles, parallelisme, graine, recyclage, System.out);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        if (lot.getNombreErreurs() > 0)
+            System.out.println("erreur: " + lot.getNombreErreurs() + " lacs n'ont pas pu être simulés");
+    }
 
-        System.out.println("Après " + nombreCycles + " cycles :");
-        lac.imprimeRapport(System.out);
+    private static void fermer(EcrivainMesures mesures, Path fichier) {
+        try {
+            mesures.close();
+        } catch (IOException e) {
+            System.out.println("erreur: je ne peux pas écrire les mesures dans " + fichier);
+            e.printStackTrace();
+        }
+    }
+
+    // Writes a snapshot of lac. Returns false if it failed.
+    private static boolean sauvegarder(Lac lac, Path fichier) {
+        try {
+            Instantane.ecrire(lac, fichier);
+            return true;
+        } catch (IOException e) {
+            System.out.println("erreur: je ne peux pas écrire l'instantané " + fichier);
+            e.printStackTrace();
+            return false;
+        }
     }
 }
@@ -0,0 +1,58 @@
+package com.IFT.SimLac;
+
+/**
+ * A sequence of uniform draws reserved to one organism, for one cycle and one purpose.
+ *
+ * Lac hands one of these to the organism each time it needs randomness. Since the sequence only depends on the
+ * organism's key, the cycle and the purpose, the draws an organism gets don't depend on what other organisms did
+ * before it. A thread may hand the same instance to one organism after the other, see reprendre.
+ */
+
+public final class Tirages {
+
+    // Purposes for which an organism draws random values during a cycle.
+    public enum Usage {
+        SURVIE,        // survivalCheck
+        REPRODUCTION,  // reproductionCheck
+        NAISSANCE,     // Keys of the newborns
+        REPAS,         // Number of meals
+        CHOIX,         // Which plants or prey are eaten
+        VORACITE,      // Fraction of a plant eaten by an herbivore
+        DIVISION       // Keys of the rows that leave a cohort. See LacCohortes.
+    }
+
+    private final GenerateurAleatoire generateur;
+    private long cle;
+    private long cycle;
+    private Usage usage;
+    private int rang = 0;  // Rank of the next draw.
+
+
+    // Constructors
+    public Tirages(GenerateurAleatoire generateur, long cle, long cycle, Usage usage) {
+        this.generateur = generateur;
+        reprendre(cle, cycle, usage);
+    }
+
+    // Draws of no one yet. reprendre must be called before the first draw.
+    Tirages(GenerateurAleatoire generateur) {
+        this.generateur = generateur;
+    }
+
+
+    // Starts over with the draws reserved to another organism, cycle or purpose, and returns this. The draws given
+    // before are no longer used: they would be the same as those of a new instance.
+    Tirages reprendre(long cle, long cycle, Usage usage) {
+        this.cle = cle;
+        this.cycle = cycle;
+        this.usage = usage;
+        this.rang = 0;
+        return this;
+    }
+
+
+    // Returns the next uniform value in [0, 1).
+    public double suivant() {
+        return generateur.uniforme(cle, cycle, usage, rang++);
+    }
+}
@@ -16,49 +16,51 @@ public class UsineCarnivore extends UsineOrganisme {
     double debrouillardise;                     // Determines the chance of having one or multiple meals during a cycle.
     Set<String> aliments = new HashSet<>();     // Set of Herbivore objects that can be eaten by this Carnivore.
 
-    // Only used to initialize verifiateurCarnivore.
-    private final Verificateur[] arrayVerifCarnivore = {
-            new Verificateur("debrouillardise"),
-            new Verificateur("aliments")
-    };
+    // Fields required by every carnivore. See UsineOrganisme.
+    private static final int CHAMPS_CARNIVORE = CHAMPS_ORGANISME | DEBROUILLARDISE | ALIMENTS;
 
-    // Keeps track of initialized attributes. Used as a condition before the builder method can be called.
-    protected final List<Verificateur> verifiateurCarnivore = Arrays.asList(arrayVerifCarnivore);
 
+    // Builder methods
+    // Returns the descriptor of the species, shared by all the carnivores built from it.
+    public EspeceCarnivore creerEspece(){
+        verifierInitialises(CHAMPS_CARNIVORE);
 
-    // Builder method
-    public Carnivore creerCarnivore(){
-        var verificateurComplet = new ArrayList<Verificateur>();
-        verificateurComplet.addAll(verifiateurOrganisme);
-        verificateurComplet.addAll(verifiateurCarnivore);
+        return new EspeceCarnivore(nomEspece, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
+                energieEnfant, tailleMaximum, debrouillardise, aliments);
+    }
 
-        for (var verif : verificateurComplet){
-            if (!verif.initialized)
-                throw new IllegalStateException(
-                        verif.nomChamps + " must be initialized before the creerCarnivore method can be called");
-        }
 
-        return new Carnivore(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience, fertilite,
-                ageFertilite, energieEnfant, debrouillardise, aliments, tailleMaximum);
+    // Returns a new factory with the same attributes.
+    public UsineCarnivore copier() {
+        var copie = new UsineCarnivore();
+        copierDans(copie);
+        if (estInitialise(DEBROUILLARDISE))
+            copie.setDebrouillardise(debrouillardise);
+        aliments.forEach(copie::addAliment);
+        return copie;
     }
 
 
     // Setters
+    @Override
+    public void setParametre(String nom, double valeur) {
+        if (nom.equals("debrouillardise"))
+            setDebrouillardise(valeur);
+        else
+            super.setParametre(nom, valeur);
+    }
+
     public void setDebrouillardise(double debrouillardise) {
         if (debrouillardise < 0 || debrouillardise > 1)
             throw new IllegalArgumentException("debrouillardise must be a value between 0 and 1");
         this.debrouillardise = debrouillardise;
-        verifiateurCarnivore.stream()
-                .filter(f -> f.nomChamps.equals("debrouillardise"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= DEBROUILLARDISE;
     }
 
     public void addAliment(String aliment){
         if (aliment.equals(""))
             throw new IllegalArgumentException("aliments can't be empty");
         aliments.add(aliment);
-        verifiateurCarnivore.stream()
-                .filter(f -> f.nomChamps.equals("aliments"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= ALIMENTS;
     }
 }
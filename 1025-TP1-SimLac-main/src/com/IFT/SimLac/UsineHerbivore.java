@@ -18,69 +18,72 @@ public final class UsineHerbivore extends UsineOrganisme{
     double voraciteMax;                         // The maximum ratio of a plant an herbivore eats in one meal.
     Set<String> aliments = new HashSet<>();     // Set of Plante objects that can be eaten by this herbivore.
 
-    // Only used to initialize verifiateurHerbivore.
-    private final Verificateur[] arrayVerifHerbivore = {
-            new Verificateur("debrouillardise"),
-            new Verificateur("voraciteMin"),
-            new Verificateur("voraciteMax"),
-            new Verificateur("aliments")
-    };
-
-    // Keeps track of initialized attributes. Used as a condition before the builder method can be called.
-    protected final List<Verificateur> verifiateurHerbivore = Arrays.asList(arrayVerifHerbivore);
-
-
-    // Builder method
-    public Herbivore creerHerbivore() {
-        var verificateurComplet = new ArrayList<Verificateur>();
-        verificateurComplet.addAll(verifiateurOrganisme);
-        verificateurComplet.addAll(verifiateurHerbivore);
-
-        for (var verif : verificateurComplet){
-            if (!verif.initialized)
-                throw new IllegalStateException(
-                        verif.nomChamps + " must be initialized before the creerHerbivore method can be called");
-        }
+    // Fields required by every herbivore. See UsineOrganisme.
+    private static final int CHAMPS_HERBIVORE = CHAMPS_ORGANISME | DEBROUILLARDISE | VORACITE_MIN | VORACITE_MAX
+            | ALIMENTS;
+
+
+    // Builder methods
+    // Returns the descriptor of the species, shared by all the herbivores built from it.
+    public EspeceHerbivore creerEspece() {
+        verifierInitialises(CHAMPS_HERBIVORE);
 
-        return new Herbivore(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience, fertilite,
-                ageFertilite, energieEnfant, debrouillardise, voraciteMin, voraciteMax, aliments, tailleMaximum);
+        return new EspeceHerbivore(nomEspece, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
+                energieEnfant, tailleMaximum, debrouillardise, voraciteMin, voraciteMax, aliments);
+    }
+
+
+    // Returns a new factory with the same attributes.
+    public UsineHerbivore copier() {
+        var copie = new UsineHerbivore();
+        copierDans(copie);
+        if (estInitialise(DEBROUILLARDISE))
+            copie.setDebrouillardise(debrouillardise);
+        if (estInitialise(VORACITE_MIN))
+            copie.setVoraciteMin(voraciteMin);
+        if (estInitialise(VORACITE_MAX))
+            copie.setVoraciteMax(voraciteMax);
+        aliments.forEach(copie::addAliment);
+        return copie;
     }
 
 
     // Setters
+    @Override
+    public void setParametre(String nom, double valeur) {
+        switch (nom) {
+            case "debrouillardise" -> setDebrouillardise(valeur);
+            case "voraciteMin" -> setVoraciteMin(valeur);
+            case "voraciteMax" -> setVoraciteMax(valeur);
+            default -> super.setParametre(nom, valeur);
+        }
+    }
+
     public void setDebrouillardise(double debrouillardise) {
         if (debrouillardise < 0 || debrouillardise > 1)
             throw new IllegalArgumentException("debrouillardise must be a value between 0 and 1");
         this.debrouillardise = debrouillardise;
-        verifiateurHerbivore.stream()
-                .filter(f -> f.nomChamps.equals("debrouillardise"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= DEBROUILLARDISE;
     }
 
     public void setVoraciteMin(double voraciteMin) {
         if (voraciteMin < 0 || voraciteMin > 1)
             throw new IllegalArgumentException("voraciteMin must be a value between 0 and 1");
         this.voraciteMin = voraciteMin;
-        verifiateurHerbivore.stream()
-                .filter(f -> f.nomChamps.equals("voraciteMin"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= VORACITE_MIN;
     }
 
     public void setVoraciteMax(double voraciteMax) {
         if (voraciteMax < 0 || voraciteMax > 1)
             throw new IllegalArgumentException("voraciteMax must be a value between 0 and 1");
         this.voraciteMax = voraciteMax;
-        verifiateurHerbivore.stream()
-                .filter(f -> f.nomChamps.equals("voraciteMax"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= VORACITE_MAX;
     }
 
     public void addAliment(String aliment){
         if (aliment.equals(""))
             throw new IllegalArgumentException("aliments can't be empty");
         aliments.add(aliment);
-        verifiateurHerbivore.stream()
-                .filter(f -> f.nomChamps.equals("aliments"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= ALIMENTS;
     }
 }
@@ -1,8 +1,5 @@
 package com.IFT.SimLac;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * Authors : Mathieu Morin & Adrian Sanchez Roy
  * Date :    March 1st 2021
@@ -14,22 +11,26 @@ import java.util.List;
 
 public abstract class UsineOrganisme {
 
-    // Verificateur inner class is used as a condition to make sure all attributes are initialized before the builder
-    // methods are called. It also makes possible to get the name of the uninitialized field so the builder method can
-    // throw the appropriate error message.
-    protected static class Verificateur {
-        protected String nomChamps;
-        protected boolean initialized;
+    // Each field that must be initialized before the builder methods can be called has one bit. Subclasses use the
+    // bits of their own fields. The name of the field of bit i is NOMS_CHAMPS[i], for the error messages.
+    protected static final int NOM_ESPECE = 1;
+    protected static final int BESOIN_ENERGIE = 1 << 1;
+    protected static final int EFFICACITE_ENERGIE = 1 << 2;
+    protected static final int RESILIENCE = 1 << 3;
+    protected static final int FERTILITE = 1 << 4;
+    protected static final int AGE_FERTILITE = 1 << 5;
+    protected static final int ENERGIE_ENFANT = 1 << 6;
+    protected static final int DEBROUILLARDISE = 1 << 7;
+    protected static final int VORACITE_MIN = 1 << 8;
+    protected static final int VORACITE_MAX = 1 << 9;
+    protected static final int ALIMENTS = 1 << 10;
 
-        protected Verificateur(String nomChamps) {
-            this.nomChamps = nomChamps;
-            this.initialized = false;
-        }
+    // Fields required by every organism.
+    protected static final int CHAMPS_ORGANISME = NOM_ESPECE | BESOIN_ENERGIE | EFFICACITE_ENERGIE | RESILIENCE
+            | FERTILITE | AGE_FERTILITE | ENERGIE_ENFANT;
 
-        protected void initialize(){
-            this.initialized = true;
-        }
-    }
+    private static final String[] NOMS_CHAMPS = {"nomEspece", "besoinEnergie", "efficaciteEnergie", "resilience",
+            "fertilite", "ageFertilite", "energieEnfant", "debrouillardise", "voraciteMin", "voraciteMax", "aliments"};
 
 
     // attributes
@@ -42,21 +43,12 @@ public abstract class UsineOrganisme {
     protected double energieEnfant;           // Starting energy at birth
     protected double tailleMaximum = -1;      // Limits growth. -1 means 'not yet initialized'.
                                                   // Optional field in the XML file. Default value: 20 * energieEnfant
+    private boolean tailleMaximumSpecifiee = false;  // Whether tailleMaximum was set explicitly.
 
 
-    // Only used to initialize verifiateurOrganisme.
-    private final Verificateur[] arrayVerifOrganisme = {
-            new Verificateur("nomEspece"),
-            new Verificateur("besoinEnergie"),
-            new Verificateur("efficaciteEnergie"),
-            new Verificateur("resilience"),
-            new Verificateur("fertilite"),
-            new Verificateur("ageFertilite"),
-            new Verificateur("energieEnfant"),
-    };
-
-    // Keeps track of initialized attributes. Used as a condition before the builder method can be called.
-    protected final List<Verificateur> verifiateurOrganisme = Arrays.asList(arrayVerifOrganisme);
+    // Keeps track of initialized attributes, one bit per field. Used as a condition before the builder method can be
+    // called.
+    protected int champsInitialises = 0;
 
 
     // Setters
@@ -64,54 +56,42 @@ public abstract class UsineOrganisme {
         if (nomEspece.equals(""))
             throw new IllegalArgumentException("nomEspece can't be empty");
         this.nomEspece = nomEspece;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("nomEspece"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= NOM_ESPECE;
     }
 
     public void setBesoinEnergie(double besoinEnergie) {
         if (besoinEnergie <= 0)
             throw new IllegalArgumentException("besoinEnergie must be greater than 0");
         this.besoinEnergie = besoinEnergie;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("besoinEnergie"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= BESOIN_ENERGIE;
     }
 
     public void setEfficaciteEnergie(double efficaciteEnergie) {
         if (efficaciteEnergie < 0 || efficaciteEnergie > 1)
             throw new IllegalArgumentException("efficaciteEnergie must be a value between 0 and 1");
         this.efficaciteEnergie = efficaciteEnergie;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("efficaciteEnergie"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= EFFICACITE_ENERGIE;
     }
 
     public void setResilience(double resilience) {
         if (resilience < 0 || resilience > 1)
             throw new IllegalArgumentException("resilience must be a value between 0 and 1");
         this.resilience = resilience;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("resilience"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= RESILIENCE;
     }
 
     public void setFertilite(double fertilite) {
         if (fertilite < 0 || fertilite > 1)
             throw new IllegalArgumentException("fertilite must be a value between 0 and 1");
         this.fertilite = fertilite;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("fertilite"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= FERTILITE;
     }
 
     public void setAgeFertilite(int ageFertilite) {
         if (ageFertilite < 0 )
             throw new IllegalArgumentException("ageFertilite must be greater or equal to 0");
         this.ageFertilite = ageFertilite;
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("ageFertilite"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= AGE_FERTILITE;
     }
 
     public void setEnergieEnfant(double energieEnfant) {
@@ -119,12 +99,10 @@ public abstract class UsineOrganisme {
             throw new IllegalArgumentException("energieEnfant must be greater than 0");
         this.energieEnfant = energieEnfant;
 
-        if (tailleMaximum == -1)
+        if (!tailleMaximumSpecifiee)
             this.tailleMaximum = 20 * energieEnfant;
 
-        verifiateurOrganisme.stream()
-                .filter(f -> f.nomChamps.equals("energieEnfant"))
-                .forEach(Verificateur::initialize);
+        champsInitialises |= ENERGIE_ENFANT;
     }
 
 
@@ -132,7 +110,60 @@ public abstract class UsineOrganisme {
         if (tailleMaximum <= 0)
             throw new IllegalArgumentException("tailleMaximum must be greater than 0");
         this.tailleMaximum = tailleMaximum;
+        this.tailleMaximumSpecifiee = true;
+    }
+
+    // Sets a numeric attribute from its name. Used to vary the parameters of a species without reading the XML file
+    // again. Subclasses add their own attributes.
+    public void setParametre(String nom, double valeur) {
+        switch (nom) {
+            case "besoinEnergie" -> setBesoinEnergie(valeur);
+            case "efficaciteEnergie" -> setEfficaciteEnergie(valeur);
+            case "resilience" -> setResilience(valeur);
+            case "fertilite" -> setFertilite(valeur);
+            case "ageFertilite" -> setAgeFertilite((int) Math.round(valeur));
+            case "energieEnfant" -> setEnergieEnfant(valeur);
+            case "tailleMaximum" -> setTailleMaximum(valeur);
+            default -> throw new IllegalArgumentException(nom + " is not a numeric attribute of this organism");
+        }
     }
-}
 
 
+    // Getters
+    public String getNomEspece() {
+        return nomEspece;
+    }
+
+
+    // Copies the initialized attributes of this factory into copie, through the setters.
+    protected void copierDans(UsineOrganisme copie) {
+        if (estInitialise(NOM_ESPECE))
+            copie.setNomEspece(nomEspece);
+        if (estInitialise(BESOIN_ENERGIE))
+            copie.setBesoinEnergie(besoinEnergie);
+        if (estInitialise(EFFICACITE_ENERGIE))
+            copie.setEfficaciteEnergie(efficaciteEnergie);
+        if (estInitialise(RESILIENCE))
+            copie.setResilience(resilience);
+        if (estInitialise(FERTILITE))
+            copie.setFertilite(fertilite);
+        if (estInitialise(AGE_FERTILITE))
+            copie.setAgeFertilite(ageFertilite);
+        if (estInitialise(ENERGIE_ENFANT))
+            copie.setEnergieEnfant(energieEnfant);
+        if (tailleMaximumSpecifiee)
+            copie.setTailleMaximum(tailleMaximum);
+    }
+
+    protected boolean estInitialise(int champs) {
+        return (champsInitialises & champs) == champs;
+    }
+
+    // Throws IllegalStateException, naming the first missing field, unless all the given fields are initialized.
+    protected void verifierInitialises(int champs) {
+        int manquants = champs & ~champsInitialises;
+        if (manquants != 0)
+            throw new IllegalStateException(NOMS_CHAMPS[Integer.numberOfTrailingZeros(manquants)]
+                    + " must be initialized before the creerEspece method can be called");
+    }
+}
@@ -2,15 +2,19 @@ package com.IFT.SimLac;
 
 public class UsinePlante extends UsineOrganisme{
 
-    public Plante creerPlante(){
-        for (var verif : verifiateurOrganisme){
-            if (!verif.initialized)
-                throw new IllegalStateException(
-                        verif.nomChamps + " must be initialized before the creerCarnivore method can be called");
-        }
+    // Returns the descriptor of the species, shared by all the plants built from it.
+    public Espece creerEspece(){
+        verifierInitialises(CHAMPS_ORGANISME);
 
-        return new Plante(nomEspece, energieEnfant, 0, besoinEnergie, efficaciteEnergie, resilience, fertilite,
-                ageFertilite, energieEnfant, tailleMaximum);
+        return new Espece(nomEspece, besoinEnergie, efficaciteEnergie, resilience, fertilite, ageFertilite,
+                energieEnfant, tailleMaximum);
+    }
+
+    // Returns a new factory with the same attributes.
+    public UsinePlante copier() {
+        var copie = new UsinePlante();
+        copierDans(copie);
+        return copie;
     }
 
 }
\ No newline at end of file
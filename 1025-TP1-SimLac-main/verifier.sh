@@ -0,0 +1,57 @@
+#!/bin/sh
+# Builds the simulation with the JDK alone, without any build tool or network access, then runs its checks.
+#
+#     ./verifier.sh [--incubator] [--sans-bancs]
+#
+# src and bench are compiled into out/ with -encoding UTF-8 -Xlint:all -Werror. VerificationLois and
+# VerificationReprise then run, followed by a short pass of BancsLac that only makes sure every benchmark runs; see
+# BancsLac for real measurements. With --incubator, the optional root incubator/ is compiled too (its warning about
+# incubating modules can't be turned off, so it is built without -Werror), and everything runs with the incubator
+# modules, which adds LacEnregistrements to VerificationReprise and the vector kernel to BancsLac. --sans-bancs skips
+# BancsLac.
+#
+# javac and java come from JAVA_HOME when it is set, from the PATH otherwise. JDK 17 or later. Stops at the first step
+# that fails, with its status.
+
+set -e
+cd "$(dirname "$0")"
+
+incubator=false
+bancs=true
+for option in "$@"; do
+    case "$option" in
+        --incubator) incubator=true ;;
+        --sans-bancs) bancs=false ;;
+        *) echo "erreur: option inconnue \"$option\"" >&2; exit 2 ;;
+    esac
+done
+
+if [ -n "$JAVA_HOME" ]; then
+    javac="$JAVA_HOME/bin/javac"
+    java="$JAVA_HOME/bin/java"
+else
+    javac=javac
+    java=java
+fi
+modules=
+if $incubator; then
+    modules="--add-modules jdk.incubator.vector,jdk.incubator.foreign"
+fi
+
+echo "== compilation"
+rm -rf out
+"$javac" -encoding UTF-8 -Xlint:all -Werror -d out $(find src bench -name '*.java')
+if $incubator; then
+    "$javac" -encoding UTF-8 -Xlint:all $modules -cp out -d out $(find incubator -name '*.java')
+fi
+
+echo "== VerificationLois"
+"$java" $modules -cp out com.IFT.SimLac.VerificationLois
+
+echo "== VerificationReprise"
+"$java" $modules -cp out com.IFT.SimLac.VerificationReprise
+
+if $bancs; then
+    echo "== BancsLac"
+    "$java" $modules -cp out com.IFT.SimLac.BancsLac --tailles 1000 --chauffe 1 --iterations 1 --duree-ms 100
+fi